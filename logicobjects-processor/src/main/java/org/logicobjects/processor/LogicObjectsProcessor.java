@@ -0,0 +1,450 @@
+package org.logicobjects.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Generates at compile time the subclasses of logic classes that LogicObjects otherwise generates at runtime with Javassist (the classes with the suffix ___LogicObjectsInstrumented).
+ * The logic object factory loads a pregenerated class when it is found in the class loader of its logic class, so the generation cost is not paid at startup.
+ * Classes that cannot be generated as source code (e.g., generic classes or classes whose logic methods embed Java expressions) are skipped with a note. They are still generated at runtime.
+ *
+ * This processor does not depend on the LogicObjects library: annotations are identified by their names and the constants shared with the runtime instrumentation are duplicated below.
+ * @author scastro
+ *
+ */
+@SupportedAnnotationTypes({LogicObjectsProcessor.LOBJECT_ANNOTATION, LogicObjectsProcessor.LDELEGATION_OBJECT_ANNOTATION})
+public class LogicObjectsProcessor extends AbstractProcessor {
+
+	public static final String LOBJECT_ANNOTATION = "org.logicobjects.annotation.LObject";
+	public static final String LDELEGATION_OBJECT_ANNOTATION = "org.logicobjects.annotation.LDelegationObject";
+	private static final String[] LOGIC_ROUTINE_ANNOTATIONS = new String[] {"org.logicobjects.annotation.method.LMethod", "org.logicobjects.annotation.method.LQuery", "org.logicobjects.annotation.method.LExpression"};
+
+	//these constants must be the same than the ones in LogicObjectInstrumentation and LogicMethodParser
+	public static final String GENERATED_CLASS_SUFFIX = "___LogicObjectsInstrumented";
+	private static final String GENERATED_PARAMETER_PREFIX = "logicObjectsParam";
+	private static final String GENERATED_INSTANCE_VAR_SUFFIX = "___LogicObjectsInstrumented";
+	private static final String LOGIC_ENGINE_CONFIG_FIELD_NAME = "logicEngineConfig" + GENERATED_INSTANCE_VAR_SUFFIX;
+	private static final String LOGIC_METHOD_FIELD_PREFIX = "logicMethod";
+	private static final String BEGIN_JAVA_EXPRESSION_BLOCK = "{|";
+
+	private static final String ENGINE_DRIVER_CLASS_NAME = "org.jpc.engine.prolog.driver.AbstractPrologEngineDriver";
+	private static final String INVOKER_CLASS_NAME = "org.logicobjects.instrumentation.LogicMethodInvoker";
+	private static final String NO_RESULT_EXCEPTION_CLASS_NAME = "org.logicobjects.core.NoLogicResultException";
+
+
+	private final Set<String> generatedClasses = new HashSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for(TypeElement annotation : annotations) {
+			for(Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if(element.getKind() == ElementKind.CLASS && element.getModifiers().contains(Modifier.ABSTRACT)) //only abstract classes are extended
+					generate((TypeElement) element);
+			}
+		}
+		return false; //other processors may be interested in these annotations
+	}
+
+	private void generate(TypeElement logicClass) {
+		Elements elements = processingEnv.getElementUtils();
+		String packageName = elements.getPackageOf(logicClass).getQualifiedName().toString();
+		String binaryName = elements.getBinaryName(logicClass).toString();
+		String generatedClassName = binaryName + GENERATED_CLASS_SUFFIX; //same name than the class generated at runtime
+		if(!generatedClasses.add(generatedClassName)) //a class annotated with both LObject and LDelegationObject
+			return;
+		try {
+			String source = new ClassGenerator(logicClass, packageName, generatedClassName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)).generate();
+			try (Writer writer = processingEnv.getFiler().createSourceFile(generatedClassName, logicClass).openWriter()) {
+				writer.write(source);
+			}
+		} catch (UnsupportedLogicClassException e) {
+			processingEnv.getMessager().printMessage(Kind.NOTE, "The class " + generatedClassName + " will be generated at runtime: " + e.getMessage(), logicClass);
+		} catch (InvalidLogicClassException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR, e.getMessage(), logicClass);
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR, "Impossible to write the class " + generatedClassName + ": " + e.getMessage(), logicClass);
+		}
+	}
+
+
+	/**
+	 * Thrown when a logic class cannot be generated at compile time. The class can still be generated at runtime.
+	 */
+	private static class UnsupportedLogicClassException extends Exception {
+		public UnsupportedLogicClassException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Thrown when a logic class is not well formed. Its generation at runtime would fail as well.
+	 */
+	private static class InvalidLogicClassException extends Exception {
+		public InvalidLogicClassException(String message) {
+			super(message);
+		}
+	}
+
+
+	/**
+	 * Generates the source code of the class extending a logic class.
+	 * The generated members are the same than the ones generated by the runtime instrumentation.
+	 */
+	private class ClassGenerator {
+
+		private final Elements elements = processingEnv.getElementUtils();
+		private final Types types = processingEnv.getTypeUtils();
+		private final TypeElement logicClass;
+		private final String packageName;
+		private final String simpleName;
+		private final List<? extends Element> members;
+		private final Set<ExecutableElement> implementedMethods = new HashSet<>();
+		private final StringBuilder fields = new StringBuilder();
+		private final StringBuilder body = new StringBuilder();
+		private int instrumentedMethodsCount;
+
+		public ClassGenerator(TypeElement logicClass, String packageName, String simpleName) {
+			this.logicClass = logicClass;
+			this.packageName = packageName;
+			this.simpleName = simpleName;
+			this.members = elements.getAllMembers(logicClass);
+		}
+
+		public String generate() throws UnsupportedLogicClassException, InvalidLogicClassException {
+			verifyClass();
+			addLogicEngineProperty();
+			createGettersAndSetters();
+			createConstructors();
+			createLogicMethods();
+
+			StringBuilder source = new StringBuilder();
+			if(!packageName.isEmpty())
+				source.append("package ").append(packageName).append(";\n\n");
+			source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+			source.append("public class ").append(simpleName).append(" extends ").append(logicClass.getQualifiedName()).append(" {\n\n");
+			source.append(fields).append("\n");
+			source.append(body);
+			source.append("}\n");
+			return source.toString();
+		}
+
+		private void verifyClass() throws UnsupportedLogicClassException {
+			if(!logicClass.getTypeParameters().isEmpty())
+				throw new UnsupportedLogicClassException("generic classes are not supported.");
+			for(Element enclosing = logicClass; enclosing.getKind().isClass(); enclosing = enclosing.getEnclosingElement()) {
+				TypeElement enclosingType = (TypeElement) enclosing;
+				if(enclosingType.getModifiers().contains(Modifier.PRIVATE))
+					throw new UnsupportedLogicClassException("private classes are not supported.");
+				if(enclosingType.getNestingKind() == NestingKind.LOCAL || enclosingType.getNestingKind() == NestingKind.ANONYMOUS)
+					throw new UnsupportedLogicClassException("local classes are not supported.");
+				if(enclosingType.getNestingKind() == NestingKind.MEMBER && !enclosingType.getModifiers().contains(Modifier.STATIC))
+					throw new UnsupportedLogicClassException("inner (non static) classes are not supported.");
+			}
+			for(ExecutableElement method : abstractMethods()) {
+				for(AnnotationMirror annotation : method.getAnnotationMirrors()) {
+					for(AnnotationValue value : annotation.getElementValues().values()) {
+						if(value.toString().contains(BEGIN_JAVA_EXPRESSION_BLOCK)) //the runtime instrumentation compiles these expressions as auxiliary methods
+							throw new UnsupportedLogicClassException("the method " + method.getSimpleName() + " embeds Java expressions.");
+					}
+				}
+			}
+		}
+
+		private void addLogicEngineProperty() {
+			fields.append("\tprivate ").append(ENGINE_DRIVER_CLASS_NAME).append(" ").append(LOGIC_ENGINE_CONFIG_FIELD_NAME).append(";\n");
+			body.append("\tpublic ").append(ENGINE_DRIVER_CLASS_NAME).append(" get").append(capitalize(LOGIC_ENGINE_CONFIG_FIELD_NAME)).append("() {\n");
+			body.append("\t\treturn ").append(LOGIC_ENGINE_CONFIG_FIELD_NAME).append(";\n\t}\n\n");
+			body.append("\tpublic void set").append(capitalize(LOGIC_ENGINE_CONFIG_FIELD_NAME)).append("(").append(ENGINE_DRIVER_CLASS_NAME).append(" ").append(LOGIC_ENGINE_CONFIG_FIELD_NAME).append(") {\n");
+			body.append("\t\tthis.").append(LOGIC_ENGINE_CONFIG_FIELD_NAME).append(" = ").append(LOGIC_ENGINE_CONFIG_FIELD_NAME).append(";\n\t}\n\n");
+		}
+
+		private void createGettersAndSetters() throws InvalidLogicClassException {
+			for(String arg : logicObjectArgs()) {
+				VariableElement propertyField = visibleField(arg);
+				ExecutableElement currentGetter = method(0, "get" + capitalize(arg), "is" + capitalize(arg));
+				ExecutableElement currentSetter = method(1, "set" + capitalize(arg));
+
+				String propertyType;
+				if(currentGetter != null)
+					propertyType = currentGetter.getReturnType().toString();
+				else if(currentSetter != null)
+					propertyType = currentSetter.getParameters().get(0).asType().toString();
+				else if(propertyField != null)
+					propertyType = propertyField.asType().toString();
+				else //there is no property (no field, getter, or setter) with the given id in the bean, assuming the desired type of the field is Object
+					propertyType = Object.class.getName();
+
+				boolean validGetter = currentGetter != null && !isAbstract(currentGetter);
+				boolean validSetter = currentSetter != null && !isAbstract(currentSetter);
+				if(!validGetter && validSetter && propertyField == null)
+					throw new InvalidLogicClassException("Impossible to generate accessor for property " + arg + ". Mutator exists but field does not.");
+				if(!validSetter && validGetter && propertyField == null)
+					throw new InvalidLogicClassException("Impossible to generate mutator for property " + arg + ". Accessor exists but field does not.");
+
+				if(propertyField == null && !validGetter && !validSetter) //a field should be generated
+					fields.append("\tprivate ").append(propertyType).append(" ").append(arg).append(";\n");
+
+				String getterName = currentGetter != null ? currentGetter.getSimpleName().toString() : "get" + capitalize(arg);
+				if(!validGetter || !isPublic(currentGetter)) {
+					appendAnnotations(currentGetter, "\t");
+					body.append("\tpublic ").append(propertyType).append(" ").append(getterName).append("() {\n");
+					body.append("\t\treturn ").append(validGetter ? "super." + getterName + "()" : "this." + arg).append(";\n\t}\n\n");
+					implementedMethods.add(currentGetter);
+				}
+
+				String setterName = "set" + capitalize(arg);
+				if(!validSetter || !isPublic(currentSetter)) {
+					appendAnnotations(currentSetter, "\t");
+					body.append("\tpublic void ").append(setterName).append("(").append(propertyType).append(" ").append(arg).append(") {\n");
+					body.append("\t\t").append(validSetter ? "super." + setterName + "(" + arg + ")" : "this." + arg + " = " + arg).append(";\n\t}\n\n");
+					implementedMethods.add(currentSetter);
+				}
+			}
+		}
+
+		private void createConstructors() throws UnsupportedLogicClassException {
+			boolean constructorFound = false;
+			for(Element member : logicClass.getEnclosedElements()) {
+				if(member.getKind() == ElementKind.CONSTRUCTOR && !member.getModifiers().contains(Modifier.PRIVATE)) {
+					ExecutableElement constructor = (ExecutableElement) member;
+					constructorFound = true;
+					appendAnnotations(constructor, "\t");
+					body.append("\t").append(accessModifier(constructor)).append(simpleName).append("(").append(parametersDeclaration(constructor)).append(")").append(throwsDeclaration(constructor)).append(" {\n");
+					body.append("\t\tsuper(").append(parametersList(constructor)).append(");\n\t}\n\n");
+				}
+			}
+			if(!constructorFound)
+				throw new UnsupportedLogicClassException("the class does not declare visible constructors.");
+		}
+
+		private void createLogicMethods() throws UnsupportedLogicClassException {
+			for(ExecutableElement method : abstractMethods()) {
+				if(implementedMethods.contains(method))
+					continue;
+				if(looksLikeBeanMethod(method) && !isAnnotatedAsLogicRoutine(method))
+					throw new UnsupportedLogicClassException("the abstract method " + method.getSimpleName() + " is neither a logic method nor an accessor of a logic object property.");
+				overrideMethod(method);
+			}
+		}
+
+		private void overrideMethod(ExecutableElement method) {
+			String methodFieldName = LOGIC_METHOD_FIELD_PREFIX + (++instrumentedMethodsCount) + GENERATED_INSTANCE_VAR_SUFFIX;
+			fields.append("\tprivate static final java.lang.reflect.Method ").append(methodFieldName).append(" = ").append(INVOKER_CLASS_NAME).append(".resolveMethod(").append(simpleName).append(".class, \"").append(method.getSimpleName()).append("\", new Class[]{").append(parameterClasses(method)).append("});\n");
+
+			appendAnnotations(method, "\t");
+			body.append("\t").append(accessModifier(method)).append(typeParametersDeclaration(method)).append(method.getReturnType()).append(" ").append(method.getSimpleName()).append("(").append(parametersDeclaration(method)).append(")").append(throwsDeclaration(method)).append(" {\n");
+			body.append("\t\tObject result = null;\n");
+			body.append("\t\ttry {\n");
+			body.append("\t\t\tresult = ").append(INVOKER_CLASS_NAME).append(".forEngine(").append(LOGIC_ENGINE_CONFIG_FIELD_NAME).append(").invoke(this, ").append(methodFieldName).append(", new Object[]{").append(parametersList(method)).append("});\n");
+			body.append("\t\t} catch (Exception e) {throw new RuntimeException(e);}\n");
+			TypeMirror returnType = method.getReturnType();
+			if(returnType.getKind() != TypeKind.VOID) {
+				if(returnType.getKind().isPrimitive()) {
+					body.append("\t\tif (result == null) {throw new ").append(NO_RESULT_EXCEPTION_CLASS_NAME).append("(); }\n");
+					body.append("\t\treturn ((").append(types.boxedClass((PrimitiveType) returnType).getQualifiedName()).append(")result).").append(returnType).append("Value();\n");
+				} else {
+					body.append("\t\treturn (").append(returnType).append(")result;\n");
+				}
+			}
+			body.append("\t}\n\n");
+		}
+
+		private List<ExecutableElement> abstractMethods() {
+			List<ExecutableElement> abstractMethods = new ArrayList<>();
+			for(Element member : members) {
+				if(member.getKind() == ElementKind.METHOD && isAbstract(member))
+					abstractMethods.add((ExecutableElement) member);
+			}
+			return abstractMethods;
+		}
+
+		@SuppressWarnings("unchecked")
+		private List<String> logicObjectArgs() {
+			for(AnnotationMirror annotation : logicClass.getAnnotationMirrors()) {
+				String annotationName = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+				if(annotationName.equals(LOBJECT_ANNOTATION) || annotationName.equals(LDELEGATION_OBJECT_ANNOTATION)) {
+					for(Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+						if(entry.getKey().getSimpleName().contentEquals("args")) {
+							List<String> args = new ArrayList<>();
+							for(AnnotationValue arg : (List<? extends AnnotationValue>) entry.getValue().getValue())
+								args.add((String) arg.getValue());
+							return args;
+						}
+					}
+				}
+			}
+			return Collections.emptyList();
+		}
+
+		private VariableElement visibleField(String name) {
+			for(Element member : members) {
+				if(member.getKind() == ElementKind.FIELD && member.getSimpleName().contentEquals(name)
+						&& !member.getModifiers().contains(Modifier.PRIVATE) && !member.getModifiers().contains(Modifier.STATIC))
+					return (VariableElement) member;
+			}
+			return null;
+		}
+
+		private ExecutableElement method(int parametersCount, String... names) {
+			for(String name : names) {
+				for(Element member : members) {
+					if(member.getKind() == ElementKind.METHOD && member.getSimpleName().contentEquals(name)
+							&& ((ExecutableElement) member).getParameters().size() == parametersCount && !member.getModifiers().contains(Modifier.STATIC))
+						return (ExecutableElement) member;
+				}
+			}
+			return null;
+		}
+
+		private void appendAnnotations(Element element, String indentation) {
+			if(element != null) {
+				for(AnnotationMirror annotation : element.getAnnotationMirrors())
+					body.append(indentation).append(annotation).append("\n");
+			}
+		}
+
+		private String accessModifier(Element element) {
+			if(element.getModifiers().contains(Modifier.PUBLIC))
+				return "public ";
+			else if(element.getModifiers().contains(Modifier.PROTECTED))
+				return "protected ";
+			else
+				return "";
+		}
+
+		private String typeParametersDeclaration(ExecutableElement method) {
+			if(method.getTypeParameters().isEmpty())
+				return "";
+			StringBuilder sb = new StringBuilder("<");
+			for(int i = 0; i<method.getTypeParameters().size(); i++) {
+				TypeParameterElement typeParameter = method.getTypeParameters().get(i);
+				sb.append(typeParameter.getSimpleName());
+				List<? extends TypeMirror> bounds = typeParameter.getBounds();
+				if(!(bounds.size() == 1 && bounds.get(0).toString().equals(Object.class.getName()))) {
+					sb.append(" extends ");
+					for(int j = 0; j<bounds.size(); j++) {
+						sb.append(bounds.get(j));
+						if(j != bounds.size()-1)
+							sb.append(" & ");
+					}
+				}
+				if(i != method.getTypeParameters().size()-1)
+					sb.append(", ");
+			}
+			return sb.append("> ").toString();
+		}
+
+		private String parametersDeclaration(ExecutableElement method) {
+			StringBuilder sb = new StringBuilder();
+			List<? extends VariableElement> parameters = method.getParameters();
+			for(int i = 0; i<parameters.size(); i++) {
+				TypeMirror parameterType = parameters.get(i).asType();
+				if(method.isVarArgs() && i == parameters.size()-1)
+					sb.append(((ArrayType) parameterType).getComponentType()).append("..."); //keep the variable arity of the overridden method
+				else
+					sb.append(parameterType);
+				sb.append(" ").append(GENERATED_PARAMETER_PREFIX).append(i+1);
+				if(i != parameters.size()-1)
+					sb.append(", ");
+			}
+			return sb.toString();
+		}
+
+		private String parametersList(ExecutableElement method) {
+			StringBuilder sb = new StringBuilder();
+			for(int i = 0; i<method.getParameters().size(); i++) {
+				sb.append(GENERATED_PARAMETER_PREFIX).append(i+1);
+				if(i != method.getParameters().size()-1)
+					sb.append(", ");
+			}
+			return sb.toString();
+		}
+
+		private String parameterClasses(ExecutableElement method) {
+			StringBuilder sb = new StringBuilder();
+			for(int i = 0; i<method.getParameters().size(); i++) {
+				sb.append(types.erasure(method.getParameters().get(i).asType())).append(".class");
+				if(i != method.getParameters().size()-1)
+					sb.append(", ");
+			}
+			return sb.toString();
+		}
+
+		private String throwsDeclaration(ExecutableElement method) {
+			if(method.getThrownTypes().isEmpty())
+				return "";
+			StringBuilder sb = new StringBuilder(" throws ");
+			for(int i = 0; i<method.getThrownTypes().size(); i++) {
+				sb.append(method.getThrownTypes().get(i));
+				if(i != method.getThrownTypes().size()-1)
+					sb.append(", ");
+			}
+			return sb.toString();
+		}
+
+		private boolean looksLikeBeanMethod(ExecutableElement method) {
+			String name = method.getSimpleName().toString();
+			int parametersCount = method.getParameters().size();
+			return (name.startsWith("get") && name.length() > 3 && parametersCount == 0 && method.getReturnType().getKind() != TypeKind.VOID)
+					|| (name.startsWith("is") && name.length() > 2 && parametersCount == 0 && method.getReturnType().getKind() == TypeKind.BOOLEAN)
+					|| (name.startsWith("set") && name.length() > 3 && parametersCount == 1);
+		}
+
+		private boolean isAnnotatedAsLogicRoutine(ExecutableElement method) {
+			for(AnnotationMirror annotation : method.getAnnotationMirrors()) {
+				String annotationName = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+				for(String logicRoutineAnnotation : LOGIC_ROUTINE_ANNOTATIONS) {
+					if(annotationName.equals(logicRoutineAnnotation))
+						return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static boolean isAbstract(Element element) {
+		return element.getModifiers().contains(Modifier.ABSTRACT);
+	}
+
+	private static boolean isPublic(Element element) {
+		return element.getModifiers().contains(Modifier.PUBLIC);
+	}
+
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+}
@@ -0,0 +1,130 @@
+package org.logicobjects.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.logicobjects.instrumentation.LogicObjectInstrumentation;
+
+/**
+ * Compiles logic classes with the processor and verifies that the generated classes are the ones the logic object factory looks for.
+ * @author scastro
+ *
+ */
+public class TestLogicObjectsProcessor {
+
+	private static final String FIXTURE_PACKAGE = "org.logicobjects.processor.fixture";
+
+	private static final String LOGIC_CLASS_SOURCE =
+			"package " + FIXTURE_PACKAGE + ";\n" +
+			"import org.logicobjects.annotation.LObject;\n" +
+			"import org.logicobjects.annotation.method.LQuery;\n" +
+			"@LObject(args = {\"name\"})\n" +
+			"public abstract class MyProcessedLogicClass {\n" +
+			"	@LQuery(\"true\")\n" +
+			"	public abstract boolean alwaysTrue();\n" +
+			"	@LQuery(\"$1 == $2\")\n" +
+			"	public abstract boolean same(String first, String second);\n" +
+			"}\n";
+
+	private static final String GENERIC_LOGIC_CLASS_SOURCE =
+			"package " + FIXTURE_PACKAGE + ";\n" +
+			"import org.logicobjects.annotation.LObject;\n" +
+			"import org.logicobjects.annotation.method.LQuery;\n" +
+			"@LObject\n" +
+			"public abstract class MyGenericLogicClass<T> {\n" +
+			"	@LQuery(\"true\")\n" +
+			"	public abstract boolean alwaysTrue();\n" +
+			"}\n";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private DiagnosticCollector<JavaFileObject> diagnostics;
+
+	/**
+	 * Compiles the given logic class with the processor and loads it from the compilation output directory.
+	 */
+	private Class compileAndLoad(String className, String source) throws Exception {
+		File sourceDir = temporaryFolder.newFolder("src");
+		File outputDir = temporaryFolder.newFolder("classes");
+		File sourceFile = new File(sourceDir, FIXTURE_PACKAGE.replace('.', File.separatorChar) + File.separator + className + ".java");
+		sourceFile.getParentFile().mkdirs();
+		Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertNotNull("The tests should be run with a JDK", compiler);
+		diagnostics = new DiagnosticCollector<>();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+			List<String> options = Arrays.asList(
+					"-classpath", System.getProperty("java.class.path"),
+					"-d", outputDir.getAbsolutePath(),
+					"-s", outputDir.getAbsolutePath(),
+					"-processor", LogicObjectsProcessor.class.getName());
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjects(sourceFile));
+			assertTrue("Compilation failed: " + diagnostics.getDiagnostics(), task.call());
+		}
+
+		URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDir.toURI().toURL()}, getClass().getClassLoader());
+		return Class.forName(FIXTURE_PACKAGE + "." + className, false, classLoader);
+	}
+
+	private boolean hasNote(String content) {
+		for(Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			if(diagnostic.getKind() == Diagnostic.Kind.NOTE && diagnostic.getMessage(null).contains(content))
+				return true;
+		}
+		return false;
+	}
+
+	@Test
+	public void testGeneratedClassIsFound() throws Exception {
+		Class logicClass = compileAndLoad("MyProcessedLogicClass", LOGIC_CLASS_SOURCE);
+		Class pregeneratedClass = LogicObjectInstrumentation.findPregeneratedClass(logicClass);
+		assertNotNull(pregeneratedClass);
+		assertEquals(LogicObjectInstrumentation.instrumentedClassName(logicClass), pregeneratedClass.getName());
+		assertEquals(logicClass, pregeneratedClass.getSuperclass());
+		assertFalse(Modifier.isAbstract(pregeneratedClass.getModifiers()));
+
+		Object logicObject = pregeneratedClass.newInstance();
+		assertTrue(logicClass.isInstance(logicObject));
+		pregeneratedClass.getMethod("setName", Object.class).invoke(logicObject, "name");
+		assertEquals("name", pregeneratedClass.getMethod("getName").invoke(logicObject));
+		assertNotNull(pregeneratedClass.getMethod("set" + capitalize(LogicObjectInstrumentation.LOGIC_ENGINE_CONFIG_FIELD_NAME),
+				AbstractPrologEngineDriver.class));
+	}
+
+	@Test
+	public void testUnsupportedClassIsSkipped() throws Exception {
+		Class logicClass = compileAndLoad("MyGenericLogicClass", GENERIC_LOGIC_CLASS_SOURCE);
+		assertNull(LogicObjectInstrumentation.findPregeneratedClass(logicClass)); //it will be generated at runtime
+		assertTrue(hasNote("generic classes are not supported"));
+	}
+
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+}
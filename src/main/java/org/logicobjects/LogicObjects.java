@@ -2,7 +2,9 @@ package org.logicobjects;
 
 import static java.util.Arrays.asList;
 
+import java.lang.reflect.Method;
 import java.net.URL;
+import java.util.List;
 import java.util.Set;
 
 import org.jcategory.JCategory;
@@ -12,6 +14,7 @@ import org.jpc.engine.provider.PrologEngineProvider;
 import org.jpc.term.Term;
 import org.logicobjects.core.ClassPathContext;
 import org.logicobjects.core.LogicObjectFactory;
+import org.logicobjects.instrumentation.LogicResultCache;
 import org.logicobjects.methodadapter.methodresult.solutioncomposition.WrapperAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +50,25 @@ public class LogicObjects extends JpcImpl {
 		return logicObjects.getLogicObjectFactory().create(declaringObject, clazz, asList(params));
 	}
 	
+	public static List<Object> invokeAll(Object logicObject, Method method, List<Object[]> argumentsList) {
+		return logicObjects.getLogicObjectFactory().invokeAll(logicObject, method, argumentsList);
+	}
+	
+	public static LogicResultCache getResultCache(Object logicObject, Method method) {
+		return logicObjects.getLogicObjectFactory().getResultCache(logicObject, method);
+	}
+	
+	public static void invalidateCachedResult(Object logicObject, Method method, Object... arguments) {
+		logicObjects.getLogicObjectFactory().invalidateCachedResult(logicObject, method, arguments);
+	}
+	
+	/**
+	 * Discards the results of all the logic methods annotated with LCached (e.g., after modifying the logic theory)
+	 */
+	public static void invalidateAllCachedResults() {
+		LogicResultCache.invalidateAllCaches();
+	}
+	
 	static {
 		bootstrapLogicObjects();
 	}
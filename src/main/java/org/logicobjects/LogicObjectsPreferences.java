@@ -1,6 +1,8 @@
 package org.logicobjects;
 
 import org.jpc.util.JpcPreferences;
+import org.logicobjects.instrumentation.FlushMode;
+import org.logicobjects.instrumentation.InstrumentationBackend;
 
 /**
  * Manages the LogicObjects preferences
@@ -10,10 +12,152 @@ public class LogicObjectsPreferences extends JpcPreferences {
 	public static final String LOGIC_OBJECTS_NAME = "Logic Objects";
 
 	public final static String IMPLICIT_RETURN_VARIABLE = "LSolution";
+	
+	/*
+	 * System properties overriding the default flush policy of logic methods not annotated with LFlush
+	 */
+	public final static String FLUSH_MODE_PROPERTY = "logicobjects.flush.mode";
+	public final static String FLUSH_EVERY_CALLS_PROPERTY = "logicobjects.flush.everyCalls";
+	public final static String FLUSH_EVERY_MILLIS_PROPERTY = "logicobjects.flush.everyMillis";
+	
+	/*
+	 * System property enabling or disabling the on disk cache of generated classes
+	 */
+	public final static String CLASS_CACHE_ENABLED_PROPERTY = "logicobjects.classCache.enabled";
+	
+	/*
+	 * System property selecting how the members of generated classes are created
+	 */
+	public final static String INSTRUMENTATION_BACKEND_PROPERTY = "logicobjects.instrumentation.backend";
+	
+	/*
+	 * System property setting the directory where the class files of generated classes are dumped (for diagnostic purposes). Classes are not dumped if not set
+	 */
+	public final static String CLASS_DUMP_DIRECTORY_PROPERTY = "logicobjects.classDump.directory";
+	
+	/*
+	 * System property setting the maximum number of engines per engine configuration
+	 */
+	public final static String ENGINE_POOL_SIZE_PROPERTY = "logicobjects.enginePool.size";
+	
+	/*
+	 * System property setting how long (in milliseconds) a logic method invocation waits for an engine of the pool before failing. Zero means waiting forever
+	 */
+	public final static String ENGINE_CHECKOUT_TIMEOUT_PROPERTY = "logicobjects.enginePool.checkoutTimeoutMillis";
+	
+	/*
+	 * System property confining all the queries of an engine to the thread of the engine (not only the ones of asynchronous logic methods)
+	 */
+	public final static String ENGINE_THREAD_CONFINEMENT_PROPERTY = "logicobjects.enginePool.threadConfinement";
+	
+	private FlushMode flushMode = FlushMode.valueOf(System.getProperty(FLUSH_MODE_PROPERTY, FlushMode.ALWAYS.name()));
+	private int flushEveryCalls = Integer.getInteger(FLUSH_EVERY_CALLS_PROPERTY, 0);
+	private long flushEveryMillis = Long.getLong(FLUSH_EVERY_MILLIS_PROPERTY, 0L);
+	private boolean classCacheEnabled = Boolean.parseBoolean(System.getProperty(CLASS_CACHE_ENABLED_PROPERTY, "true"));
+	private InstrumentationBackend instrumentationBackend = InstrumentationBackend.valueOf(System.getProperty(INSTRUMENTATION_BACKEND_PROPERTY, InstrumentationBackend.SOURCE.name()));
+	private String classDumpDirectory = System.getProperty(CLASS_DUMP_DIRECTORY_PROPERTY);
+	private int enginePoolSize = Integer.getInteger(ENGINE_POOL_SIZE_PROPERTY, 1);
+	private long engineCheckoutTimeoutMillis = Long.getLong(ENGINE_CHECKOUT_TIMEOUT_PROPERTY, 60000L);
+	private boolean engineThreadConfinement = Boolean.getBoolean(ENGINE_THREAD_CONFINEMENT_PROPERTY);
 
 	@Override
 	protected String getTmpSubdirectoryName() {
 		return LOGIC_OBJECTS_NAME;
 	}
 	
+	public FlushMode getFlushMode() {
+		return flushMode;
+	}
+
+	public void setFlushMode(FlushMode flushMode) {
+		this.flushMode = flushMode;
+	}
+
+	public int getFlushEveryCalls() {
+		return flushEveryCalls;
+	}
+
+	public void setFlushEveryCalls(int flushEveryCalls) {
+		this.flushEveryCalls = flushEveryCalls;
+	}
+
+	public long getFlushEveryMillis() {
+		return flushEveryMillis;
+	}
+
+	public void setFlushEveryMillis(long flushEveryMillis) {
+		this.flushEveryMillis = flushEveryMillis;
+	}
+
+	public boolean isClassCacheEnabled() {
+		return classCacheEnabled;
+	}
+
+	public void setClassCacheEnabled(boolean classCacheEnabled) {
+		this.classCacheEnabled = classCacheEnabled;
+	}
+
+	public InstrumentationBackend getInstrumentationBackend() {
+		return instrumentationBackend;
+	}
+
+	public void setInstrumentationBackend(InstrumentationBackend instrumentationBackend) {
+		this.instrumentationBackend = instrumentationBackend;
+	}
+
+	/**
+	 * @return the directory where generated classes are dumped. Null if generated classes are not dumped
+	 */
+	public String getClassDumpDirectory() {
+		return classDumpDirectory;
+	}
+
+	/**
+	 * @param classDumpDirectory the directory where generated classes are dumped. Null disables the dumping of generated classes
+	 */
+	public void setClassDumpDirectory(String classDumpDirectory) {
+		this.classDumpDirectory = classDumpDirectory;
+	}
+
+	/**
+	 * @return the maximum number of engines per engine configuration. If 1 (the default), all logic methods using a configuration are invoked in its engine
+	 */
+	public int getEnginePoolSize() {
+		return enginePoolSize;
+	}
+
+	/**
+	 * @param enginePoolSize the maximum number of engines per engine configuration. It applies only to configurations not used yet
+	 */
+	public void setEnginePoolSize(int enginePoolSize) {
+		this.enginePoolSize = enginePoolSize;
+	}
+
+	/**
+	 * @return how long (in milliseconds) a logic method invocation waits for an engine of the pool before failing. Zero means waiting forever
+	 */
+	public long getEngineCheckoutTimeoutMillis() {
+		return engineCheckoutTimeoutMillis;
+	}
+
+	public void setEngineCheckoutTimeoutMillis(long engineCheckoutTimeoutMillis) {
+		this.engineCheckoutTimeoutMillis = engineCheckoutTimeoutMillis;
+	}
+
+	/**
+	 * @return true if all the queries of an engine are executed in the thread of the engine, as required by backends with thread affinity. 
+	 * If false (the default), only asynchronous logic methods are executed in the threads of the engines, and the other logic methods in the invoking threads
+	 * Note that confined pools create all their engines in their threads, so the engine of the configuration (which may have been created in any thread) is not used.
+	 */
+	public boolean isEngineThreadConfinement() {
+		return engineThreadConfinement;
+	}
+
+	/**
+	 * @param engineThreadConfinement true if all the queries of an engine should be executed in the thread of the engine. It applies only to configurations not used yet
+	 */
+	public void setEngineThreadConfinement(boolean engineThreadConfinement) {
+		this.engineThreadConfinement = engineThreadConfinement;
+	}
+	
 }
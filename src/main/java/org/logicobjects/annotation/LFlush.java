@@ -0,0 +1,24 @@
+package org.logicobjects.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.logicobjects.instrumentation.FlushMode;
+
+/**
+ * Customizes when the output of the logic engine is flushed after invoking a logic method.
+ * If present in a method it overrides the annotation in its class (if any). If not present at all, the defaults in the preferences are used.
+ * @author scastro
+ *
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+public @interface LFlush {
+	FlushMode value();
+	int everyCalls() default 0; //only meaningful in periodic mode. If greater than zero, the output is flushed at least every everyCalls invocations
+	long everyMillis() default 0; //only meaningful in periodic mode. If greater than zero, pending output is flushed every everyMillis milliseconds
+}
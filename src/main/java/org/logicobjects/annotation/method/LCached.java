@@ -0,0 +1,21 @@
+package org.logicobjects.annotation.method;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Memoizes the results of a logic method. It should only be used in methods whose result depends exclusively on the receiver, the arguments and the loaded logic theory.
+ * Results are keyed by the goal of the invocation (i.e., the term of the receiver and the terms of the arguments) and the logic engine configuration of the receiver.
+ * Cached results are shared between invocations, so they should not be modified.
+ * Methods answering lazy views over a query (e.g., queries, iterators, streams or publishers) cannot be cached.
+ * @author scastro
+ *
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LCached {
+	long maximumSize() default 1000; //the least recently used results are evicted when the cache grows beyond this size
+	long expireAfterMillis() default 0; //if greater than zero, results are evicted this number of milliseconds after being cached
+}
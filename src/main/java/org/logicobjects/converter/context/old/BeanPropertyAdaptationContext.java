@@ -85,4 +85,12 @@ public class BeanPropertyAdaptationContext extends AnnotatedElementAdaptationCon
 		return beanProperty.getPropertyField();
 	}
 	
+	public Method getPropertyGetter() {
+		return beanProperty.getPropertyGetter();
+	}
+	
+	public Method getPropertySetter() {
+		return beanProperty.getPropertySetter();
+	}
+	
 }
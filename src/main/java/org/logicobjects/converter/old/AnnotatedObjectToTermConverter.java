@@ -12,9 +12,10 @@ import org.logicobjects.converter.context.old.AnnotatedElementAdaptationContext;
 import org.logicobjects.converter.context.old.BeanPropertyAdaptationContext;
 import org.logicobjects.converter.context.old.ClassAdaptationContext;
 import org.logicobjects.converter.descriptor.LogicObjectDescriptor;
+import org.logicobjects.core.LogicClass;
 import org.logicobjects.core.LogicObject;
+import org.logicobjects.core.LogicPropertyAccessor;
 import org.logicobjects.methodadapter.LogicAdapter;
-import org.minitoolbox.reflection.BeansUtil;
 
 public class AnnotatedObjectToTermConverter<From> extends LogicAdapter<From, Term> {
 
@@ -25,22 +26,46 @@ public class AnnotatedObjectToTermConverter<From> extends LogicAdapter<From, Ter
 	
 	
 	public Term adapt(From object, AdaptationContext context) {
+		if(context != null && !understandsContext(context))
+			throw new UnrecognizedAdaptationContextException(this.getClass(), context);
+		AnnotatedElementAdaptationContext annotatedContext = findAnnotatedContext(object, context);
+		if(annotatedContext == null)
+			throw new IncompatibleAdapterException(this.getClass(), object);
+		return adapt(object, annotatedContext);
+	}
+	
+	/**
+	 * Adapts an object according to an annotated context that is known to be compatible with the adapter
+	 * @param object the object to adapt
+	 * @param annotatedContext an annotated context answered by findAnnotatedContext
+	 * @return the adapted term
+	 */
+	public Term adapt(From object, AnnotatedElementAdaptationContext annotatedContext) {
+		if(annotatedContext.hasObjectToTermConverter()) { //first check if there is an explicit adapter, in the current implementation, an Adapter annotation overrides any method invoker description
+			return adaptToTermWithAdapter(object, annotatedContext);
+		} else
+			return adaptToTermFromDescription(object, annotatedContext);
+	}
+	
+	/**
+	 * Unlike adapt, this method does not throw an exception if the adapter cannot adapt the object.
+	 * @param object the object to adapt
+	 * @param context the adaptation context (it may be null)
+	 * @return the annotated context guiding the adaptation, or null if the object cannot be adapted from annotations
+	 */
+	public static AnnotatedElementAdaptationContext findAnnotatedContext(Object object, AdaptationContext context) {
 		AnnotatedElementAdaptationContext annotatedContext;
 		if(context != null) {
 			if(understandsContext(context))
 				annotatedContext = (AnnotatedElementAdaptationContext)context;
 			else
-				throw new UnrecognizedAdaptationContextException(this.getClass(), context);
+				return null;
 		} else {
 			annotatedContext = new ClassAdaptationContext(object.getClass()); //the current context is null, then create default context
 		}
-		if(annotatedContext.hasObjectToTermConverter()) { //first check if there is an explicit adapter, in the current implementation, an Adapter annotation overrides any method invoker description
-			return adaptToTermWithAdapter(object, annotatedContext);
-		}
-		else if(annotatedContext.hasLogicObjectDescription()) { 
-			return adaptToTermFromDescription(object, annotatedContext);
-		}
-		throw new IncompatibleAdapterException(this.getClass(), object);
+		if(annotatedContext.hasObjectToTermConverter() || annotatedContext.hasLogicObjectDescription())
+			return annotatedContext;
+		return null;
 	}
 	
 	protected Term adaptToTermWithAdapter(From object, AnnotatedElementAdaptationContext annotatedContext) {
@@ -59,8 +84,9 @@ public class AnnotatedObjectToTermConverter<From> extends LogicAdapter<From, Ter
 		List<Term> arguments;
 		String argsListPropertyName = logicObjectDescription.argsList();
 		if(argsListPropertyName != null && !argsListPropertyName.isEmpty()) {
-			BeanPropertyAdaptationContext adaptationContext = new BeanPropertyAdaptationContext(object.getClass(), argsListPropertyName);
-			Object argsListObject = BeansUtil.getProperty(object, argsListPropertyName, adaptationContext.getGuidingClass());
+			LogicPropertyAccessor propertyAccessor = LogicClass.getMetadata(object.getClass()).getPropertyAccessor(argsListPropertyName);
+			BeanPropertyAdaptationContext adaptationContext = propertyAccessor.getAdaptationContext();
+			Object argsListObject = propertyAccessor.get(object);
 			List argsList = null;
 			if(List.class.isAssignableFrom(argsListObject.getClass()))
 				argsList = (List) argsListObject;
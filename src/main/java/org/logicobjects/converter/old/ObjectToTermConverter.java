@@ -3,6 +3,7 @@ package org.logicobjects.converter.old;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
@@ -14,8 +15,9 @@ import org.jconverter.factory.FactoryManager;
 import org.jpc.mapping.converter.TermConvertable;
 import org.jpc.term.Term;
 import org.jpc.util.PrologUtil;
-import org.logicobjects.converter.IncompatibleAdapterException;
 import org.logicobjects.converter.context.old.AdaptationContext;
+import org.logicobjects.converter.context.old.AnnotatedElementAdaptationContext;
+import org.logicobjects.converter.context.old.ClassAdaptationContext;
 import org.logicobjects.converter.context.old.FieldAdaptationContext;
 import org.logicobjects.converter.context.old.MethodAdaptationContext;
 import org.logicobjects.core.LogicClass;
@@ -59,51 +61,97 @@ public class ObjectToTermConverter<From> extends LogicAdapter<From, Term> {
 	}
 	
 	public Term adapt(From object, AdaptationContext adaptingContext) {
-		boolean errorMappingFromAnnotations = false;
-		try {
-			return new AnnotatedObjectToTermConverter<From>().adapt(object, adaptingContext);
-		} catch(IncompatibleAdapterException | UnrecognizedAdaptationContextException e) {
-			//do nothing, these exceptions mean the adapter recognizes it cannot transform the term to an object, but no error has been produced
-		} catch(RuntimeException e) {
-			errorMappingFromAnnotations = true;
-			//catch the exception and do nothing if it is a collection object.
-			//that could mean that the adapting context is targeting the individual components of the collection instead of the entire collection itself
-			if(!FactoryManager.isCollectionObject(object))  //TODO verify this...
-				throw e;
+		if(adaptingContext == null && !annotatedClasses.get(object.getClass())) //the common path: no context and no annotations guiding the conversion
+			return adaptByDefault(object, defaultStrategies.get(object.getClass()), adaptingContext);
+		AnnotatedElementAdaptationContext annotatedContext = AnnotatedObjectToTermConverter.findAnnotatedContext(object, adaptingContext);
+		if(annotatedContext != null) {
+			try {
+				return new AnnotatedObjectToTermConverter<From>().adapt(object, annotatedContext);
+			} catch(RuntimeException e) {
+				//catch the exception and do nothing if it is a collection object.
+				//that could mean that the adapting context is targeting the individual components of the collection instead of the entire collection itself
+				if(!FactoryManager.isCollectionObject(object))  //TODO verify this...
+					throw e;
+				return adaptByDefault(object, DefaultStrategy.OTHER, adaptingContext);
+			}
 		}
-		if(!errorMappingFromAnnotations) {
-			if(ReflectionUtil.instanceOfOne(object, 
-					String.class,
-					StringBuilder.class,
-					StringBuffer.class,
-					Boolean.class,
-					Number.class)) {
-				return Term.newTerm(object); //default conversion
-			} else if(Calendar.class.isAssignableFrom(object.getClass())) {
-				return new CalendarToTermAdapter().adapt((Calendar) object);
-			} else if(XMLGregorianCalendar.class.isAssignableFrom(object.getClass())) {
-				return new XMLGregorianCalendarToTermAdapter().adapt((XMLGregorianCalendar) object);
-			} else if(object instanceof Entry) {
-				return new EntryToTermAdapter().adapt((Entry) object, adaptingContext);
-			} 
-			Class guidingClass = LogicClass.findGuidingClass(object.getClass());
-			if(guidingClass != null) {
-				if(LogicClass.isTermObjectClass(guidingClass))
-					return ((TermConvertable)object).asTerm();
-				throw new ObjectToTermException(object);  //if we arrive here something went wrong
-			} else if(object instanceof AbstractTerm) {
-				return (Term)object;
-			} else if(object instanceof TermConvertable) {
-				return ((TermConvertable)object).asTerm();
-			} 
+		return adaptByDefault(object, defaultStrategies.get(object.getClass()), adaptingContext);
+	}
+	
+	private Term adaptByDefault(From object, DefaultStrategy strategy, AdaptationContext adaptingContext) {
+		switch(strategy) {
+		case SIMPLE_VALUE:
+			return Term.newTerm(object); //default conversion
+		case CALENDAR:
+			return new CalendarToTermAdapter().adapt((Calendar) object);
+		case XML_GREGORIAN_CALENDAR:
+			return new XMLGregorianCalendarToTermAdapter().adapt((XMLGregorianCalendar) object);
+		case ENTRY:
+			return new EntryToTermAdapter().adapt((Entry) object, adaptingContext);
+		case TERM_CONVERTABLE:
+			return ((TermConvertable)object).asTerm();
+		case TERM:
+			return (Term)object;
+		case UNCONVERTABLE:
+			throw new ObjectToTermException(object);  //if we arrive here something went wrong
+		default:
+			if(FactoryManager.isCollectionObject(object)) 
+				return new AnyCollectionToTermAdapter().adapt(object, adaptingContext);
+			return adaptToTermFromClass(ReflectionUtil.findFirstNonSyntheticClass(object.getClass()));
+			//throw new ObjectToTermException(object); //no idea how to adapt the object
 		}
-
-		if(FactoryManager.isCollectionObject(object)) 
-			return new AnyCollectionToTermAdapter().adapt(object, adaptingContext);
-		
-		return adaptToTermFromClass(ReflectionUtil.findFirstNonSyntheticClass(object.getClass()));
-		//throw new ObjectToTermException(object); //no idea how to adapt the object
 	}
+	
+	
+	/**
+	 * The ways an object can be converted to a term when no annotation guides the conversion
+	 */
+	private static enum DefaultStrategy {
+		SIMPLE_VALUE, CALENDAR, XML_GREGORIAN_CALENDAR, ENTRY, TERM_CONVERTABLE, TERM, UNCONVERTABLE, OTHER
+	}
+	
+	private static final List<Class> SIMPLE_VALUE_CLASSES = Arrays.<Class>asList(String.class, StringBuilder.class, StringBuffer.class, Boolean.class, Number.class);
+	
+	/**
+	 * The default conversion strategy of each class. It is resolved only once per class.
+	 */
+	private static final ClassValue<DefaultStrategy> defaultStrategies = new ClassValue<DefaultStrategy>() {
+		@Override
+		protected DefaultStrategy computeValue(Class<?> clazz) {
+			for(Class simpleValueClass : SIMPLE_VALUE_CLASSES) {
+				if(simpleValueClass.isAssignableFrom(clazz))
+					return DefaultStrategy.SIMPLE_VALUE;
+			}
+			if(Calendar.class.isAssignableFrom(clazz))
+				return DefaultStrategy.CALENDAR;
+			if(XMLGregorianCalendar.class.isAssignableFrom(clazz))
+				return DefaultStrategy.XML_GREGORIAN_CALENDAR;
+			if(Entry.class.isAssignableFrom(clazz))
+				return DefaultStrategy.ENTRY;
+			Class guidingClass = LogicClass.findGuidingClass(clazz);
+			if(guidingClass != null) {
+				if(TermConvertable.class.isAssignableFrom(guidingClass))
+					return DefaultStrategy.TERM_CONVERTABLE;
+				return DefaultStrategy.UNCONVERTABLE;
+			}
+			if(Term.class.isAssignableFrom(clazz))
+				return DefaultStrategy.TERM;
+			if(TermConvertable.class.isAssignableFrom(clazz))
+				return DefaultStrategy.TERM_CONVERTABLE;
+			return DefaultStrategy.OTHER;
+		}
+	};
+	
+	/**
+	 * Classes whose instances are converted by means of annotations when there is no adaptation context.
+	 */
+	private static final ClassValue<Boolean> annotatedClasses = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> clazz) {
+			ClassAdaptationContext classContext = new ClassAdaptationContext(clazz);
+			return classContext.hasObjectToTermConverter() || classContext.hasLogicObjectDescription();
+		}
+	};
 
 
 	public static Term asTerm(Object object) {
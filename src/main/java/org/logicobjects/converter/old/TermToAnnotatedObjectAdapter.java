@@ -28,26 +28,50 @@ public class TermToAnnotatedObjectAdapter<To> extends LogicAdapter<Term, Object>
 	}
 
 	public To adapt(Term term, Type type, AdaptationContext context) {
+		if(context != null && !understandsContext(context))
+			throw new UnrecognizedAdaptationContextException(this.getClass(), context);
+		AnnotatedElementAdaptationContext annotatedContext = findAnnotatedContext(term, type, context);
+		if(annotatedContext == null)
+			throw new IncompatibleAdapterException(this.getClass(), term);
+		return adapt(term, type, annotatedContext);
+	}
+	
+	/**
+	 * Adapts a term according to an annotated context that is known to be compatible with the adapter
+	 * @param term the term to adapt
+	 * @param type the expected type
+	 * @param annotatedContext an annotated context answered by findAnnotatedContext
+	 * @return the adapted object
+	 */
+	public To adapt(Term term, Type type, AnnotatedElementAdaptationContext annotatedContext) {
+		if(annotatedContext.hasTermToObjectConverter()) {
+			return (To) adaptToObjectFromAdapter(term, type, annotatedContext);
+		} else
+			return (To) adaptToObjectFromDescription(term, type, annotatedContext);
+	}
+	
+	/**
+	 * Unlike adapt, this method does not throw an exception if the adapter cannot adapt the term.
+	 * @param term the term to adapt
+	 * @param type the expected type
+	 * @param context the adaptation context (it may be null)
+	 * @return the annotated context guiding the adaptation, or null if the term cannot be adapted from annotations
+	 */
+	public static AnnotatedElementAdaptationContext findAnnotatedContext(Term term, Type type, AdaptationContext context) {
 		AnnotatedElementAdaptationContext annotatedContext;
 		if(context != null) {
 			if(understandsContext(context))
 				annotatedContext = (AnnotatedElementAdaptationContext)context;
 			else
-				throw new UnrecognizedAdaptationContextException(this.getClass(), context);
+				return null;
 		} else {
 			annotatedContext = getTermAnnotationContext(term, type); //the current context is null, then create default context
 		}
-		if(annotatedContext!=null) {
-			if(annotatedContext.hasTermToObjectConverter()) {
-				return (To) adaptToObjectFromAdapter(term, type, annotatedContext);
-			} else if(annotatedContext.hasLogicObjectDescription()) {
-				return (To) adaptToObjectFromDescription(term, type, annotatedContext);
-			}
-		}
-		throw new IncompatibleAdapterException(this.getClass(), term);
+		if(annotatedContext != null && (annotatedContext.hasTermToObjectConverter() || annotatedContext.hasLogicObjectDescription()))
+			return annotatedContext;
+		return null;
 	}
 
-
 	protected Object adaptToObjectFromAdapter(Term term, Type type, AnnotatedElementAdaptationContext annotatedContext) {
 		TypeWrapper typeWrapper = TypeWrapper.wrap(type);
 		TermToObjectConverter objectAdapter = annotatedContext.getTermToObjectConverter();
@@ -96,7 +120,8 @@ public class TermToAnnotatedObjectAdapter<To> extends LogicAdapter<Term, Object>
 		if ( logicClass != null && (typeWrapper.isRawClassAssignableFrom(logicClass) || logicClass.isAssignableFrom(typeWrapper.getRawClass())) ) { 
 			annotatedContext = new ClassAdaptationContext(logicClass);
 		} else {
-			if(LogicClass.findLogicClass(typeWrapper.getRawClass()) != null)
+			Class rawClass = typeWrapper.getRawClass();
+			if(!rawClass.isInterface() && LogicClass.findLogicClass(rawClass) != null) //interfaces cannot be logic classes
 				annotatedContext = new ClassAdaptationContext(typeWrapper.getRawClass()); 
 		}
 		return annotatedContext;
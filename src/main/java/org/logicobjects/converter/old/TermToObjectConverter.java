@@ -21,8 +21,8 @@ import org.jpc.term.Atom;
 import org.jpc.term.Compound;
 import org.jpc.term.Term;
 import org.jpc.util.PrologUtil;
-import org.logicobjects.converter.IncompatibleAdapterException;
 import org.logicobjects.converter.context.old.AdaptationContext;
+import org.logicobjects.converter.context.old.AnnotatedElementAdaptationContext;
 import org.logicobjects.converter.context.old.FieldAdaptationContext;
 import org.logicobjects.converter.context.old.MethodAdaptationContext;
 import org.logicobjects.methodadapter.LogicAdapter;
@@ -90,69 +90,51 @@ public class TermToObjectConverter<To> extends LogicAdapter<Term, To> {
 	
 	public To adapt(Term term, Type type, AdaptationContext adaptingContext) {
 		TypeWrapper typeWrapper = TypeWrapper.wrap(type);
-		boolean errorMappingFromAnnotations = false;
 		if( (typeWrapper instanceof VariableTypeWrapper) ) //the type is erased
 			return adapt(term, Object.class, adaptingContext);
-		try {
-			return new TermToAnnotatedObjectAdapter<To>().adapt(term, type, adaptingContext);
-		} catch(IncompatibleAdapterException | UnrecognizedAdaptationContextException e) {
-			//do nothing, these exceptions mean the adapter recognizes it cannot transform the term to an object, but no error has been produced
-		} catch(RuntimeException e) {
-			errorMappingFromAnnotations = true;
-			if(!term.isList()) //TODO verify this...
-				throw e;
+		AnnotatedElementAdaptationContext annotatedContext = TermToAnnotatedObjectAdapter.findAnnotatedContext(term, type, adaptingContext);
+		if(annotatedContext != null) {
+			try {
+				return new TermToAnnotatedObjectAdapter<To>().adapt(term, type, annotatedContext);
+			} catch(RuntimeException e) {
+				if(!term.isList()) //TODO verify this...
+					throw e;
+				return adaptListTerm(term, type, adaptingContext);
+			}
 		}
-		if(!errorMappingFromAnnotations) {
+		if( typeWrapper instanceof SingleTypeWrapper ) { //the type is not an array and not an erased type (but still it can be a collection)
+			SingleTypeWrapper singleTypeWrapper = SingleTypeWrapper.class.cast(typeWrapper);
+			TargetClass targetClass = targetClasses.get(singleTypeWrapper.getRawClass());
+			if(term.isVariable() && !targetClass.isTermClass()) {//found a variable, and the method is not explicitly returning terms
+				logger.warn("Attempting to transform the variable term " + term + " to an object of class " + singleTypeWrapper.getRawClass() + ". Transformed as null.");
+				return null;
+			}
 			try {
-				if( typeWrapper instanceof SingleTypeWrapper ) { //the type is not an array and not an erased type (but still it can be a collection)
-					SingleTypeWrapper singleTypeWrapper = SingleTypeWrapper.class.cast(typeWrapper);
-					if(term.isVariable() && !Term.class.isAssignableFrom(singleTypeWrapper.getRawClass())) {//found a variable, and the method is not explicitly returning terms
-						logger.warn("Attempting to transform the variable term " + term + " to an object of class " + singleTypeWrapper.getRawClass() + ". Transformed as null.");
-						return null;
-					}
-					if(Entry.class.equals(singleTypeWrapper.getRawClass())) {
-						Type entryParameters[] = new TypeUtil().findAncestorTypeParameters(Entry.class, singleTypeWrapper.getWrappedType());
-						return (To) new TermToEntryAdapter().adapt((Compound)term, entryParameters[0], entryParameters[1], adaptingContext);
-					}
-					if(Calendar.class.isAssignableFrom(singleTypeWrapper.getRawClass())) {
-						return (To)new TermToCalendarAdapter().adapt(term);
-					}
-					if(XMLGregorianCalendar.class.isAssignableFrom(singleTypeWrapper.getRawClass())) {
-						return (To)new TermToXMLGregorianCalendarAdapter().adapt(term);
-					}
-					if(Number.class.isAssignableFrom(Primitives.wrap(singleTypeWrapper.getRawClass()))  ||  term.isNumber()) { //either the required type is a number or the term is a number
-						if( Number.class.isAssignableFrom(Primitives.wrap(singleTypeWrapper.getRawClass())) ) { //the required type is a number
-							if(term.isAtom() || term.isNumber()) { //check if indeed the term can be converted to a number
-								if(singleTypeWrapper.getRawClass().isPrimitive() || Primitives.isWrapperType(singleTypeWrapper.getRawClass())) {
-									return (To) valueOf(singleTypeWrapper.getRawClass(), PrologUtil.toString(term));
-								} else { //try to convert to a numeric type that is not a primitive nor a wrapper type
-									if(singleTypeWrapper.getRawClass().equals(BigInteger.class))
-										return (To) BigInteger.valueOf(PrologUtil.toLong(term));
-									else if(singleTypeWrapper.getRawClass().equals(AtomicInteger.class))
-										return (To) new AtomicInteger(PrologUtil.toInt(term));
-									else if(singleTypeWrapper.getRawClass().equals(AtomicLong.class))
-										return (To) new AtomicLong((long)PrologUtil.toLong(term));
-									else if(singleTypeWrapper.getRawClass().equals(BigDecimal.class))
-										return (To) BigDecimal.valueOf(PrologUtil.toDouble(term));
-									else
-										throw new RuntimeException(); //it should never arrive here !
-								}
-							}
-						} else {
-							if(singleTypeWrapper.getRawClass().equals(Object.class)) //if we arrive here the term should be a number (jpl.Integer or jpl.Float)
-								return (To) PrologUtil.toNumber(term);
-						}
-					} else if (Primitives.isWrapperType( Primitives.wrap(singleTypeWrapper.getRawClass()))) { //checks if the class corresponds to a primitive or its wrapper. e.g., boolean, Boolean (at this point it is not a number)
-						if(Primitives.wrap(singleTypeWrapper.getRawClass()).equals(Character.class)) {
-							String termString = PrologUtil.toString(term);
-							if(termString.length() == 1)
-								return (To) Character.valueOf(termString.charAt(0));
-							else
-								throw new RuntimeException("Impossible to transform the string " + termString + "to a single character");
-						} else
-							return (To) valueOf(singleTypeWrapper.getRawClass(), PrologUtil.toString(term));
-					} else if( (term.isAtom() && singleTypeWrapper.getRawClass().isAssignableFrom(String.class))
-							|| singleTypeWrapper.getRawClass().equals(String.class)) {
+				switch(targetClass.getKind()) {
+				case ENTRY:
+					Type entryParameters[] = new TypeUtil().findAncestorTypeParameters(Entry.class, singleTypeWrapper.getWrappedType());
+					return (To) new TermToEntryAdapter().adapt((Compound)term, entryParameters[0], entryParameters[1], adaptingContext);
+				case CALENDAR:
+					return (To)new TermToCalendarAdapter().adapt(term);
+				case XML_GREGORIAN_CALENDAR:
+					return (To)new TermToXMLGregorianCalendarAdapter().adapt(term);
+				case NUMBER:
+					if(term.isAtom() || term.isNumber()) //check if indeed the term can be converted to a number
+						return (To) targetClass.numberValueOf(term);
+					break;
+				default:
+					if(term.isNumber()) {
+						if(targetClass.isObjectClass()) //if we arrive here the term should be a number (jpl.Integer or jpl.Float)
+							return (To) PrologUtil.toNumber(term);
+					} else if(targetClass.getKind() == TargetKind.CHARACTER) {
+						String termString = PrologUtil.toString(term);
+						if(termString.length() == 1)
+							return (To) Character.valueOf(termString.charAt(0));
+						else
+							throw new RuntimeException("Impossible to transform the string " + termString + "to a single character");
+					} else if(targetClass.getKind() == TargetKind.PRIMITIVE) { //a primitive or its wrapper (at this point it is not a number). e.g., boolean, Boolean
+						return (To) targetClass.valueOf(PrologUtil.toString(term));
+					} else if( (term.isAtom() && targetClass.isStringAssignable()) || targetClass.getKind() == TargetKind.STRING) {
 						if(term.isAtom())
 							return (To) ((Atom)term).getName();
 						else /*if(term.isVariable())
@@ -160,41 +142,126 @@ public class TermToObjectConverter<To> extends LogicAdapter<Term, To> {
 						else*/
 							return (To) term.toString();
 					}
-					/*
-					if(LTerm.class.isAssignableFrom(singleTypeWrapper.asClass())) {
-						if(singleTypeWrapper.asClass().isAssignableFrom(term.getClass() ))
-							return (To) term;
-					}*/
-					
-					if(singleTypeWrapper.isRawClassAssignableFrom(Term.class))
-						return (To) term;
 				}
 			} catch(Exception e) {
 				throw new RuntimeException(e);
 			}
+			if(targetClass.isTermAssignable())
+				return (To) term;
 		}
 		if(term.isList()) {
 			return adaptListTerm(term, type, adaptingContext);
 		}
 		throw new TermToObjectException(term, type);  //no idea how to adapt the term
 	}
-
+	
+	
 	/**
-	 * 
-	 * @param clazz
-	 * @param s
-	 * @return the result of calling the static method "valueOf(String)" on the class sent as parameter
+	 * The kinds of target classes when no annotation guides the conversion
 	 */
-	private Object valueOf(Class clazz, String s) {
-		Class wrapper = Primitives.wrap(clazz); //if the class is already a wrapper, the 'wrap' method will just return that class
-		Method m;
-		try {
-			m = wrapper.getDeclaredMethod("valueOf", String.class);
-			return (To) m.invoke(null, s); //'m' is a static method, so no object needs to be provided
-		} catch (Exception e) {
-			throw new RuntimeException(e);
+	private static enum TargetKind {
+		ENTRY, CALENDAR, XML_GREGORIAN_CALENDAR, NUMBER, CHARACTER, PRIMITIVE, STRING, OTHER
+	}
+	
+	/**
+	 * Describes how terms are converted to instances of a class. It is resolved only once per class.
+	 */
+	private static final ClassValue<TargetClass> targetClasses = new ClassValue<TargetClass>() {
+		@Override
+		protected TargetClass computeValue(Class<?> clazz) {
+			return new TargetClass(clazz);
 		}
+	};
+	
+	private static class TargetClass {
+		private final Class clazz;
+		private final TargetKind kind;
+		private final Method valueOfMethod; //the static method "valueOf(String)" of primitives and their wrappers
+		private final boolean termClass;
+		private final boolean termAssignable;
+		private final boolean stringAssignable;
 		
+		public TargetClass(Class clazz) {
+			this.clazz = clazz;
+			Class wrapper = Primitives.wrap(clazz); //if the class is already a wrapper, the 'wrap' method will just return that class
+			if(Entry.class.equals(clazz))
+				kind = TargetKind.ENTRY;
+			else if(Calendar.class.isAssignableFrom(clazz))
+				kind = TargetKind.CALENDAR;
+			else if(XMLGregorianCalendar.class.isAssignableFrom(clazz))
+				kind = TargetKind.XML_GREGORIAN_CALENDAR;
+			else if(Number.class.isAssignableFrom(wrapper))
+				kind = TargetKind.NUMBER;
+			else if(Character.class.equals(wrapper))
+				kind = TargetKind.CHARACTER;
+			else if(Primitives.isWrapperType(wrapper))
+				kind = TargetKind.PRIMITIVE;
+			else if(String.class.equals(clazz))
+				kind = TargetKind.STRING;
+			else
+				kind = TargetKind.OTHER;
+			Method valueOfMethod = null;
+			if(clazz.isPrimitive() || Primitives.isWrapperType(clazz)) {
+				try {
+					valueOfMethod = wrapper.getDeclaredMethod("valueOf", String.class);
+				} catch (NoSuchMethodException e) {
+					//e.g., Void does not have a valueOf method
+				}
+			}
+			this.valueOfMethod = valueOfMethod;
+			termClass = Term.class.isAssignableFrom(clazz);
+			termAssignable = clazz.isAssignableFrom(Term.class);
+			stringAssignable = clazz.isAssignableFrom(String.class);
+		}
+		
+		public TargetKind getKind() {
+			return kind;
+		}
+		
+		public boolean isObjectClass() {
+			return Object.class.equals(clazz);
+		}
+		
+		public boolean isTermClass() {
+			return termClass;
+		}
+
+		public boolean isTermAssignable() {
+			return termAssignable;
+		}
+
+		public boolean isStringAssignable() {
+			return stringAssignable;
+		}
+		
+		/**
+		 * 
+		 * @param s a string
+		 * @return the result of calling the static method "valueOf(String)" on the target class
+		 */
+		public Object valueOf(String s) {
+			try {
+				return valueOfMethod.invoke(null, s); //'valueOf' is a static method, so no object needs to be provided
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+		
+		public Object numberValueOf(Term term) {
+			if(valueOfMethod != null) //a primitive or a wrapper type
+				return valueOf(PrologUtil.toString(term));
+			//try to convert to a numeric type that is not a primitive nor a wrapper type
+			if(clazz.equals(BigInteger.class))
+				return BigInteger.valueOf(PrologUtil.toLong(term));
+			else if(clazz.equals(AtomicInteger.class))
+				return new AtomicInteger(PrologUtil.toInt(term));
+			else if(clazz.equals(AtomicLong.class))
+				return new AtomicLong((long)PrologUtil.toLong(term));
+			else if(clazz.equals(BigDecimal.class))
+				return BigDecimal.valueOf(PrologUtil.toDouble(term));
+			else
+				throw new RuntimeException(); //it should never arrive here !
+		}
 	}
 	
 	
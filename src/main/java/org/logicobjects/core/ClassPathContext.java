@@ -4,11 +4,14 @@ import java.net.URL;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jpc.term.Compound;
 import org.jpc.term.Term;
 import org.logicobjects.annotation.Ignore;
 import org.logicobjects.annotation.LObject;
+import org.logicobjects.converter.descriptor.AnnotationLogicObjectDescriptor;
 import org.logicobjects.methodadapter.methodresult.solutioncomposition.WrapperAdapter;
 import org.minitoolbox.reflection.ReflectionUtil;
 import org.minitoolbox.reflection.googlereflections.GoogleReflectionsUtil;
@@ -17,11 +20,15 @@ import org.reflections.Reflections;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 import org.reflections.util.FilterBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Predicate;
 
 public class ClassPathContext {
 
+	private static Logger logger = LoggerFactory.getLogger(ClassPathContext.class);
+
 	private final static URL systemUrl = ClasspathHelper.forClass(ClassPathContext.class);
 	
 	private static URL findCallerClasspath() {
@@ -85,6 +92,13 @@ public class ClassPathContext {
 	private Set<Class<?>> logicClasses;
 	private Set<Class<? extends WrapperAdapter>> compositionAdapters;
 	
+	/**
+	 * Maps the name and arity of a logic object to its class.
+	 * The index is incrementally updated when the context is refreshed, so a class is indexed only once.
+	 */
+	private final ConcurrentMap<Functor, Class<?>> logicClassesIndex = new ConcurrentHashMap<>();
+	private final Set<Class<?>> indexedLogicClasses = new HashSet<>();
+	
 	public ClassPathContext(Reflections reflections) {
 		this.reflections = reflections;
 		refresh();
@@ -135,6 +149,7 @@ public class ClassPathContext {
 	
 	private void refresh() {
 		logicClasses = reflections.getTypesAnnotatedWith(LObject.class);
+		indexLogicClasses(logicClasses);
 		compositionAdapters = filterAdapters(reflections.getSubTypesOf(Adapter.class));
 		engineConfigurations = ReflectionUtil.filterAbstractClasses(reflections.getSubTypesOf(LogicEngineConfiguration.class));//remember that getSubTypesOf will work only if all the classes in the hierarchy are in the filtered urls
 		engineConfigurations = filterSystemClasses(engineConfigurations); //this check can be deleted if LogicObjects does not include any non-abstract logic engine configuration
@@ -153,15 +168,25 @@ public class ClassPathContext {
 	
 	
 	
-	public Class<?> findLogicClass(String logicName, int args) {
-		Set<Class<?>> set = getLogicClasses();
-		for(Class clazz : set) {
-			LogicObjectClass logicClass = new LogicObjectClass(clazz);
-			if(logicClass.getLObjectName().
-					equals(logicName) && logicClass.getLObjectArgs().size() == args)
-				return clazz;
+	/**
+	 * Adds to the index the logic classes that have not been indexed yet.
+	 * Functors ambiguously mapping to more than one class are reported here, the first indexed class is kept.
+	 * @param classes the logic classes in the context
+	 */
+	private synchronized void indexLogicClasses(Set<Class<?>> classes) {
+		for(Class<?> clazz : classes) {
+			if(indexedLogicClasses.add(clazz)) {
+				AnnotationLogicObjectDescriptor descriptor = new AnnotationLogicObjectDescriptor(clazz, clazz.getAnnotation(LObject.class));
+				Functor functor = new Functor(descriptor.name(), descriptor.args().size());
+				Class<?> previousClass = logicClassesIndex.putIfAbsent(functor, clazz);
+				if(previousClass != null)
+					logger.warn("Ambiguous logic object " + functor + ". It is mapped to both " + previousClass.getName() + " and " + clazz.getName() + ". The former will be used.");
+			}
 		}
-		return null;
+	}
+	
+	public Class<?> findLogicClass(String logicName, int args) {
+		return logicClassesIndex.get(new Functor(logicName, args));
 	}
 	
 	public Class<?> findLogicClass(Term term) {
@@ -174,4 +199,38 @@ public class ClassPathContext {
 		return logicClass;
 	}
 
+	
+	/**
+	 * The name and arity of a logic object
+	 */
+	private static final class Functor {
+		private final String name;
+		private final int arity;
+		
+		public Functor(String name, int arity) {
+			this.name = name;
+			this.arity = arity;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * name.hashCode() + arity;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj)
+				return true;
+			if(!(obj instanceof Functor))
+				return false;
+			Functor other = (Functor) obj;
+			return arity == other.arity && name.equals(other.name);
+		}
+		
+		@Override
+		public String toString() {
+			return name + "/" + arity;
+		}
+	}
+
 }
@@ -12,6 +12,25 @@ import org.minitoolbox.reflection.typewrapper.SingleTypeWrapper;
  */
 public class LogicClass extends SingleTypeWrapper {
 
+	private static final LogicClassManager logicClassManager = new LogicClassManager();
+	
+	public static LogicClass findLogicClass(Class clazz) {
+		return logicClassManager.findLogicClass(clazz);
+	}
+	
+	public static Class findGuidingClass(Class candidateClass) {
+		return logicClassManager.findGuidingClass(candidateClass);
+	}
+	
+	public static Class findDelegationObjectClass(Class candidateClass) {
+		return logicClassManager.findDelegationObjectClass(candidateClass);
+	}
+	
+	public static LogicClassMetadata getMetadata(Class clazz) {
+		return logicClassManager.getMetadata(clazz);
+	}
+	
+
 	//mapping descriptors
 	private LogicObjectDescriptor defaultTermDescriptor;
 	private LogicObjectDescriptor methodInvokerDescriptor;
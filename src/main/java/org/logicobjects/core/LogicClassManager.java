@@ -22,6 +22,27 @@ public class LogicClassManager {
 
 	//private static Logger logger = LoggerFactory.getLogger(LogicClassManager.class);
 	
+	/**
+	 * The metadata of each class is resolved only once. 
+	 * A ClassValue does not prevent a class (and its class loader) from being unloaded.
+	 */
+	private final ClassValue<LogicClassMetadata> metadata = new ClassValue<LogicClassMetadata>() {
+		@Override
+		protected LogicClassMetadata computeValue(Class<?> clazz) {
+			LogicClass logicClass = clazz.isInterface() ? null : buildLogicClass(clazz);
+			return new LogicClassMetadata(clazz, logicClass, resolveGuidingClass(clazz), resolveDelegationObjectClass(clazz));
+		}
+	};
+	
+	/**
+	 * 
+	 * @param clazz a class
+	 * @return the (cached) logic metadata of the class
+	 */
+	public LogicClassMetadata getMetadata(Class clazz) {
+		return metadata.get(clazz);
+	}
+	
 	private boolean includesTermConvertableInHierarchy(Class clazz) {
 		return ReflectionUtil.includesInterfaceInHierarchy(clazz, TermConvertable.class);
 	}
@@ -29,6 +50,10 @@ public class LogicClassManager {
 	public LogicClass findLogicClass(Class clazz) {
 		if(clazz.isInterface())
 			throw new RuntimeException("Interfaces cannot be defined as logic classes");
+		return getMetadata(clazz).getLogicClass();
+	}
+	
+	private LogicClass buildLogicClass(Class clazz) {
 		LogicClassBuilder logicClassBuilder = new LogicClassBuilder(clazz);
 		prepareLogicClassBuilder(clazz, logicClassBuilder);
 		return logicClassBuilder.build();
@@ -80,10 +105,20 @@ public class LogicClassManager {
 	public Class findGuidingClass(Class candidateClass) {
 		if(candidateClass == null || candidateClass.equals(Object.class))
 			return null;
+		return getMetadata(candidateClass).getGuidingClass();
+	}
+	
+	private Class resolveGuidingClass(Class candidateClass) {
+		if(candidateClass.equals(Object.class))
+			return null;
 		if(isGuidingClass(candidateClass))
 			return candidateClass;
 		else
-			return findGuidingClass(candidateClass.getSuperclass());
+			return findGuidingClass(candidateClass.getSuperclass()); //the guiding classes of the ancestors are also cached
+	}
+	
+	private boolean isGuidingClass(Class clazz) {
+		return clazz.isAnnotationPresent(LObject.class) || clazz.isAnnotationPresent(LConverter.class) || Arrays.asList(clazz.getInterfaces()).contains(TermConvertable.class);
 	}
 	
 	private List<LogicClass> asLogicObjectClasses(List<Class> logicClasses) {
@@ -136,6 +171,10 @@ public class LogicClassManager {
 	 * @return
 	 */
 	public Class findDelegationObjectClass(Class candidateClass) {
+		return getMetadata(candidateClass).getDelegationObjectClass();
+	}
+	
+	private Class resolveDelegationObjectClass(Class candidateClass) {
 		FindFirstTypeVisitor finderVisitor = new FindFirstTypeVisitor(InterfaceMode.EXCLUDE_INTERFACES) {
 			@Override
 			public boolean doVisit(Class clazz) {
@@ -0,0 +1,78 @@
+package org.logicobjects.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.logicobjects.converter.descriptor.ConverterDescriptor;
+import org.logicobjects.converter.descriptor.LogicObjectDescriptor;
+
+/**
+ * The logic related metadata of a class, resolved only once from its hierarchy and annotations.
+ * Instances can be shared between threads (property accessors are lazily added to a concurrent map).
+ * @author scastro
+ *
+ */
+public class LogicClassMetadata {
+
+	private final Class clazz;
+	private final LogicClass logicClass;
+	private final Class guidingClass;
+	private final Class delegationObjectClass;
+	private final ConcurrentMap<String, LogicPropertyAccessor> propertyAccessors = new ConcurrentHashMap<>();
+	
+	public LogicClassMetadata(Class clazz, LogicClass logicClass, Class guidingClass, Class delegationObjectClass) {
+		this.clazz = clazz;
+		this.logicClass = logicClass;
+		this.guidingClass = guidingClass;
+		this.delegationObjectClass = delegationObjectClass;
+	}
+
+	/**
+	 * 
+	 * @return the logic class. Null if the class is an interface
+	 */
+	public LogicClass getLogicClass() {
+		return logicClass;
+	}
+
+	public Class getGuidingClass() {
+		return guidingClass;
+	}
+
+	public Class getDelegationObjectClass() {
+		return delegationObjectClass;
+	}
+	
+	public LogicObjectDescriptor getDefaultTermDescriptor() {
+		return logicClass != null ? logicClass.getDefaultTermDescriptor() : null;
+	}
+
+	public LogicObjectDescriptor getMethodInvokerDescriptor() {
+		return logicClass != null ? logicClass.getMethodInvokerDescriptor() : null;
+	}
+
+	public ConverterDescriptor getDefaultTermConverterDescriptor() {
+		return logicClass != null ? logicClass.getDefaultTermConverterDescriptor() : null;
+	}
+
+	public ConverterDescriptor getMethodInvokerConverterDescriptor() {
+		return logicClass != null ? logicClass.getMethodInvokerConverterDescriptor() : null;
+	}
+	
+	/**
+	 * 
+	 * @param propertyName the name of a property
+	 * @return the (cached) accessor of the property
+	 */
+	public LogicPropertyAccessor getPropertyAccessor(String propertyName) {
+		LogicPropertyAccessor propertyAccessor = propertyAccessors.get(propertyName);
+		if(propertyAccessor == null) {
+			propertyAccessor = new LogicPropertyAccessor(clazz, propertyName);
+			LogicPropertyAccessor previousAccessor = propertyAccessors.putIfAbsent(propertyName, propertyAccessor);
+			if(previousAccessor != null) //another thread created the accessor first
+				propertyAccessor = previousAccessor;
+		}
+		return propertyAccessor;
+	}
+	
+}
@@ -0,0 +1,18 @@
+package org.logicobjects.core;
+
+/**
+ * Listens to the (re)loading of the logic resources of logic classes and packages.
+ * Useful for discarding anything derived from the logic theory (e.g., cached results) when the theory changes.
+ * Listeners are notified in the thread loading the resources, so they should return quickly.
+ * @author scastro
+ *
+ */
+public interface LogicDependenciesListener {
+
+	/**
+	 * Notifies that the logic resources of a class or package were (re)loaded in the engines of a logic engine configuration
+	 * @param event the loading event
+	 */
+	void resourcesLoaded(LogicResourcesLoadedEvent event);
+	
+}
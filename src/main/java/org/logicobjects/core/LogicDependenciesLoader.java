@@ -4,11 +4,16 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
 import org.jpc.util.resource.LogicResource;
@@ -23,22 +28,152 @@ import org.reflections.util.ClasspathHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
 
 public class LogicDependenciesLoader {
 	private static Logger logger = LoggerFactory.getLogger(LogicDependenciesLoader.class);
 	
 	
-	private Map<Class, List<LogicResource>> loadedClasses;
-	private Map<Package, List<LogicResource>> loadedPackages;
+	private ConcurrentMap<Class, List<LogicResource>> loadedClasses;
+	private ConcurrentMap<Package, List<LogicResource>> loadedPackages;
+	/*
+	 * Classes and packages are loaded only once, even if several threads require them at the same time.
+	 * Threads requiring a class or package that is being loaded wait only for that class or package.
+	 */
+	private ConcurrentMap<Class, FutureTask<Boolean>> classLoadings;
+	private ConcurrentMap<Package, FutureTask<Boolean>> packageLoadings;
 	private ResourceManager resourceManager;
+	/*
+	 * The number of times resources have been loaded per engine configuration, per package and per class.
+	 * Anything derived from the logic theory can remember the generations it was derived from, and it is outdated if one of them changed.
+	 * Loadings without resources (e.g., the first use of a class that does not declare any) do not change the theory, so they are not counted.
+	 */
+	private final LoadingCache<AbstractPrologEngineDriver, AtomicLong> engineGenerations = CacheBuilder.newBuilder().weakKeys().build(
+			new CacheLoader<AbstractPrologEngineDriver, AtomicLong>() {
+				@Override
+				public AtomicLong load(AbstractPrologEngineDriver logicEngineConfig) {
+					return new AtomicLong();
+				}
+			});
+	private final LoadingCache<Package, AtomicLong> packageGenerations = CacheBuilder.newBuilder().weakKeys().build(
+			new CacheLoader<Package, AtomicLong>() {
+				@Override
+				public AtomicLong load(Package pakkage) {
+					return new AtomicLong();
+				}
+			});
+	private final LoadingCache<Class, AtomicLong> classGenerations = CacheBuilder.newBuilder().weakKeys().build(
+			new CacheLoader<Class, AtomicLong>() {
+				@Override
+				public AtomicLong load(Class clazz) {
+					return new AtomicLong();
+				}
+			});
+	private final List<LogicDependenciesListener> listeners = new CopyOnWriteArrayList<>();
 	
 	/**
 	 * Package access so it cannot be instantiated externally
 	 */
 	public LogicDependenciesLoader(ResourceManager resourceManager) {
 		this.resourceManager = resourceManager;
-		loadedClasses = new HashMap<>();
-		loadedPackages = new HashMap<>();
+		loadedClasses = new ConcurrentHashMap<>();
+		loadedPackages = new ConcurrentHashMap<>();
+		classLoadings = new ConcurrentHashMap<>();
+		packageLoadings = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * Executes a loading task only once per key. If the task fails with an exception, it can be attempted again.
+	 * @param loadings the loading tasks already started
+	 * @param key the key of the loading task
+	 * @param loading the loading task
+	 * @return the result of the (unique) loading task for the given key
+	 */
+	private static <K> boolean loadOnlyOnce(ConcurrentMap<K, FutureTask<Boolean>> loadings, K key, Callable<Boolean> loading) {
+		FutureTask<Boolean> task = loadings.get(key);
+		if(task == null) {
+			FutureTask<Boolean> newTask = new FutureTask<>(loading);
+			task = loadings.putIfAbsent(key, newTask);
+			if(task == null) { //this thread is in charge of the loading
+				task = newTask;
+				task.run();
+			}
+		}
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			loadings.remove(key, task);
+			throw new RuntimeException(e.getCause());
+		}
+	}
+	
+	public void addListener(LogicDependenciesListener listener) {
+		listeners.add(listener);
+	}
+	
+	public void removeListener(LogicDependenciesListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * 
+	 * @param logicEngineConfig a logic engine configuration
+	 * @return the number of times logic resources have been loaded in the engines of the configuration
+	 */
+	public long getGeneration(AbstractPrologEngineDriver logicEngineConfig) {
+		return engineGenerations.getUnchecked(logicEngineConfig).get();
+	}
+	
+	/**
+	 * 
+	 * @param pakkage a package
+	 * @return the number of times the logic resources of the package (not the ones of its classes) have been loaded
+	 */
+	public long getGeneration(Package pakkage) {
+		return packageGenerations.getUnchecked(pakkage).get();
+	}
+	
+	/**
+	 * 
+	 * @param clazz a logic class
+	 * @return the number of times the logic resources of the class have been loaded
+	 */
+	public long getGeneration(Class clazz) {
+		return classGenerations.getUnchecked(clazz).get();
+	}
+	
+	/**
+	 * Increments the generations of the engine configuration and of the loaded class or package, and notifies the listeners
+	 * @param logicEngineConfig the engine configuration where the resources were loaded
+	 * @param pakkage the package whose resources were loaded (or the package of the class whose resources were loaded)
+	 * @param clazz the class whose resources were loaded. Null if the resources of a package were loaded
+	 */
+	private void resourcesLoaded(AbstractPrologEngineDriver logicEngineConfig, Package pakkage, Class clazz) {
+		long engineGeneration = engineGenerations.getUnchecked(logicEngineConfig).incrementAndGet();
+		long packageGeneration;
+		long classGeneration;
+		if(clazz == null) {
+			packageGeneration = packageGenerations.getUnchecked(pakkage).incrementAndGet();
+			classGeneration = 0;
+		} else {
+			packageGeneration = pakkage != null ? getGeneration(pakkage) : 0; //classes in the default package may not have a package
+			classGeneration = classGenerations.getUnchecked(clazz).incrementAndGet();
+		}
+		LogicResourcesLoadedEvent event = new LogicResourcesLoadedEvent(logicEngineConfig, pakkage, clazz, engineGeneration, packageGeneration, classGeneration);
+		logger.debug(event.toString());
+		for(LogicDependenciesListener listener : listeners) {
+			try {
+				listener.resourcesLoaded(event);
+			} catch(RuntimeException e) { //a failing listener should not prevent the loading of the resources
+				logger.warn("Listener " + listener + " failed when notified of: " + event, e);
+			}
+		}
 	}
 	
 	public boolean isClassLoaded(Class clazz) {
@@ -72,16 +207,27 @@ public class LogicDependenciesLoader {
 	}
 	
 	
-	public boolean loadDependencies(LogicClass logicObjectClass) {
+	public boolean loadDependencies(final LogicClass logicObjectClass) {
 		if(isClassLoaded(logicObjectClass.getWrappedClass()))
 			return true;
-		Package pakkage = logicObjectClass.getWrappedClass().getPackage();
+		final Package pakkage = logicObjectClass.getWrappedClass().getPackage();
 		boolean packageLoaded = true;
 		if(!isPackageLoaded(pakkage)) {
-			URL url = ClasspathHelper.forClass(logicObjectClass.getWrappedClass());
-			packageLoaded = simpleLoadPackage(pakkage, url);
+			final URL url = ClasspathHelper.forClass(logicObjectClass.getWrappedClass());
+			packageLoaded = loadOnlyOnce(packageLoadings, pakkage, new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					return simpleLoadPackage(pakkage, url);
+				}
+			});
 		}
-		return packageLoaded && simpleLoadClass(logicObjectClass);
+		boolean classLoaded = loadOnlyOnce(classLoadings, logicObjectClass.getWrappedClass(), new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return simpleLoadClass(logicObjectClass);
+			}
+		});
+		return packageLoaded && classLoaded;
 	}
 	
 	
@@ -91,7 +237,7 @@ public class LogicDependenciesLoader {
 		AbstractPrologEngineDriver engineConfig = LogicObjects.getLogicEngineConfiguration(pakkage);
 		if(engineConfig == null)
 			throw new RuntimeException();
-		PrologUtil logicUtil = new PrologUtil(engineConfig);
+		PrologEnginePool enginePool = PrologEnginePool.forEngine(engineConfig); //resources are loaded in all the engines of the pool
 		LogicResourcePathAdapter resourceAdapter = new LogicResourcePathAdapter(engineConfig, url, resourceManager);
 		
 		//LOADING PROLOG MODULES
@@ -106,7 +252,7 @@ public class LogicDependenciesLoader {
 
 		List<AbstractTerm> moduleTerms = new ArrayList<AbstractTerm>();
 		resourceAdapter.adapt(allModules, moduleTerms);
-		prologResult = logicUtil.ensureLoaded(moduleTerms); //loading prolog modules
+		prologResult = enginePool.ensureLoaded(moduleTerms); //loading prolog modules
 		if(!prologResult)
 			logger.warn("Impossible to load prolog files from package: " + pakkage.getName() + ". List of resources: " + allModules);
 		
@@ -125,7 +271,7 @@ public class LogicDependenciesLoader {
 		List<AbstractTerm> importTerms = new ArrayList<AbstractTerm>();
 		resourceAdapter.adapt(allImports, importTerms);
 		
-		logtalkResult = logicUtil.logtalkLoad(importTerms); //loading Logtalk objects
+		logtalkResult = enginePool.logtalkLoad(importTerms); //loading Logtalk objects
 		
 		if(!logtalkResult)
 			logger.warn("Impossible to load Logtalk files from package: " + pakkage.getName() + ". List of resources: " + allImports);
@@ -135,6 +281,8 @@ public class LogicDependenciesLoader {
 		allResources.addAll(allModules);
 		allResources.addAll(allImports);
 		rememberLoadedPackage(pakkage, allResources);
+		if(!moduleTerms.isEmpty() || !importTerms.isEmpty())
+			resourcesLoaded(engineConfig, pakkage, null);
 		
 		return prologResult && logtalkResult;
 	}
@@ -145,7 +293,7 @@ public class LogicDependenciesLoader {
 		boolean prologResult;
 		boolean logtalkResult;
 		AbstractPrologEngineDriver engineConfig = LogicObjects.getLogicEngineConfiguration(logicObjectClass.getWrappedClass());
-		PrologUtil logicUtil = new PrologUtil(engineConfig);
+		PrologEnginePool enginePool = PrologEnginePool.forEngine(engineConfig); //resources are loaded in all the engines of the pool
 		LogicResourcePathAdapter resourceAdapter = new LogicResourcePathAdapter(engineConfig, ClasspathHelper.forClass(logicObjectClass.getWrappedClass()), resourceManager);
 		
 		//LOADING PROLOG MODULES
@@ -163,7 +311,7 @@ public class LogicDependenciesLoader {
 		List<AbstractTerm> moduleTerms = new ArrayList<AbstractTerm>();
 		resourceAdapter.adapt(allModules, moduleTerms);
 		
-		prologResult = logicUtil.ensureLoaded(moduleTerms); //loading prolog modules
+		prologResult = enginePool.ensureLoaded(moduleTerms); //loading prolog modules
 		if(!prologResult)
 			logger.warn("Impossible to load Prolog files from class: " + logicObjectClass.getSimpleName() + ". List of resources: " + allModules);
 		
@@ -184,7 +332,7 @@ public class LogicDependenciesLoader {
 		resourceAdapter.adapt(allImports, importTerms);
 		
 		
-		logtalkResult = logicUtil.logtalkLoad(importTerms); //loading Logtalk objects
+		logtalkResult = enginePool.logtalkLoad(importTerms); //loading Logtalk objects
 		if(!logtalkResult)
 			logger.warn("Impossible to load Logtalk files from class: " + logicObjectClass.getSimpleName() + ". List of resources: " + allImports);
 		
@@ -192,6 +340,8 @@ public class LogicDependenciesLoader {
 		allResources.addAll(allModules);
 		allResources.addAll(allImports);
 		rememberLoadedClass(logicObjectClass.getWrappedClass(), allResources);
+		if(!moduleTerms.isEmpty() || !importTerms.isEmpty())
+			resourcesLoaded(engineConfig, logicObjectClass.getWrappedClass().getPackage(), logicObjectClass.getWrappedClass());
 		
 		return prologResult && logtalkResult;
 	}
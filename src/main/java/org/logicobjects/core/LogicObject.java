@@ -14,7 +14,6 @@ import org.jpc.util.PrologUtil;
 import org.logicobjects.converter.context.old.BeanPropertyAdaptationContext;
 import org.logicobjects.converter.old.ObjectToTermConverter;
 import org.logicobjects.converter.old.TermToObjectConverter;
-import org.minitoolbox.reflection.BeansUtil;
 import org.minitoolbox.reflection.typewrapper.ArrayTypeWrapper;
 import org.minitoolbox.reflection.typewrapper.TypeWrapper;
 
@@ -91,21 +90,26 @@ public class LogicObject<T extends Term> implements TermConvertable<T> {
 	
 	
 	
+	private static LogicPropertyAccessor propertyAccessor(Object lObject, String propertyName) {
+		return LogicClass.getMetadata(lObject.getClass()).getPropertyAccessor(propertyName);
+	}
+	
 	public static void setProperty(Object lObject, String propertyName, Term term) {
-		BeanPropertyAdaptationContext adaptationContext = new BeanPropertyAdaptationContext(lObject.getClass(), propertyName);
-		Object value = new TermToObjectConverter().adapt(term, adaptationContext.getPropertyType(), adaptationContext);
-		BeansUtil.setProperty(lObject, propertyName, value, adaptationContext.getGuidingClass());
+		LogicPropertyAccessor propertyAccessor = propertyAccessor(lObject, propertyName);
+		Object value = new TermToObjectConverter().adapt(term, propertyAccessor.getPropertyType(), propertyAccessor.getAdaptationContext());
+		propertyAccessor.set(lObject, value);
 	}
 	
 	public static void setPropertiesArray(Object lObject, String argsList, Term term) {
-		BeanPropertyAdaptationContext adaptationContext = new BeanPropertyAdaptationContext(lObject.getClass(), argsList);
+		LogicPropertyAccessor propertyAccessor = propertyAccessor(lObject, argsList);
+		BeanPropertyAdaptationContext adaptationContext = propertyAccessor.getAdaptationContext();
 		Field field = adaptationContext.getPropertyField();
 		TypeWrapper typeWrapper = TypeWrapper.wrap(field.getGenericType());
 		if(!(typeWrapper instanceof ArrayTypeWrapper))
 			throw new RuntimeException("The property " + argsList + " is not an array instance variable in object " + lObject);
 		List<Term> termArguments = term.getArgs();
 		Object adaptedArgs = new TermToObjectConverter().adaptTerms(termArguments, adaptationContext.getPropertyType(), adaptationContext);
-		BeansUtil.setProperty(lObject, argsList, adaptedArgs, adaptationContext.getGuidingClass());
+		propertyAccessor.set(lObject, adaptedArgs);
 	}
 	
 	public static void setPropertiesFromTermArgs(Object lObject, List<String> properties, Term term) {
@@ -132,10 +136,10 @@ public class LogicObject<T extends Term> implements TermConvertable<T> {
 		if(propertyName.equals("this"))
 			propertyAsTerm = new ObjectToTermConverter().adapt(lObject);
 		else {
-			BeanPropertyAdaptationContext adaptationContext = new BeanPropertyAdaptationContext(lObject.getClass(), propertyName);
-			Object propertyValue = BeansUtil.getProperty(lObject, propertyName, adaptationContext.getGuidingClass());
+			LogicPropertyAccessor propertyAccessor = propertyAccessor(lObject, propertyName);
+			Object propertyValue = propertyAccessor.get(lObject);
 			//Field field = ReflectionUtil.getProperty(lObject, propertyName);
-			propertyAsTerm = new ObjectToTermConverter().adapt(propertyValue, adaptationContext);
+			propertyAsTerm = new ObjectToTermConverter().adapt(propertyValue, propertyAccessor.getAdaptationContext());
 		}
 		return propertyAsTerm;
 	}
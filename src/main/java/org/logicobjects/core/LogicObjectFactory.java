@@ -1,17 +1,24 @@
 package org.logicobjects.core;
 
 
-import java.lang.reflect.Constructor;
-import java.util.ArrayList;
+import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import javassist.ClassPool;
 
 import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
 import org.jpc.util.ResourceManager;
 import org.logicobjects.LogicObjects;
+import org.logicobjects.instrumentation.LogicMethodInvocationPlan;
+import org.logicobjects.instrumentation.LogicMethodInvoker;
 import org.logicobjects.instrumentation.LogicObjectInstrumentation;
-import org.minitoolbox.reflection.BeansUtil;
+import org.logicobjects.instrumentation.LogicResultCache;
 import org.reflections.util.ClasspathHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +31,12 @@ public class LogicObjectFactory {
 	private LogicDependenciesLoader logicDependenciesLoader;
 	private ResourceManager resourceManager;
 	private ClassPool classPool;
+	/**
+	 * The generated class of each logic class. Each class is generated only once, even if several threads require it at the same time.
+	 * Threads requiring a class that is being generated wait only for that class.
+	 */
+	private final ConcurrentMap<Class, FutureTask<Class>> instantiatingClasses = new ConcurrentHashMap<>();
+	private final ConcurrentMap<LogicObjectInstantiator.Signature, LogicObjectInstantiator> instantiators = new ConcurrentHashMap<>();
 
 	
 	/**
@@ -33,18 +46,29 @@ public class LogicObjectFactory {
 		String tmpDir = LogicObjects.getPreferences().getTmpDirectory();
 		resourceManager = new ResourceManager(tmpDir);
 		logicDependenciesLoader = new LogicDependenciesLoader(resourceManager);
-		
+		logicDependenciesLoader.addListener(new LogicDependenciesListener() {
+			@Override
+			public void resourcesLoaded(LogicResourcesLoadedEvent event) {
+				LogicResultCache.invalidateAllCaches(event); //only the results depending on the loaded class or package, obtained from the engines where it was loaded, are outdated
+			}
+		});
+	}
+	
+	public LogicDependenciesLoader getLogicDependenciesLoader() {
+		return logicDependenciesLoader;
 	}
 
 	
-	public ClassPool getClassPool() {
+	public synchronized ClassPool getClassPool() {
 		if(classPool == null)
 			classPool = ClassPool.getDefault();
 		return classPool;
 	}
 
-	public void setClassPool(ClassPool classPool) {
+	public synchronized void setClassPool(ClassPool classPool) {
 		this.classPool = classPool;
+		instantiatingClasses.clear(); //the classes generated in the previous class pool should not be instantiated anymore
+		instantiators.clear();
 	}
 	
 /*
@@ -66,84 +90,132 @@ public class LogicObjectFactory {
 	public <T> T create(Object declaringObject, Class<T> clazz, List<?> params) {
 		if(declaringObject != null && declaringObject instanceof Class)
 			throw new RuntimeException("The context object cannot be an instance of " + Class.class.getName());
-		Class instantiatingClass = null;
-		//if(clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
-			LogicObjectInstrumentation instrumentation = new LogicObjectInstrumentation(clazz, getClassPool());
-			//instrumentation.run(); //instrument class and its ancestors
-			boolean extendingClassLoaded = instrumentation.isExtendingClassLoaded();
-			if(!extendingClassLoaded) { //the extending class has not been generated yet
-				long startTime = System.nanoTime();
-				verifyClass(clazz);
-				resourceManager.process(ClasspathHelper.forClass(clazz));
-				logicDependenciesLoader.loadDependencies(clazz); //load the dependencies in the Prolog engine
-				long endTimeDependencies = System.nanoTime();
-				instantiatingClass = instrumentation.getExtendingClass(); //answers the extending class. Generates it if needed.
-				long endTimeInstrumentation = System.nanoTime();
-				long timeLoadingDependencies = (endTimeDependencies - startTime)/1000000;
-				long timeInstrumentingClass =  (endTimeInstrumentation - endTimeDependencies)/1000000;
-				logger.info("Extending class" + clazz.getSimpleName() + " with generated class " + instantiatingClass.getSimpleName());
-				logger.info("Loading dependencies time: " + timeLoadingDependencies + " ms. Instrumentation time: " + timeInstrumentingClass + " ms.");
-			} else //the extending class has already been generated
-				instantiatingClass = instrumentation.getExtendingClass(); 
-		//} else
-			//instantiatingClass = clazz;
-		
-
-		try {
-			//List<Object> logicObjectsParamsConstructor = params;
-			List<Class> logicObjectsParamsClasses = objectsClasses(params);
-			
-			List<Object> allParamsConstructor = new ArrayList(params); //the surrounding new ArrayList is to make the original list mutable
-			List<Class> allParamsClasses = new ArrayList(logicObjectsParamsClasses);
-			
-			if(declaringObject != null) {
-				allParamsConstructor.add(0, declaringObject);
-				allParamsClasses.add(0, declaringObject.getClass());
+		LogicObjectInstantiator.Signature signature = new LogicObjectInstantiator.Signature(clazz, declaringObject, params);
+		LogicObjectInstantiator instantiator = instantiators.get(signature);
+		if(instantiator == null) {
+			Class instantiatingClass = getInstantiatingClass(clazz);
+			AbstractPrologEngineDriver logicEngineConfig = LogicObjects.getLogicEngineConfiguration(clazz);
+			instantiator = new LogicObjectInstantiator(instantiatingClass, signature.getDeclaringObjectClass(), signature.getParamsClasses(), logicEngineConfig);
+			LogicObjectInstantiator previousInstantiator = instantiators.putIfAbsent(signature, instantiator);
+			if(previousInstantiator != null) //another thread created the instantiator first
+				instantiator = previousInstantiator;
+		}
+		return (T) instantiator.newInstance(declaringObject, params);
+	}
+	
+	/**
+	 * 
+	 * @param clazz a logic class
+	 * @return the (generated) class to instantiate when creating instances of the given class
+	 */
+	public Class getInstantiatingClass(final Class clazz) {
+		FutureTask<Class> generation = instantiatingClasses.get(clazz);
+		if(generation == null) {
+			FutureTask<Class> newGeneration = new FutureTask<>(new Callable<Class>() {
+				@Override
+				public Class call() {
+					return extendingClass(clazz);
+				}
+			});
+			generation = instantiatingClasses.putIfAbsent(clazz, newGeneration);
+			if(generation == null) { //this thread is in charge of the generation
+				generation = newGeneration;
+				generation.run();
 			}
-			Constructor constructorWithParams = null;
-			try {
-				constructorWithParams = instantiatingClass.getConstructor(allParamsClasses.toArray(new Class[]{}));
-			} catch(NoSuchMethodException e) {
-				//the constructor with all the parameters does not exist
+		}
+		try {
+			return generation.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			instantiatingClasses.remove(clazz, generation); //the generation can be attempted again
+			throw new RuntimeException(e.getCause());
+		}
+	}
+	
+	private Class extendingClass(Class clazz) {
+		Class pregeneratedClass = LogicObjectInstrumentation.findPregeneratedClass(clazz); //the class may have been generated at compile time
+		ClassPool classPool = getClassPool();
+		LogicObjectInstrumentation instrumentation = null;
+		if(pregeneratedClass == null) {
+			synchronized(classPool) { //Javassist class pools are not thread safe
+				instrumentation = new LogicObjectInstrumentation(clazz, classPool);
+				if(instrumentation.isExtendingClassLoaded()) //the extending class has already been generated (e.g., by another factory sharing the class pool)
+					return instrumentation.getExtendingClass();
 			}
-			T logicClassInstance;
-			
-			if(constructorWithParams != null) {
-				logicClassInstance = (T)constructorWithParams.newInstance(allParamsConstructor.toArray());
-			} else {
-				if(declaringObject != null) {
-					Constructor declaringObjectConstructor = instantiatingClass.getConstructor(new Class[]{Object.class});
-					logicClassInstance = (T)declaringObjectConstructor.newInstance(new Object[]{declaringObjectConstructor});
-				} else
-					logicClassInstance = (T)instantiatingClass.newInstance();
-				
-				BeansUtil.setProperties(logicClassInstance, LogicClass.findLogicClass(instantiatingClass).getLObjectArgs(), logicObjectsParamsConstructor);
-
-				/*
-				if(LogicObjectClass.hasNoArgsConstructor(clazz)) {
-					Object o = instantiatingClass.newInstance();
-				} else if(LogicObjectClass.hasConstructorWithArgsNumber(clazz, paramsConstructor.size())) {
-					Constructor constructor = clazz.getConstructor(paramsClasses.toArray(new Class[]{}));
-				} else if((LogicObjectClass.hasConstructorWithOneVarArgs(clazz))) {
-					//TODO
-				}
-				*/
+		}
+		long startTime = System.nanoTime();
+		verifyClass(clazz);
+		resourceManager.process(ClasspathHelper.forClass(clazz));
+		logicDependenciesLoader.loadDependencies(clazz); //load the dependencies in the Prolog engine
+		long endTimeDependencies = System.nanoTime();
+		Class instantiatingClass;
+		if(pregeneratedClass != null) {
+			instantiatingClass = pregeneratedClass;
+		} else {
+			synchronized(classPool) {
+				instantiatingClass = instrumentation.getExtendingClass(); //answers the extending class. Generates it if needed.
 			}
-			AbstractPrologEngineDriver logicEngineConfig = LogicObjects.getLogicEngineConfiguration(clazz);
-			BeansUtil.setProperty(logicClassInstance, LogicObjectInstrumentation.LOGIC_ENGINE_CONFIG_FIELD_NAME, logicEngineConfig);
-			return logicClassInstance;
-		} catch (Exception e) {
+		}
+		long endTimeInstrumentation = System.nanoTime();
+		long timeLoadingDependencies = (endTimeDependencies - startTime)/1000000;
+		long timeInstrumentingClass =  (endTimeInstrumentation - endTimeDependencies)/1000000;
+		logger.info("Extending class" + clazz.getSimpleName() + " with " + (pregeneratedClass != null ? "pregenerated" : "generated") + " class " + instantiatingClass.getSimpleName());
+		logger.info("Loading dependencies time: " + timeLoadingDependencies + " ms. Instrumentation time: " + timeInstrumentingClass + " ms.");
+		return instantiatingClass;
+	}
+	
+	/**
+	 * Invokes a logic method of a logic object once per argument tuple, evaluating all the invocations in a single query.
+	 * @param logicObject a logic object created by this factory
+	 * @param method the logic method (declared or inherited by the class of the logic object)
+	 * @param argumentsList the arguments of each invocation
+	 * @return the result of each invocation, in the same order as the arguments
+	 */
+	public List<Object> invokeAll(Object logicObject, Method method, List<Object[]> argumentsList) {
+		return LogicMethodInvoker.forEngine(logicEngineConfig(logicObject)).invokeAll(logicObject, generatedMethod(logicObject, method), argumentsList);
+	}
+	
+	/**
+	 * 
+	 * @param logicObject a logic object created by this factory
+	 * @param method a logic method (declared or inherited by the class of the logic object)
+	 * @return the result cache of the method. Null if the method is not annotated with LCached
+	 */
+	public LogicResultCache getResultCache(Object logicObject, Method method) {
+		return LogicMethodInvocationPlan.forMethod(generatedMethod(logicObject, method)).getResultCache();
+	}
+	
+	/**
+	 * Discards the cached result of a logic method invocation (if any)
+	 * @param logicObject a logic object created by this factory
+	 * @param method a logic method annotated with LCached (declared or inherited by the class of the logic object)
+	 * @param arguments the arguments of the invocation
+	 */
+	public void invalidateCachedResult(Object logicObject, Method method, Object... arguments) {
+		LogicMethodInvocationPlan invocationPlan = LogicMethodInvocationPlan.forMethod(generatedMethod(logicObject, method));
+		if(invocationPlan.getResultCache() != null) {
+			AbstractPrologEngineDriver logicEngineConfig = logicEngineConfig(logicObject);
+			invocationPlan.getResultCache().invalidate(logicEngineConfig, invocationPlan.getResultCache().getGeneration(logicDependenciesLoader), invocationPlan.parse(logicObject, Arrays.asList(arguments)).asGoal());
+		}
+	}
+	
+	/**
+	 * @return the method as seen from the generated class of the logic object
+	 */
+	private static Method generatedMethod(Object logicObject, Method method) {
+		try {
+			return logicObject.getClass().getMethod(method.getName(), method.getParameterTypes());
+		} catch (NoSuchMethodException e) {
 			throw new RuntimeException(e);
 		}
-		
 	}
 	
-	private List<Class> objectsClasses(List objects) {
-		List<Class> classes = new ArrayList<Class>();
-		for(Object o: objects)
-			classes.add(o.getClass());
-		return classes;
+	private static AbstractPrologEngineDriver logicEngineConfig(Object logicObject) {
+		return (AbstractPrologEngineDriver) LogicClass.getMetadata(logicObject.getClass()).getPropertyAccessor(LogicObjectInstrumentation.LOGIC_ENGINE_CONFIG_FIELD_NAME).get(logicObject);
 	}
+	
 	/*
 	private Class[] objectsClasses(Object[] objects) {
 		Class[] classes = new Class[objects.length];
@@ -0,0 +1,156 @@
+package org.logicobjects.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+import org.logicobjects.instrumentation.LogicObjectInstrumentation;
+
+/**
+ * Instantiates a (generated) logic class for a given signature of arguments.
+ * The constructor to call, the properties to set and the logic engine configuration are resolved only once, 
+ * so creating a new instance does not require reflective lookups.
+ * @author scastro
+ *
+ */
+public class LogicObjectInstantiator {
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+	
+	private final MethodHandle constructor; //the constructor as a method handle taking an array of arguments
+	private final boolean constructorWithParams; //true if the constructor receives all the parameters, false if the parameters are set as properties
+	private final List<LogicPropertyAccessor> propertyAccessors;
+	private final LogicPropertyAccessor logicEngineConfigAccessor;
+	private final AbstractPrologEngineDriver logicEngineConfig;
+	
+	/**
+	 * 
+	 * @param instantiatingClass the class to instantiate
+	 * @param declaringObjectClass the class of the declaring object (null if there is no declaring object)
+	 * @param paramsClasses the classes of the parameters
+	 * @param logicEngineConfig the logic engine configuration of the instances
+	 */
+	public LogicObjectInstantiator(Class instantiatingClass, Class declaringObjectClass, List<Class> paramsClasses, AbstractPrologEngineDriver logicEngineConfig) {
+		this.logicEngineConfig = logicEngineConfig;
+		List<Class> allParamsClasses = new ArrayList<>(paramsClasses);
+		if(declaringObjectClass != null)
+			allParamsClasses.add(0, declaringObjectClass);
+		Constructor resolvedConstructor = null;
+		try {
+			resolvedConstructor = instantiatingClass.getConstructor(allParamsClasses.toArray(new Class[]{}));
+		} catch(NoSuchMethodException e) {
+			//the constructor with all the parameters does not exist
+		}
+		try {
+			if(resolvedConstructor != null) {
+				constructorWithParams = true;
+				propertyAccessors = Collections.emptyList();
+			} else {
+				constructorWithParams = false;
+				if(declaringObjectClass != null)
+					resolvedConstructor = instantiatingClass.getConstructor(new Class[]{Object.class});
+				else
+					resolvedConstructor = instantiatingClass.getConstructor();
+				List<String> propertyNames = LogicClass.findLogicClass(instantiatingClass).getDefaultTermDescriptor().args();
+				if(propertyNames.size() < paramsClasses.size())
+					throw new RuntimeException("The class " + instantiatingClass.getName() + " does not have a constructor nor enough logic properties for " + paramsClasses.size() + " parameters");
+				LogicClassMetadata metadata = LogicClass.getMetadata(instantiatingClass);
+				List<LogicPropertyAccessor> accessors = new ArrayList<>();
+				for(int i = 0; i < paramsClasses.size(); i++) {
+					accessors.add(metadata.getPropertyAccessor(propertyNames.get(i)));
+				}
+				propertyAccessors = Collections.unmodifiableList(accessors);
+			}
+			constructor = MethodHandles.lookup().unreflectConstructor(resolvedConstructor)
+					.asSpreader(Object[].class, resolvedConstructor.getParameterTypes().length)
+					.asType(CONSTRUCTOR_TYPE);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+		logicEngineConfigAccessor = LogicClass.getMetadata(instantiatingClass).getPropertyAccessor(LogicObjectInstrumentation.LOGIC_ENGINE_CONFIG_FIELD_NAME);
+	}
+	
+	/**
+	 * 
+	 * @param declaringObject the declaring object (null if there is no declaring object)
+	 * @param params the parameters. Their classes should be the ones given when this instantiator was created
+	 * @return a new instance
+	 */
+	public Object newInstance(Object declaringObject, List<?> params) {
+		Object instance;
+		try {
+			if(constructorWithParams) {
+				Object[] allParams;
+				if(declaringObject != null) {
+					allParams = new Object[params.size() + 1];
+					allParams[0] = declaringObject;
+					for(int i = 0; i < params.size(); i++)
+						allParams[i + 1] = params.get(i);
+				} else
+					allParams = params.toArray();
+				instance = constructor.invokeExact(allParams);
+			} else {
+				instance = constructor.invokeExact(declaringObject != null ? new Object[]{declaringObject} : new Object[0]);
+				for(int i = 0; i < propertyAccessors.size(); i++)
+					propertyAccessors.get(i).set(instance, params.get(i));
+			}
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+		logicEngineConfigAccessor.set(instance, logicEngineConfig);
+		return instance;
+	}
+	
+	
+	/**
+	 * Identifies an instantiator: the class to instantiate and the classes of the arguments
+	 */
+	static final class Signature {
+		private final Class clazz;
+		private final Class declaringObjectClass;
+		private final Class[] paramsClasses;
+		
+		public Signature(Class clazz, Object declaringObject, List<?> params) {
+			this.clazz = clazz;
+			this.declaringObjectClass = declaringObject != null ? declaringObject.getClass() : null;
+			paramsClasses = new Class[params.size()];
+			for(int i = 0; i < paramsClasses.length; i++)
+				paramsClasses[i] = params.get(i).getClass();
+		}
+
+		public Class getDeclaringObjectClass() {
+			return declaringObjectClass;
+		}
+
+		public List<Class> getParamsClasses() {
+			return Arrays.asList(paramsClasses);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = clazz.hashCode();
+			hash = 31 * hash + (declaringObjectClass != null ? declaringObjectClass.hashCode() : 0);
+			return 31 * hash + Arrays.hashCode(paramsClasses);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj)
+				return true;
+			if(!(obj instanceof Signature))
+				return false;
+			Signature other = (Signature) obj;
+			return clazz.equals(other.clazz) && (declaringObjectClass == null ? other.declaringObjectClass == null : declaringObjectClass.equals(other.declaringObjectClass))
+					&& Arrays.equals(paramsClasses, other.paramsClasses);
+		}
+	}
+	
+}
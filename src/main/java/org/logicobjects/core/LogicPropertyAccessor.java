@@ -0,0 +1,98 @@
+package org.logicobjects.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+
+import org.logicobjects.converter.context.old.BeanPropertyAdaptationContext;
+import org.minitoolbox.reflection.BeansUtil;
+
+/**
+ * Reads and writes a logic property of a class.
+ * The getter, setter (or field) of the property and its adaptation context are resolved only once, so accessing the property does not require reflective lookups.
+ * Accessors are cached in the metadata of their class.
+ * @author scastro
+ *
+ */
+public class LogicPropertyAccessor {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	
+	private final String propertyName;
+	private final BeanPropertyAdaptationContext adaptationContext;
+	private final MethodHandle getter; //null if there is neither a getter nor a field for the property
+	private final MethodHandle setter; //null if there is neither a setter nor a field for the property
+	
+	public LogicPropertyAccessor(Class clazz, String propertyName) {
+		this.propertyName = propertyName;
+		adaptationContext = new BeanPropertyAdaptationContext(clazz, propertyName);
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		Method propertyGetter = adaptationContext.getPropertyGetter();
+		Method propertySetter = adaptationContext.getPropertySetter();
+		Field propertyField = adaptationContext.getPropertyField();
+		try {
+			if(propertyGetter != null) {
+				propertyGetter.setAccessible(true);
+				getter = lookup.unreflect(propertyGetter).asType(GETTER_TYPE);
+			} else if(propertyField != null && !Modifier.isStatic(propertyField.getModifiers())) {
+				propertyField.setAccessible(true);
+				getter = lookup.unreflectGetter(propertyField).asType(GETTER_TYPE);
+			} else
+				getter = null;
+			if(propertySetter != null) {
+				propertySetter.setAccessible(true);
+				setter = lookup.unreflect(propertySetter).asType(SETTER_TYPE);
+			} else if(propertyField != null && !Modifier.isStatic(propertyField.getModifiers()) && !Modifier.isFinal(propertyField.getModifiers())) {
+				propertyField.setAccessible(true);
+				setter = lookup.unreflectSetter(propertyField).asType(SETTER_TYPE);
+			} else
+				setter = null;
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	public String getPropertyName() {
+		return propertyName;
+	}
+	
+	public Type getPropertyType() {
+		return adaptationContext.getPropertyType();
+	}
+	
+	public BeanPropertyAdaptationContext getAdaptationContext() {
+		return adaptationContext;
+	}
+	
+	public Object get(Object object) {
+		if(getter == null) //let the bean utilities report the problem (or find the property by other means)
+			return BeansUtil.getProperty(object, propertyName, adaptationContext.getGuidingClass());
+		try {
+			return getter.invokeExact(object);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	public void set(Object object, Object value) {
+		if(setter == null) {
+			BeansUtil.setProperty(object, propertyName, value, adaptationContext.getGuidingClass());
+			return;
+		}
+		try {
+			setter.invokeExact(object, value);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+}
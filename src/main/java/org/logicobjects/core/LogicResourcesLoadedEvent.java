@@ -0,0 +1,73 @@
+package org.logicobjects.core;
+
+import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+
+/**
+ * Describes the (re)loading of the logic resources of a logic class or package.
+ * The generations of the engine configuration and of the loaded class or package are the ones resulting from this loading.
+ * @author scastro
+ *
+ */
+public class LogicResourcesLoadedEvent {
+
+	private final AbstractPrologEngineDriver logicEngineConfig;
+	private final Package pakkage;
+	private final Class loadedClass;
+	private final long engineGeneration;
+	private final long packageGeneration;
+	private final long classGeneration;
+	
+	public LogicResourcesLoadedEvent(AbstractPrologEngineDriver logicEngineConfig, Package pakkage, Class loadedClass, long engineGeneration, long packageGeneration, long classGeneration) {
+		this.logicEngineConfig = logicEngineConfig;
+		this.pakkage = pakkage;
+		this.loadedClass = loadedClass;
+		this.engineGeneration = engineGeneration;
+		this.packageGeneration = packageGeneration;
+		this.classGeneration = classGeneration;
+	}
+
+	/**
+	 * @return the engine configuration where the resources were loaded
+	 */
+	public AbstractPrologEngineDriver getLogicEngineConfig() {
+		return logicEngineConfig;
+	}
+
+	/**
+	 * @return the package whose resources were loaded, or the package of the class whose resources were loaded
+	 */
+	public Package getPackage() {
+		return pakkage;
+	}
+
+	/**
+	 * @return the class whose resources were loaded. Null if the resources of a package were loaded
+	 */
+	public Class getLoadedClass() {
+		return loadedClass;
+	}
+
+	public long getEngineGeneration() {
+		return engineGeneration;
+	}
+
+	/**
+	 * @return the generation of the package. It does not change when the resources of a class are loaded
+	 */
+	public long getPackageGeneration() {
+		return packageGeneration;
+	}
+
+	/**
+	 * @return the generation of the loaded class. Zero if the resources of a package were loaded
+	 */
+	public long getClassGeneration() {
+		return classGeneration;
+	}
+
+	@Override
+	public String toString() {
+		return "Resources of " + (loadedClass != null ? "class " + loadedClass.getName() + " loaded (class generation: " + classGeneration + ", " : "package " + pakkage.getName() + " loaded (") + "engine generation: " + engineGeneration + ", package generation: " + packageGeneration + ")";
+	}
+	
+}
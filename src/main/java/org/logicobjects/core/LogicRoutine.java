@@ -2,10 +2,13 @@ package org.logicobjects.core;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.jpc.query.Query;
 import org.jpc.term.Compound;
@@ -55,6 +58,7 @@ public abstract class LogicRoutine {
 	private Method method;
 	//protected LogicEngineConfiguration logicEngineConfig;
 	protected PrologUtil logicUtil;
+	private String logicMethodName;
 	
 	//private String queryString;
 	
@@ -98,8 +102,66 @@ public abstract class LogicRoutine {
 		return method;
 	}
 	
+	/**
+	 * 
+	 * @return true if the method answers a CompletableFuture. In that case the method is invoked asynchronously and the future is completed with the adapted result
+	 */
+	public boolean isAsynchronous() {
+		return CompletableFuture.class.equals(getWrappedMethod().getReturnType());
+	}
+	
+	/**
+	 * 
+	 * @return the type of the adapted result of the method. For asynchronous methods, the type argument of the future (Object if it is not declared)
+	 */
+	public Type getResultType() {
+		Type returnType = getWrappedMethod().getGenericReturnType();
+		if(isAsynchronous()) {
+			if(returnType instanceof ParameterizedType)
+				return ((ParameterizedType) returnType).getActualTypeArguments()[0];
+			else
+				return Object.class;
+		}
+		return returnType;
+	}
+	
+	/**
+	 * 
+	 * @return the class of the adapted result of the method
+	 * @see #getResultType()
+	 */
+	public Class getResultClass() {
+		return isAsynchronous() ? TypeWrapper.wrap(getResultType()).getRawClass() : getWrappedMethod().getReturnType();
+	}
+	
 
 	public MethodResultAdapter getMethodAdapter(ParsedLogicMethod parsedLogicMethod) {
+		return getMethodAdapter(parsedLogicMethod, getSimpleMethodAdapterClass());
+	}
+	
+	/**
+	 * 
+	 * @param parsedLogicMethod the parsed logic method
+	 * @param simpleMethodAdapterClass the (previously resolved) result of getSimpleMethodAdapterClass()
+	 * @return the adapter of the method result
+	 */
+	public MethodResultAdapter getMethodAdapter(ParsedLogicMethod parsedLogicMethod, Class<? extends MethodResultAdapter> simpleMethodAdapterClass) {
+		if(simpleMethodAdapterClass != null) {
+			try {
+				return simpleMethodAdapterClass.newInstance();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+		return getCompositionAdapter(parsedLogicMethod);
+	}
+	
+	/**
+	 * 
+	 * @return the class of an adapter interpreting the query as a whole (e.g., as a boolean or as the number of solutions), 
+	 * null if the solutions of the query should be composed by a composition adapter
+	 */
+	public Class<? extends MethodResultAdapter> getSimpleMethodAdapterClass() {
 		LComposition aLWrapper = getAnnotation(LComposition.class);
 		LSolution aLSolution = getAnnotation(LSolution.class);
 		/**
@@ -109,30 +171,24 @@ public abstract class LogicRoutine {
 		 */
 		if(aLSolution == null) {
 			if(aLWrapper == null) {
-				Class returnType = getWrappedMethod().getReturnType();
+				Class returnType = getResultClass();
 				if(returnType.equals(Query.class))
-					return new MethodResultAdapter.DefaultMethodResultAdapter();
+					return MethodResultAdapter.DefaultMethodResultAdapter.class;
 				if(returnType.equals(Void.class) || returnType.equals(Boolean.class) || returnType.equals(boolean.class))
-					return new HasSolutionAdapter();
+					return HasSolutionAdapter.class;
 				if(Number.class.isAssignableFrom(Primitives.wrap(returnType)))
-					return new NumberOfSolutionsAdapter();
+					return NumberOfSolutionsAdapter.class;
 			}
 		}
-		return getCompositionAdapter(parsedLogicMethod);
+		return null;
 	}
 	
 	public SolutionCompositionAdapter getCompositionAdapter(ParsedLogicMethod parsedLogicMethod) {
 		SolutionCompositionAdapter compositionAdapter = null;
-		LComposition aLWrapper = (LComposition)getAnnotation(LComposition.class);
 		try {
-			if(aLWrapper == null) {
-				compositionAdapter = new OneSolutionAdapter();
-			} else {
-				compositionAdapter = (WrapperAdapter)aLWrapper.adapter().getConstructor().newInstance();
-				//compositionAdapter = (WrapperAdapter)aLWrapper.adapter().newInstance();
-				//compositionAdapter.setMethod(getWrappedMethod());
-				//compositionAdapter.setParameters(aLWrapper.value());
-			}
+			compositionAdapter = getCompositionAdapterClass().getConstructor().newInstance();
+			//compositionAdapter.setMethod(getWrappedMethod());
+			//compositionAdapter.setParameters(aLWrapper.value());
 			compositionAdapter.setParsedLogicMethod(parsedLogicMethod);
 			EachSolutionAdapter eachSolutionAdapter = getEachSolutionAdapter(compositionAdapter);
 			compositionAdapter.setEachSolutionAdapter(eachSolutionAdapter);
@@ -142,6 +198,18 @@ public abstract class LogicRoutine {
 		return compositionAdapter;
 	}
 	
+	/**
+	 * 
+	 * @return the class of the adapter composing the solutions of the query
+	 */
+	public Class<? extends SolutionCompositionAdapter> getCompositionAdapterClass() {
+		LComposition aLWrapper = (LComposition)getAnnotation(LComposition.class);
+		if(aLWrapper == null)
+			return OneSolutionAdapter.class;
+		else
+			return aLWrapper.adapter();
+	}
+	
 	public String getEachSolutionValue() {
 		String eachSolutionValue = null;
 		LSolution aLSolution = (LSolution)getAnnotation(LSolution.class);
@@ -151,25 +219,31 @@ public abstract class LogicRoutine {
 	}
 	
 	public EachSolutionAdapter getEachSolutionAdapter(SolutionCompositionAdapter compositionAdapter) {
-		EachSolutionAdapter eachSolutionAdapter = null;
 		try {
-			LSolution aLSolution = (LSolution)getAnnotation(LSolution.class);
-			if(aLSolution == null) {
-				if(Map.class.isAssignableFrom(TypeWrapper.wrap(compositionAdapter.getEachSolutionType()).getRawClass())) {
-					eachSolutionAdapter = EachSolutionAdapter.EachSolutionMapAdapter.class.newInstance(); //will answer a map of logic variable bindings
-					return eachSolutionAdapter;
-				} else {
-					return new SolutionToLObjectAdapter();
-				}
-			} else {
-				eachSolutionAdapter = (EachSolutionAdapter)aLSolution.adapter().newInstance();
-				return eachSolutionAdapter;
-			}
+			return getEachSolutionAdapterClass(compositionAdapter.getEachSolutionType()).newInstance();
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
 	}
 	
+	/**
+	 * 
+	 * @param eachSolutionType the type of each solution of the query
+	 * @return the class of the adapter of each solution
+	 */
+	public Class<? extends EachSolutionAdapter> getEachSolutionAdapterClass(Type eachSolutionType) {
+		LSolution aLSolution = (LSolution)getAnnotation(LSolution.class);
+		if(aLSolution == null) {
+			if(Map.class.isAssignableFrom(TypeWrapper.wrap(eachSolutionType).getRawClass())) {
+				return EachSolutionAdapter.EachSolutionMapAdapter.class; //will answer a map of logic variable bindings
+			} else {
+				return SolutionToLObjectAdapter.class;
+			}
+		} else {
+			return aLSolution.adapter();
+		}
+	}
+	
 	/**
 	 * If declared, this array transform the original array of method arguments to a new object array
 	 * @return
@@ -222,18 +296,25 @@ public abstract class LogicRoutine {
 	
 	
 	public List adaptOriginalMethodArguments(List originalMethodArguments) {
+		return adaptOriginalMethodArguments(originalMethodArguments, getEachMethodArgumentAdapters(), getMethodArgumentsArrayAdapter());
+	}
+	
+	/**
+	 * Adapts the original method arguments with already instantiated adapters
+	 * @param originalMethodArguments the arguments of the Java method
+	 * @param methodArgumentAdapters the adapters of each individual argument (an adapter can be null)
+	 * @param methodArgumentsAdapter the adapter of the whole list of arguments (can be null)
+	 * @return the adapted arguments
+	 */
+	public List adaptOriginalMethodArguments(List originalMethodArguments, List<ObjectToTermConverter> methodArgumentAdapters, MethodArgumentsAdapter methodArgumentsAdapter) {
 		List adaptedMethodArguments = new ArrayList(originalMethodArguments);
-		List<ObjectToTermConverter> methodArgumentAdapters = getEachMethodArgumentAdapters();
 		for(int i = 0; i <  methodArgumentAdapters.size(); i++) {
 			ObjectToTermConverter methodArgumentAdapter = methodArgumentAdapters.get(i);
 			if(methodArgumentAdapter != null) {
 				adaptedMethodArguments.set(i, methodArgumentAdapter.adapt(adaptedMethodArguments.get(i)));
 			}
 		}
-	
-
 		
-		MethodArgumentsAdapter methodArgumentsAdapter = getMethodArgumentsArrayAdapter();
 		if(methodArgumentsAdapter != null)
 			adaptedMethodArguments = methodArgumentsAdapter.adapt(adaptedMethodArguments);
 		
@@ -257,16 +338,25 @@ public abstract class LogicRoutine {
 		return parsedLogicMethod;
 	}
 	
+	/**
+	 * 
+	 * @return true if the query string of this routine is a goal (and not, for example, the name of a predicate). In that case the query can be parsed as a term
+	 */
+	public boolean hasGoalQueryString() {
+		return false;
+	}
+	
 	public boolean hasCustomMethodName() {
 		return !(customMethodName() == null || customMethodName().isEmpty());
 	}
 	
 	public String logicMethodName() {
-		String logicMethodName;
-		if(hasCustomMethodName()) {  //test if a method id has been indicated at the annotation
-			logicMethodName = customMethodName();
-		} else {
-			logicMethodName = PrologUtil.javaNameToProlog(getWrappedMethod().getName()); //if no id is provided in the annotation, it will be the method id after converting it to prolog naming conventions
+		if(logicMethodName == null) { //the logic name does not depend on the invocation context, so it is computed only once
+			if(hasCustomMethodName()) {  //test if a method id has been indicated at the annotation
+				logicMethodName = customMethodName();
+			} else {
+				logicMethodName = PrologUtil.javaNameToProlog(getWrappedMethod().getName()); //if no id is provided in the annotation, it will be the method id after converting it to prolog naming conventions
+			}
 		}
 		return logicMethodName;
 	}
@@ -275,10 +365,15 @@ public abstract class LogicRoutine {
 		AbstractTerm eachSolutionTerm = null;
 		LSolution aLSolution = getAnnotation(LSolution.class);
 		if(aLSolution != null) {
-			String solutionString = parsedLogicMethod.getParsedData().getSolutionString();
-			if(solutionString != null && !solutionString.isEmpty()) {
-				eachSolutionTerm = logicUtil.asTerm(solutionString);
-			} 
+			Term solutionTerm = parsedLogicMethod.getParsedData().getSolutionTerm(); //the solution may have been already built as a term
+			if(solutionTerm != null) {
+				eachSolutionTerm = (AbstractTerm) solutionTerm;
+			} else {
+				String solutionString = parsedLogicMethod.getParsedData().getSolutionString();
+				if(solutionString != null && !solutionString.isEmpty()) {
+					eachSolutionTerm = logicUtil.asTerm(solutionString);
+				} 
+			}
 		}
 		if(eachSolutionTerm == null) {
 			Term goal = parsedLogicMethod.asGoal();
@@ -312,11 +407,16 @@ public abstract class LogicRoutine {
 		
 		//we convert the string representation of every argument in a term
 		if(hasLogicMethodArguments()) {
-			List<AbstractTerm> newTermArgs = new ArrayList<AbstractTerm>();
-			for(Object stringTerm : parsedLogicMethod.getParsedData().getMethodArguments()) {
-				newTermArgs.add(logicUtil.asTerm(stringTerm.toString()));
+			List<Term> argumentTerms = parsedLogicMethod.getParsedData().getMethodArgumentTerms(); //the arguments may have been already built as terms
+			if(argumentTerms != null) {
+				arguments = new ArrayList<>(argumentTerms);
+			} else {
+				List<AbstractTerm> newTermArgs = new ArrayList<AbstractTerm>();
+				for(Object stringTerm : parsedLogicMethod.getParsedData().getMethodArguments()) {
+					newTermArgs.add(logicUtil.asTerm(stringTerm.toString()));
+				}
+				arguments = newTermArgs;
 			}
-			arguments = newTermArgs;
 		} else {
 			arguments = parsedLogicMethod.getOriginalMethodArguments();
 		}
@@ -32,10 +32,18 @@ public class MultiPredicateQuery extends RawLogicQuery {
 
 	@Override
 	public Term asGoal(ParsedLogicMethod parsedLogicMethod) {
+		Term queryTerm = parsedLogicMethod.getParsedData().getQueryTerm(); //the query may have been already built as a term
+		if(queryTerm != null)
+			return queryTerm;
 		String queryString = parsedLogicMethod.getComputedQueryString();
 		return logicUtil.asTerm(queryString);
 	}
 	
+	@Override
+	public boolean hasGoalQueryString() {
+		return true;
+	}
+	
 	public String getUnparsedQuery() {
 		return aLQuery.value();
 	}
@@ -51,7 +59,8 @@ public class MultiPredicateQuery extends RawLogicQuery {
 
 	@Override
 	protected void configureParsedLogicMethodQueryString(ParsedLogicMethod parsedLogicMethod) {
-		parsedLogicMethod.setComputedQueryString(parsedLogicMethod.getParsedData().getQueryString()); 
+		if(parsedLogicMethod.getParsedData().getQueryTerm() == null) //otherwise the query string is computed only if required
+			parsedLogicMethod.setComputedQueryString(parsedLogicMethod.getParsedData().getQueryString()); 
 	}
 	
 }
@@ -0,0 +1,729 @@
+package org.logicobjects.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jpc.engine.prolog.PrologEngine;
+import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+import org.jpc.term.AbstractTerm;
+import org.jpc.util.PrologUtil;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.instrumentation.OutputFlusher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * A pool of logic engines sharing the same configuration, so logic methods invoked from different threads do not serialize on a single engine.
+ * The first engine of the pool is the engine of the configuration. Additional engines are created on demand (up to the size of the pool) and all of them have the same logic resources loaded.
+ * <p>
+ * Each engine has its own (daemon) thread, where the engine is created and asynchronous logic methods are executed.
+ * Other logic methods are executed in the invoking thread, unless the pool confines its engines to their threads (see LogicObjectsPreferences.isEngineThreadConfinement()).
+ * In that case engines also load their resources and execute all their queries in their threads: threads invoking logic methods only hand the work to the thread of the engine they check out and wait for it, so backends requiring engine affinity can be used from any thread.
+ * Confinement costs two context switches per synchronous invocation, so it is disabled by default.
+ * Note that the engine of the configuration may have been created by the configuration itself in another thread (e.g., if its getEngine() method was called before creating the pool).
+ * For this reason, confined pools do not use the engine of the configuration: all their engines, including the first one, are created by the engine factory in their own threads.
+ * <p>
+ * An engine is checked out for the duration of a logic method invocation, or while a lazy result of the invocation (a solution enumeration or stream) remains open.
+ * If the pool has a single engine (the default size), its engine is shared: all the threads check it out at the same time, as they would use the engine of the configuration without a pool.
+ * Otherwise engines are checked out exclusively by one thread at a time.
+ * Resources are only loaded in engines that are shared or not checked out by other threads. Engines that are busy when resources are loaded catch up on their next checkout, including the nested checkouts of the thread holding them.
+ * <p>
+ * In pools of more than one engine, lazy results keep their engine checked out until they are exhausted or closed. 
+ * Therefore iterators not completely consumed must be closed, and so must streams consumed by short-circuiting operations (e.g., findFirst, anyMatch or limit), for instance with a try-with-resources block.
+ * Otherwise the engine is never returned to the pool (the thread that obtained the result still re-enters it, but other threads do not).
+ * Threads waiting for an engine fail after the checkout timeout of the preferences, reporting that the engines of the pool are checked out.
+ * A thread that already holds an engine of a pool (e.g., while iterating over the solutions of a logic method) receives the same engine if it invokes other logic methods, so nested invocations never wait for the pool.
+ * The same applies to logic methods invoked from the thread of an engine (e.g., by the adapters of a result). Otherwise, a thread receives the engine it used last if that engine is idle.
+ * Asynchronous logic methods are submitted to the pool: they never block the invoking thread, and are executed in the thread of the first engine that becomes available.
+ * @author scastro
+ *
+ */
+public class PrologEnginePool {
+
+	private static Logger logger = LoggerFactory.getLogger(PrologEnginePool.class);
+
+	/**
+	 * The engine of the current thread, if the current thread is an engine thread.
+	 */
+	private static final ThreadLocal<PooledEngine> engineThreads = new ThreadLocal<>();
+
+	/**
+	 * One pool per engine configuration, compared by identity. Pools are never shut down: the shared invoker of a configuration references both the configuration and its pool, and the engine threads of a pool keep it alive.
+	 */
+	private static final LoadingCache<AbstractPrologEngineDriver, PrologEnginePool> pools = CacheBuilder.newBuilder().weakKeys().build(
+			new CacheLoader<AbstractPrologEngineDriver, PrologEnginePool>() {
+				@Override
+				public PrologEnginePool load(AbstractPrologEngineDriver logicEngineConfig) {
+					return new PrologEnginePool(logicEngineConfig, LogicObjects.getDefault().getPreferences().getEnginePoolSize());
+				}
+			});
+
+	/**
+	 *
+	 * @param logicEngineConfig a logic engine configuration
+	 * @return the (shared) engine pool of the given configuration
+	 */
+	public static PrologEnginePool forEngine(AbstractPrologEngineDriver logicEngineConfig) {
+		return pools.getUnchecked(logicEngineConfig);
+	}
+
+	/**
+	 * Sets the pool of an engine configuration. It should be called before any logic method using the configuration is invoked.
+	 * @param logicEngineConfig a logic engine configuration
+	 * @param pool the pool of the configuration
+	 */
+	public static void register(AbstractPrologEngineDriver logicEngineConfig, PrologEnginePool pool) {
+		pools.put(logicEngineConfig, pool);
+	}
+
+	/**
+	 * Creates additional engines by instantiating the class of an engine configuration (which should have a public no-args constructor).
+	 */
+	private static class ConfigurationInstantiator implements Callable<PrologEngine> {
+		private final Class<? extends AbstractPrologEngineDriver> configurationClass;
+
+		public ConfigurationInstantiator(Class<? extends AbstractPrologEngineDriver> configurationClass) {
+			this.configurationClass = configurationClass;
+		}
+
+		@Override
+		public PrologEngine call() throws Exception {
+			return configurationClass.newInstance().getEngine();
+		}
+	}
+
+
+	private final int size;
+	private final boolean shared; //true if the pool has a single engine, checked out by all the threads at the same time
+	private final boolean confined; //true if all the queries of an engine are executed in its thread
+	private final Callable<PrologEngine> engineFactory;
+	private final PooledEngine primaryEngine;
+	private final List<PooledEngine> engines = new ArrayList<>(); //guarded by this
+	private final BlockingQueue<PooledEngine> idleEngines = new LinkedBlockingQueue<>();
+	/**
+	 * Tasks submitted while all the engines were busy. A released engine executes them before becoming idle.
+	 */
+	private final Queue<PendingTask<?>> pendingTasks = new ArrayDeque<>(); //guarded by this
+	/**
+	 * The resources loaded in the engines of the pool. They are loaded again in each engine created afterwards, and in each engine that was busy when they were loaded.
+	 */
+	private final List<LoadingStep> loadingSteps = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<PooledEngine> currentEngine = new ThreadLocal<>();
+	private final ThreadLocal<PooledEngine> lastEngine = new ThreadLocal<>();
+
+	public PrologEnginePool(AbstractPrologEngineDriver logicEngineConfig, int size) {
+		this(logicEngineConfig, size, new ConfigurationInstantiator(logicEngineConfig.getClass()));
+	}
+
+	/**
+	 * @param logicEngineConfig the engine configuration. Its engine is the first engine of the pool, unless the pool is confined
+	 * @param size the maximum number of engines in the pool
+	 * @param engineFactory creates the additional engines of the pool (and also the first one if the pool is confined). It is called in the thread of each new engine
+	 */
+	public PrologEnginePool(AbstractPrologEngineDriver logicEngineConfig, int size, Callable<PrologEngine> engineFactory) {
+		this(logicEngineConfig, size, engineFactory, LogicObjects.getDefault().getPreferences().isEngineThreadConfinement());
+	}
+
+	/**
+	 * @param logicEngineConfig the engine configuration. Its engine is the first engine of the pool, unless the pool is confined
+	 * @param size the maximum number of engines in the pool
+	 * @param engineFactory creates the additional engines of the pool (and also the first one if the pool is confined). It is called in the thread of each new engine
+	 * @param confined true if all the queries of an engine should be executed in its thread. Otherwise only asynchronous tasks are
+	 */
+	public PrologEnginePool(final AbstractPrologEngineDriver logicEngineConfig, int size, Callable<PrologEngine> engineFactory, boolean confined) {
+		if(size < 1)
+			throw new IllegalArgumentException("The size of an engine pool should be at least 1. Size: " + size);
+		this.size = size;
+		shared = size == 1;
+		this.confined = confined;
+		this.engineFactory = engineFactory;
+		if(confined) { //the engine of the configuration may have been created in a thread other than the engine thread
+			primaryEngine = new PooledEngine(1, engineFactory);
+		} else {
+			primaryEngine = new PooledEngine(1, new Callable<PrologEngine>() {
+				@Override
+				public PrologEngine call() {
+					return logicEngineConfig.getEngine();
+				}
+			});
+		}
+		primaryEngine.awaitCreation();
+		engines.add(primaryEngine);
+		if(!shared)
+			idleEngines.add(primaryEngine);
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return true if all the queries of an engine are executed in its thread. Otherwise only asynchronous tasks are
+	 */
+	public boolean isConfined() {
+		return confined;
+	}
+
+	/**
+	 * @return the engine confined to the current thread. Null if the current thread is not the thread of an engine
+	 */
+	public static PooledEngine engineOfCurrentThread() {
+		return engineThreads.get();
+	}
+
+	/**
+	 * Checks out an engine. If the pool has more than one engine, all of them are busy and the pool is full, waits until an engine is released (at most the checkout timeout of the preferences).
+	 * @return the lease of an engine. It must be released when the engine is not needed anymore.
+	 */
+	public Lease checkout() {
+		PooledEngine engine = engineThreads.get();
+		if(engine != null && engine.getPool() == this) { //invocation from the thread of an engine, which is held by the task running in it
+			synchronized(engine) {
+				engine.holds++;
+			}
+			return caughtUpLease(engine); //resources may have been loaded by other threads since the engine was checked out
+		}
+		if(shared) {
+			engine = primaryEngine;
+			synchronized(engine) {
+				engine.holds++;
+			}
+			return caughtUpLease(engine);
+		}
+		engine = currentEngine.get();
+		if(engine != null) {
+			boolean nested;
+			synchronized(engine) {
+				nested = engine.owner == Thread.currentThread();
+				if(nested)
+					engine.holds++;
+			}
+			if(nested)
+				return caughtUpLease(engine); //idem
+			currentEngine.remove(); //the engine was released by another thread
+		}
+		engine = lastEngine.get();
+		if(engine == null || !idleEngines.remove(engine)) //prefer the engine last used by this thread
+			engine = idleEngines.poll();
+		if(engine == null) {
+			engine = createEngineIfPossible();
+			if(engine == null) {
+				engine = waitForIdleEngine();
+			}
+		}
+		synchronized(engine) {
+			engine.holds = 1;
+			engine.owner = Thread.currentThread();
+		}
+		Lease lease = caughtUpLease(engine);
+		currentEngine.set(engine);
+		lastEngine.set(engine);
+		return lease;
+	}
+	
+	/**
+	 * Loads in an engine just held by the current thread the resources it has not loaded yet (in the thread of the engine if the pool is confined).
+	 * @return the lease of the engine
+	 */
+	private Lease caughtUpLease(PooledEngine engine) {
+		try {
+			if(engine.loadedSteps < loadingSteps.size()) //avoids handing the work to the engine thread if the engine is up to date
+				catchUpWithEngine(engine);
+		} catch(RuntimeException e) {
+			release(engine);
+			throw e;
+		}
+		return new Lease(engine);
+	}
+
+	/**
+	 * Submits a task to the first engine that becomes available, without blocking the current thread.
+	 * The task is executed in the thread of the engine, which is held until the task finishes. Logic methods invoked by the task are executed in the same engine.
+	 * If the current thread is the thread of an engine of the pool, the task is executed immediately in that engine (waiting for another engine could deadlock).
+	 * If the pool has a single engine, the task is queued in the thread of the shared engine.
+	 * If all the engines are busy and the pool is full, the task is queued until an engine is released. 
+	 * However, if the current thread holds an engine of the pool (e.g., it is iterating over a lazy result), the task is queued in the thread of that engine instead: 
+	 * the current thread may wait for the task while holding its engine, which would never be released otherwise.
+	 * @param task the task
+	 * @return a future completed with the result of the task (in the thread of the engine)
+	 */
+	public <T> CompletableFuture<T> submit(Callable<T> task) {
+		PendingTask<T> pendingTask = new PendingTask<>(task);
+		PooledEngine engine = engineThreads.get();
+		if(engine != null && engine.getPool() == this) {
+			synchronized(engine) {
+				engine.holds++;
+			}
+			pendingTask.run(engine);
+			return pendingTask.future;
+		}
+		if(shared) {
+			engine = primaryEngine;
+			synchronized(engine) {
+				engine.holds++;
+			}
+			pendingTask.execute(engine);
+			return pendingTask.future;
+		}
+		synchronized(this) {
+			engine = idleEngines.poll();
+			if(engine == null)
+				engine = createEngineIfPossible();
+			if(engine != null) {
+				synchronized(engine) {
+					engine.holds = 1;
+				}
+			} else {
+				engine = holdEngineOfCurrentThread();
+				if(engine == null) {
+					pendingTasks.add(pendingTask);
+					return pendingTask.future;
+				}
+			}
+		}
+		pendingTask.execute(engine);
+		return pendingTask.future;
+	}
+
+	/**
+	 * Adds a hold to the engine checked out by the current thread (if any)
+	 * @return the engine checked out by the current thread. Null if the current thread does not hold an engine of the pool
+	 */
+	private PooledEngine holdEngineOfCurrentThread() {
+		PooledEngine engine = currentEngine.get();
+		if(engine != null) {
+			synchronized(engine) {
+				if(engine.owner == Thread.currentThread()) {
+					engine.holds++;
+					return engine;
+				}
+			}
+		}
+		return null;
+	}
+
+	private PooledEngine waitForIdleEngine() {
+		long timeoutMillis = LogicObjects.getDefault().getPreferences().getEngineCheckoutTimeoutMillis();
+		try {
+			if(timeoutMillis <= 0)
+				return idleEngines.take();
+			PooledEngine engine = idleEngines.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+			if(engine == null)
+				throw new IllegalStateException("No engine of the pool was released after waiting " + timeoutMillis + " ms (all the " + size + " engines are checked out). " +
+						"Lazy results of logic methods (iterators, streams, publishers) keep their engine until they are exhausted or closed. Check that they are closed when not completely consumed.");
+			return engine;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * Releases a hold of an engine. When the engine is not held anymore, it executes the next pending task (if any) or becomes idle.
+	 * A shared engine is never idle, since it can always be checked out.
+	 */
+	private void release(PooledEngine engine) {
+		if(shared) {
+			synchronized(engine) {
+				engine.holds--;
+			}
+			return;
+		}
+		PendingTask<?> pendingTask;
+		synchronized(this) {
+			synchronized(engine) {
+				if(--engine.holds > 0)
+					return;
+				engine.owner = null;
+				pendingTask = pendingTasks.poll();
+				if(pendingTask != null)
+					engine.holds = 1;
+			}
+			if(pendingTask == null) {
+				idleEngines.add(engine);
+				return;
+			}
+		}
+		pendingTask.execute(engine);
+	}
+
+	/**
+	 * @return a new engine. Null if the pool is full. Its resources are loaded when it is checked out
+	 */
+	private synchronized PooledEngine createEngineIfPossible() {
+		if(engines.size() >= size)
+			return null;
+		PooledEngine engine = new PooledEngine(engines.size() + 1, engineFactory);
+		try {
+			engine.awaitCreation();
+		} catch(RuntimeException e) {
+			engine.shutdown();
+			throw e;
+		}
+		engines.add(engine);
+		logger.debug("Engine " + engines.size() + " of " + size + " added to the pool.");
+		return engine;
+	}
+	
+	/**
+	 * Loads Prolog modules in all the engines of the pool (including the ones created afterwards)
+	 * @param moduleTerms the modules
+	 * @return true if the modules were loaded in all the engines
+	 */
+	public boolean ensureLoaded(List<AbstractTerm> moduleTerms) {
+		return load(new LoadingStep(moduleTerms, false));
+	}
+
+	/**
+	 * Loads Logtalk files in all the engines of the pool (including the ones created afterwards)
+	 * @param importTerms the Logtalk files
+	 * @return true if the Logtalk files were loaded in all the engines
+	 */
+	public boolean logtalkLoad(List<AbstractTerm> importTerms) {
+		return load(new LoadingStep(importTerms, true));
+	}
+
+	/**
+	 * Loads a step in the engines that can be held now: idle engines, the engine held by this thread (if any), and the shared engine (if the pool has a single engine).
+	 * The other engines load the step when they are checked out again.
+	 * @return true if the step was loaded without errors in the engines held now
+	 */
+	private boolean load(LoadingStep loadingStep) {
+		List<PooledEngine> enginesSnapshot;
+		synchronized(this) {
+			loadingSteps.add(loadingStep);
+			enginesSnapshot = new ArrayList<>(engines);
+		}
+		boolean result = true;
+		for(PooledEngine engine : enginesSnapshot) {
+			boolean heldByThisThread;
+			synchronized(engine) {
+				heldByThisThread = engine.owner == Thread.currentThread() || engine.isCurrentThread();
+			}
+			if(shared || heldByThisThread) {
+				if(!catchUpWithEngine(engine))
+					result = false;
+			} else if(idleEngines.remove(engine)) { //the engine is held while loading the step, so no query runs on it at the same time
+				synchronized(engine) {
+					engine.holds = 1;
+				}
+				try {
+					if(!catchUpWithEngine(engine))
+						result = false;
+				} finally {
+					release(engine);
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Loads in an engine the steps it has not loaded yet. If the pool is confined, the steps are loaded in the thread of the engine.
+	 */
+	private boolean catchUpWithEngine(final PooledEngine engine) {
+		return engine.call(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return catchUp(engine);
+			}
+		});
+	}
+	
+	/**
+	 * Loads in an engine the steps it has not loaded yet. It must only be called by a holder of the engine (in the thread of the engine if the pool is confined).
+	 * @return true if the steps were loaded without errors
+	 */
+	private boolean catchUp(PooledEngine engine) {
+		boolean result = true;
+		synchronized(engine.loadingLock) { //the holders of a shared engine may catch up at the same time
+			while(engine.loadedSteps < loadingSteps.size()) {
+				LoadingStep loadingStep = loadingSteps.get(engine.loadedSteps);
+				engine.loadedSteps++;
+				if(!loadingStep.load(engine.logicUtil)) {
+					logger.warn("Impossible to load " + loadingStep + " in the engine " + engine.getName() + ".");
+					result = false;
+				}
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * An engine of the pool, with its own (daemon) thread.
+	 * As an executor, it executes tasks in the thread of the engine.
+	 */
+	public class PooledEngine implements Executor {
+		private final String name;
+		private final ExecutorService executor;
+		private final Future<?> creation;
+		private volatile Thread thread;
+		private PrologUtil logicUtil; //written in the engine thread, published by the completion of the creation task
+		private OutputFlusher outputFlusher; //idem
+		private final Object loadingLock = new Object();
+		private volatile int loadedSteps; //written while holding the loading lock
+		private int holds; //guarded by this
+		private Thread owner; //guarded by this
+
+		private PooledEngine(int number, final Callable<PrologEngine> engineFactory) {
+			name = "logicobjects-engine-" + Integer.toHexString(System.identityHashCode(PrologEnginePool.this)) + "-" + number;
+			executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable runnable) {
+					Thread engineThread = new Thread(new Runnable() {
+						@Override
+						public void run() {
+							engineThreads.set(PooledEngine.this);
+							runnable.run();
+						}
+					}, name);
+					engineThread.setDaemon(true);
+					thread = engineThread;
+					return engineThread;
+				}
+			});
+			creation = executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					logicUtil = new PrologUtil(engineFactory.call());
+					outputFlusher = new OutputFlusher(logicUtil, PooledEngine.this); //periodic flushes are executed in the engine thread
+					return null;
+				}
+			});
+		}
+
+		/**
+		 * @return the name of the engine, which is also the name of its thread
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the number of resource loading steps of the pool already loaded in this engine
+		 */
+		public int getLoadedSteps() {
+			return loadedSteps;
+		}
+
+		/**
+		 * @return true if the current thread is the thread of this engine
+		 */
+		public boolean isCurrentThread() {
+			return Thread.currentThread() == thread;
+		}
+
+		public PrologUtil getLogicUtil() {
+			awaitCreation();
+			return logicUtil;
+		}
+
+		public OutputFlusher getOutputFlusher() {
+			awaitCreation();
+			return outputFlusher;
+		}
+
+		/**
+		 * Executes a task with the engine and waits for its result. 
+		 * If the pool is confined, the task is executed in the thread of the engine. Otherwise (or if the current thread is the thread of the engine) the task is executed immediately in the current thread.
+		 * The engine should be held by the caller while the task is executed.
+		 * @param task the task
+		 * @return the result of the task
+		 */
+		public <T> T call(Callable<T> task) {
+			awaitCreation();
+			if(!confined || isCurrentThread()) {
+				try {
+					return task.call();
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			}
+			return get(executor.submit(task));
+		}
+
+		/**
+		 * Executes a task asynchronously in the thread of the engine. Errors thrown by the task are logged.
+		 * @param task the task
+		 */
+		@Override
+		public void execute(final Runnable task) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						task.run();
+					} catch(RuntimeException e) { //the engine thread must survive, otherwise the executor would replace it with a thread that did not create the engine
+						logger.error("Error executing a task in the thread of the engine " + name + ".", e);
+					}
+				}
+			});
+		}
+
+		private void awaitCreation() {
+			try {
+				get(creation);
+			} catch(RuntimeException e) {
+				String message = "The engine " + name + " could not be created.";
+				if(confined)
+					message += " Engines of confined pools are created by the engine factory of the pool (by default, by instantiating the class of the engine configuration with its no-args constructor).";
+				throw new IllegalStateException(message, e);
+			}
+		}
+
+		private <T> T get(Future<T> future) {
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if(cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				if(cause instanceof Error)
+					throw (Error) cause;
+				throw new RuntimeException(cause);
+			}
+		}
+
+		private void shutdown() {
+			executor.shutdown();
+		}
+
+		private PrologEnginePool getPool() {
+			return PrologEnginePool.this;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**
+	 * A task submitted to the pool.
+	 */
+	private class PendingTask<T> {
+		private final Callable<T> task;
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+
+		public PendingTask(Callable<T> task) {
+			this.task = task;
+		}
+
+		/**
+		 * Executes the task in the thread of an engine already held for it.
+		 */
+		public void execute(final PooledEngine engine) {
+			engine.execute(new Runnable() {
+				@Override
+				public void run() {
+					PendingTask.this.run(engine);
+				}
+			});
+		}
+
+		/**
+		 * Runs the task in the current thread (the thread of the engine) and then releases the engine.
+		 */
+		public void run(PooledEngine engine) {
+			try {
+				catchUp(engine);
+				future.complete(task.call());
+			} catch(Throwable e) {
+				future.completeExceptionally(e);
+			} finally {
+				release(engine);
+			}
+		}
+	}
+
+	private static class LoadingStep {
+		private final List<AbstractTerm> terms;
+		private final boolean logtalk;
+
+		public LoadingStep(List<AbstractTerm> terms, boolean logtalk) {
+			this.terms = new ArrayList<>(terms);
+			this.logtalk = logtalk;
+		}
+
+		public boolean load(PrologUtil logicUtil) {
+			return logtalk ? logicUtil.logtalkLoad(terms) : logicUtil.ensureLoaded(terms);
+		}
+
+		@Override
+		public String toString() {
+			return (logtalk ? "Logtalk files " : "Prolog modules ") + terms;
+		}
+	}
+
+	/**
+	 * The lease of an engine of the pool. Releasing a lease more than once has no effect.
+	 */
+	public class Lease {
+		private final PooledEngine engine;
+		private final AtomicBoolean pending;
+
+		private Lease(PooledEngine engine) {
+			this.engine = engine;
+			this.pending = new AtomicBoolean(true);
+		}
+
+		public PooledEngine getEngine() {
+			return engine;
+		}
+
+		/**
+		 * The utility object of the engine. If the pool is confined, it should only be used by tasks executed in the thread of the engine
+		 * @see #call(Callable)
+		 */
+		public PrologUtil getLogicUtil() {
+			return engine.getLogicUtil();
+		}
+
+		/**
+		 * The output flusher of the engine. If the pool is confined, it should only be notified by tasks executed in the thread of the engine
+		 */
+		public OutputFlusher getOutputFlusher() {
+			return engine.getOutputFlusher();
+		}
+
+		/**
+		 * Executes a task with the leased engine and waits for its result (see PooledEngine.call(Callable))
+		 * @param task the task
+		 * @return the result of the task
+		 */
+		public <T> T call(Callable<T> task) {
+			return engine.call(task);
+		}
+
+		public void release() {
+			if(pending.compareAndSet(true, false))
+				PrologEnginePool.this.release(engine);
+		}
+	}
+
+}
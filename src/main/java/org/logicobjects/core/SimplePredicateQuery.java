@@ -4,6 +4,7 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 
+import org.jpc.term.Atom;
 import org.jpc.term.Term;
 import org.logicobjects.annotation.method.LExpression;
 import org.logicobjects.annotation.method.LMethod.LMethodUtil;
@@ -13,6 +14,8 @@ import org.logicobjects.instrumentation.ParsedLogicMethod;
 
 public class SimplePredicateQuery extends RawLogicQuery {
 
+	private static final String TRUE_QUERY_STRING = "true";
+
 	public SimplePredicateQuery(Method method) {
 		super(method);
 		if(aLQuery == null && !isAnnotationPresent(LExpression.class))
@@ -43,7 +46,7 @@ public class SimplePredicateQuery extends RawLogicQuery {
 	@Override
 	public Term asGoal(ParsedLogicMethod parsedLogicMethod) {
 		if(isLogicExpression())
-			return logicUtil.asTerm(parsedLogicMethod.getComputedQueryString());
+			return new Atom(TRUE_QUERY_STRING);
 		else
 			return asTerm(parsedLogicMethod);
 	}
@@ -62,7 +65,7 @@ public class SimplePredicateQuery extends RawLogicQuery {
 	@Override
 	protected void configureParsedLogicMethodQueryString(ParsedLogicMethod parsedLogicMethod) {
 		if(isLogicExpression()) {
-			parsedLogicMethod.setComputedQueryString("true");
+			parsedLogicMethod.setComputedQueryString(TRUE_QUERY_STRING);
 		} else {
 			super.configureParsedLogicMethodQueryString(parsedLogicMethod); //the query will be the method id
 		}
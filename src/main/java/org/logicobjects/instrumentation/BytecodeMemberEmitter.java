@@ -0,0 +1,393 @@
+package org.logicobjects.instrumentation;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtBehavior;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.CtPrimitiveType;
+import javassist.Modifier;
+import javassist.NotFoundException;
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.Descriptor;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+
+import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+import org.logicobjects.core.NoLogicResultException;
+import org.minitoolbox.reflection.javassist.JavassistUtil;
+import org.minitoolbox.reflection.typewrapper.TypeWrapper;
+
+/**
+ * Emits the bytecode of the members of a generated class directly, instead of generating their source code and compiling it with the Javassist compiler.
+ * The emitted members behave exactly as the ones compiled from source code by LogicObjectInstrumentation.
+ * Methods embedding Java expressions are the only members still compiled from source code, since they contain arbitrary expressions written by the programmer.
+ * @author scastro
+ *
+ */
+public class BytecodeMemberEmitter {
+
+	private static final String OBJECT_CLASS_NAME = Object.class.getName();
+	private static final String METHOD_DESCRIPTOR = Descriptor.of(Method.class.getName());
+	private static final String CLASS_DESCRIPTOR = Descriptor.of(Class.class.getName());
+	private static final String INVOKE_DESCRIPTOR = "(" + Descriptor.of(OBJECT_CLASS_NAME) + METHOD_DESCRIPTOR + "[" + Descriptor.of(OBJECT_CLASS_NAME) + ")" + Descriptor.of(OBJECT_CLASS_NAME);
+	private static final String RESOLVE_METHOD_DESCRIPTOR = "(" + CLASS_DESCRIPTOR + Descriptor.of(String.class.getName()) + "[" + CLASS_DESCRIPTOR + ")" + METHOD_DESCRIPTOR;
+
+	private final ClassPool classPool;
+	/**
+	 * The static fields referencing the instrumented methods. They are initialized in the class initializer.
+	 */
+	private final Map<String, CtMethod> methodFields = new LinkedHashMap<>();
+
+	public BytecodeMemberEmitter(ClassPool classPool) {
+		this.classPool = classPool;
+	}
+
+	/**
+	 * Adds to a generated class a getter returning the value of a field.
+	 * @param propertyType the type of the property
+	 * @param propertyName the name of the property (and of its field)
+	 * @param getterName the name of the getter. If null, the name is derived from the name of the property
+	 * @param fieldOwner the class declaring the field. If null, the field is declared by the generated class
+	 * @param son the generated class
+	 * @return the getter
+	 */
+	public CtMethod createGetter(Type propertyType, String propertyName, String getterName, CtClass fieldOwner, CtClass son) {
+		CtClass ctPropertyClass = asCtClass(propertyType);
+		CtMethod getter = new CtMethod(ctPropertyClass, getterName != null ? getterName : getterName(propertyName), new CtClass[]{}, son);
+		Bytecode code = new Bytecode(getter.getMethodInfo().getConstPool(), 0, 1);
+		code.addAload(0);
+		code.addGetfield(fieldOwner != null ? fieldOwner : son, propertyName, Descriptor.of(ctPropertyClass));
+		code.addReturn(ctPropertyClass);
+		return addAccessor(getter, code, propertyType, "()" + genericSignature(propertyType), son);
+	}
+
+	/**
+	 * Adds to a generated class a setter assigning the value of a field.
+	 * @param propertyType the type of the property
+	 * @param propertyName the name of the property (and of its field)
+	 * @param fieldOwner the class declaring the field. If null, the field is declared by the generated class
+	 * @param son the generated class
+	 * @return the setter
+	 */
+	public CtMethod createSetter(Type propertyType, String propertyName, CtClass fieldOwner, CtClass son) {
+		CtClass ctPropertyClass = asCtClass(propertyType);
+		CtMethod setter = new CtMethod(CtClass.voidType, setterName(propertyName), new CtClass[]{ctPropertyClass}, son);
+		Bytecode code = new Bytecode(setter.getMethodInfo().getConstPool(), 0, 1 + sizeOf(ctPropertyClass));
+		code.addAload(0);
+		code.addLoad(1, ctPropertyClass);
+		code.addPutfield(fieldOwner != null ? fieldOwner : son, propertyName, Descriptor.of(ctPropertyClass));
+		code.addOpcode(Opcode.RETURN);
+		return addAccessor(setter, code, propertyType, "(" + genericSignature(propertyType) + ")V", son);
+	}
+
+	/**
+	 * Adds to a generated class a public getter invoking a (non public) getter of its superclass.
+	 * @param propertyType the type of the property
+	 * @param getterName the name of the getter of the superclass
+	 * @param son the generated class
+	 * @return the getter
+	 */
+	public CtMethod createOverridingGetter(Type propertyType, String getterName, CtClass son) {
+		CtClass ctPropertyClass = asCtClass(propertyType);
+		CtMethod getter = new CtMethod(ctPropertyClass, getterName, new CtClass[]{}, son);
+		Bytecode code = new Bytecode(getter.getMethodInfo().getConstPool(), 0, 1);
+		code.addAload(0);
+		code.addInvokespecial(superclass(son), getterName, "()" + Descriptor.of(ctPropertyClass));
+		code.addReturn(ctPropertyClass);
+		return addAccessor(getter, code, propertyType, "()" + genericSignature(propertyType), son);
+	}
+
+	/**
+	 * Adds to a generated class a public setter invoking a (non public) setter of its superclass.
+	 * @param propertyType the type of the property
+	 * @param propertyName the name of the property
+	 * @param son the generated class
+	 * @return the setter
+	 */
+	public CtMethod createOverridingSetter(Type propertyType, String propertyName, CtClass son) {
+		CtClass ctPropertyClass = asCtClass(propertyType);
+		String setterName = setterName(propertyName);
+		CtMethod setter = new CtMethod(CtClass.voidType, setterName, new CtClass[]{ctPropertyClass}, son);
+		Bytecode code = new Bytecode(setter.getMethodInfo().getConstPool(), 0, 1 + sizeOf(ctPropertyClass));
+		code.addAload(0);
+		code.addLoad(1, ctPropertyClass);
+		code.addInvokespecial(superclass(son), setterName, "(" + Descriptor.of(ctPropertyClass) + ")V");
+		code.addOpcode(Opcode.RETURN);
+		return addAccessor(setter, code, propertyType, "(" + genericSignature(propertyType) + ")V", son);
+	}
+
+	private CtMethod addAccessor(CtMethod accessor, Bytecode code, Type propertyType, String genericSignature, CtClass son) {
+		try {
+			setCode(accessor, code);
+			accessor.setModifiers(Modifier.PUBLIC);
+			if(!(propertyType instanceof Class)) //e.g., a parameterized type
+				accessor.setGenericSignature(genericSignature);
+			son.addMethod(accessor);
+			return accessor;
+		} catch (CannotCompileException | BadBytecode e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Sets the body of a constructor of a generated class to a call to the constructor of the superclass with the same parameters.
+	 * @param ctConstructor a constructor of a generated class
+	 */
+	public void emitSuperConstructorCall(CtConstructor ctConstructor) {
+		try {
+			CtClass[] parameterTypes = ctConstructor.getParameterTypes();
+			Bytecode code = new Bytecode(ctConstructor.getMethodInfo().getConstPool(), 0, 0);
+			code.addAload(0);
+			int local = 1;
+			for(CtClass parameterType : parameterTypes)
+				local += code.addLoad(local, parameterType);
+			code.addInvokespecial(superclass(ctConstructor.getDeclaringClass()), MethodInfo.nameInit, ctConstructor.getSignature());
+			code.addOpcode(Opcode.RETURN);
+			code.setMaxLocals(local);
+			setCode(ctConstructor, code);
+		} catch (NotFoundException | BadBytecode e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Adds to the class declaring a method a static final field referencing such method.
+	 * The field is initialized by the class initializer emitted by {@link #emitClassInitializer(CtClass)}.
+	 * @param m the method to reference
+	 * @param methodFieldName the name of the field
+	 */
+	public void addMethodField(CtMethod m, String methodFieldName) {
+		CtClass declaringClass = m.getDeclaringClass();
+		try {
+			CtField methodField = new CtField(JavassistUtil.asCtClass(Method.class, classPool), methodFieldName, declaringClass);
+			methodField.setModifiers(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL);
+			declaringClass.addField(methodField);
+			methodFields.put(methodFieldName, m);
+		} catch (CannotCompileException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Emits the class initializer resolving the methods referenced by the fields added with {@link #addMethodField(CtMethod, String)}.
+	 * @param son the generated class
+	 */
+	public void emitClassInitializer(CtClass son) {
+		if(methodFields.isEmpty())
+			return;
+		try {
+			CtConstructor classInitializer = son.makeClassInitializer();
+			ConstPool constPool = classInitializer.getMethodInfo().getConstPool();
+			Bytecode code = new Bytecode(constPool, 0, 0);
+			for(Entry<String, CtMethod> methodField : methodFields.entrySet()) {
+				CtMethod m = methodField.getValue();
+				CtClass[] parameterTypes = m.getParameterTypes();
+				code.addLdc(constPool.addClassInfo(son));
+				code.addLdc(m.getName());
+				code.addIconst(parameterTypes.length);
+				code.addAnewarray(Class.class.getName());
+				for(int i = 0; i<parameterTypes.length; i++) {
+					code.addOpcode(Opcode.DUP);
+					code.addIconst(i);
+					if(parameterTypes[i].isPrimitive()) //e.g., Integer.TYPE for int
+						code.addGetstatic(((CtPrimitiveType)parameterTypes[i]).getWrapperName(), "TYPE", CLASS_DESCRIPTOR);
+					else
+						code.addLdc(constPool.addClassInfo(parameterTypes[i]));
+					code.addOpcode(Opcode.AASTORE);
+				}
+				code.addInvokestatic(LogicMethodInvoker.class.getName(), "resolveMethod", RESOLVE_METHOD_DESCRIPTOR);
+				code.addPutstatic(son, methodField.getKey(), METHOD_DESCRIPTOR);
+			}
+			code.addOpcode(Opcode.RETURN);
+			setCode(classInitializer, code);
+		} catch (CannotCompileException | NotFoundException | BadBytecode e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Emits the body of a logic method. The emitted code is equivalent to:
+	 * Object result = null;
+	 * try {
+	 * 	result = InvokerClass.forEngine(engineField).invokerMethodName(this, methodField, $args);
+	 * } catch (Exception e) {throw new RuntimeException(e);}
+	 * return (ReturnType)result; //unboxed for primitive types. NoLogicResultException is thrown if a primitive result is null
+	 * @param m the method to instrument. It should belong to the generated class.
+	 * @param invokerClass the class of the invoker. It must define a static method "forEngine" answering an invoker for a logic engine configuration
+	 * @param invokerMethodName the name of the invoker method
+	 * @param engineFieldName the name of the field of the generated class referencing the logic engine configuration
+	 * @param methodFieldName the name of the static field referencing the method
+	 */
+	public void emitLogicMethodBody(CtMethod m, Class invokerClass, String invokerMethodName, String engineFieldName, String methodFieldName) {
+		try {
+			CtClass declaringClass = m.getDeclaringClass();
+			CtClass[] parameterTypes = m.getParameterTypes();
+			CtClass returnType = m.getReturnType();
+			int resultLocal = 1;
+			for(CtClass parameterType : parameterTypes)
+				resultLocal += sizeOf(parameterType);
+			int exceptionLocal = resultLocal + 1;
+			String engineDescriptor = Descriptor.of(AbstractPrologEngineDriver.class.getName());
+			String invokerClassName = invokerClass.getName();
+
+			Bytecode code = new Bytecode(m.getMethodInfo().getConstPool(), 0, exceptionLocal + 1);
+			int tryStart = code.currentPc();
+			code.addAload(0);
+			code.addGetfield(declaringClass, engineFieldName, engineDescriptor);
+			code.addInvokestatic(invokerClassName, "forEngine", "(" + engineDescriptor + ")" + Descriptor.of(invokerClassName));
+			code.addAload(0);
+			code.addGetstatic(declaringClass, methodFieldName, METHOD_DESCRIPTOR);
+			code.addIconst(parameterTypes.length);
+			code.addAnewarray(OBJECT_CLASS_NAME);
+			int local = 1;
+			for(int i = 0; i<parameterTypes.length; i++) {
+				code.addOpcode(Opcode.DUP);
+				code.addIconst(i);
+				local += code.addLoad(local, parameterTypes[i]);
+				if(parameterTypes[i].isPrimitive())
+					addBoxing(code, (CtPrimitiveType)parameterTypes[i]);
+				code.addOpcode(Opcode.AASTORE);
+			}
+			code.addInvokevirtual(invokerClassName, invokerMethodName, INVOKE_DESCRIPTOR);
+			code.addAstore(resultLocal);
+			int tryEnd = code.currentPc();
+			int gotoPc = addBranch(code, Opcode.GOTO);
+			int handlerPc = code.currentPc();
+			code.addAstore(exceptionLocal);
+			code.addNew(RuntimeException.class.getName());
+			code.addOpcode(Opcode.DUP);
+			code.addAload(exceptionLocal);
+			code.addInvokespecial(RuntimeException.class.getName(), MethodInfo.nameInit, "(" + Descriptor.of(Throwable.class.getName()) + ")V");
+			code.addOpcode(Opcode.ATHROW);
+			setBranchTarget(code, gotoPc, code.currentPc());
+			code.addExceptionHandler(tryStart, tryEnd, handlerPc, Exception.class.getName());
+
+			if(returnType == CtClass.voidType) {
+				code.addOpcode(Opcode.RETURN);
+			} else if(returnType.isPrimitive()) {
+				CtPrimitiveType primitiveReturnType = (CtPrimitiveType) returnType;
+				code.addAload(resultLocal);
+				int ifPc = addBranch(code, Opcode.IFNONNULL);
+				code.addNew(NoLogicResultException.class.getName());
+				code.addOpcode(Opcode.DUP);
+				code.addInvokespecial(NoLogicResultException.class.getName(), MethodInfo.nameInit, "()V");
+				code.addOpcode(Opcode.ATHROW);
+				setBranchTarget(code, ifPc, code.currentPc());
+				code.addAload(resultLocal);
+				code.addCheckcast(primitiveReturnType.getWrapperName());
+				code.addInvokevirtual(primitiveReturnType.getWrapperName(), primitiveReturnType.getGetMethodName(), primitiveReturnType.getGetMethodDescriptor());
+				code.addReturn(primitiveReturnType);
+			} else {
+				code.addAload(resultLocal);
+				code.addCheckcast(returnType);
+				code.addOpcode(Opcode.ARETURN);
+			}
+			setCode(m, code);
+			JavassistUtil.makeNonAbstract(m);
+			m.getMethodInfo().rebuildStackMapIf6(classPool, declaringClass.getClassFile()); //required by the verifier since the method contains branches
+		} catch (NotFoundException | BadBytecode e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static void setCode(CtBehavior behavior, Bytecode code) throws BadBytecode {
+		CodeAttribute codeAttribute = code.toCodeAttribute();
+		codeAttribute.computeMaxStack();
+		behavior.getMethodInfo().setCodeAttribute(codeAttribute);
+	}
+
+	private static void addBoxing(Bytecode code, CtPrimitiveType primitiveType) {
+		String wrapperName = primitiveType.getWrapperName();
+		code.addInvokestatic(wrapperName, "valueOf", "(" + primitiveType.getDescriptor() + ")" + Descriptor.of(wrapperName));
+	}
+
+	/**
+	 * Adds a branch instruction with an offset to be set later.
+	 * @return the position of the branch instruction
+	 */
+	private static int addBranch(Bytecode code, int opcode) {
+		int branchPc = code.currentPc();
+		code.addOpcode(opcode);
+		code.addIndex(0);
+		return branchPc;
+	}
+
+	private static void setBranchTarget(Bytecode code, int branchPc, int targetPc) {
+		code.write16bit(branchPc + 1, targetPc - branchPc);
+	}
+
+	private static int sizeOf(CtClass type) {
+		return (type == CtClass.longType || type == CtClass.doubleType) ? 2 : 1;
+	}
+
+	private static CtClass superclass(CtClass ctClass) {
+		try {
+			return ctClass.getSuperclass();
+		} catch (NotFoundException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private CtClass asCtClass(Type type) {
+		return JavassistUtil.asCtClass(TypeWrapper.wrap(type).getRawClass(), classPool);
+	}
+
+	private static String getterName(String propertyName) {
+		return "get" + capitalize(propertyName);
+	}
+
+	private static String setterName(String propertyName) {
+		return "set" + capitalize(propertyName);
+	}
+
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	/**
+	 * @param type a Java type
+	 * @return the encoding of the type in a generic signature attribute
+	 */
+	static String genericSignature(Type type) {
+		if(type instanceof Class) {
+			return MethodType.methodType((Class)type).toMethodDescriptorString().substring(2); //the descriptor of the return type of a method "()Type"
+		} else if(type instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType) type;
+			String rawSignature = genericSignature(parameterizedType.getRawType());
+			StringBuilder sb = new StringBuilder(rawSignature.substring(0, rawSignature.length() - 1)); //without the final ';'
+			sb.append("<");
+			for(Type typeArgument : parameterizedType.getActualTypeArguments())
+				sb.append(genericSignature(typeArgument));
+			return sb.append(">;").toString();
+		} else if(type instanceof TypeVariable) {
+			return "T" + ((TypeVariable)type).getName() + ";";
+		} else if(type instanceof GenericArrayType) {
+			return "[" + genericSignature(((GenericArrayType)type).getGenericComponentType());
+		} else if(type instanceof WildcardType) {
+			WildcardType wildcardType = (WildcardType) type;
+			if(wildcardType.getLowerBounds().length > 0)
+				return "-" + genericSignature(wildcardType.getLowerBounds()[0]);
+			Type upperBound = wildcardType.getUpperBounds()[0];
+			return upperBound.equals(Object.class) ? "*" : "+" + genericSignature(upperBound);
+		}
+		throw new IllegalArgumentException("Unrecognized type: " + type);
+	}
+
+}
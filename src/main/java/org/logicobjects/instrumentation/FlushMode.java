@@ -0,0 +1,12 @@
+package org.logicobjects.instrumentation;
+
+/**
+ * Determines when the output of the logic engine is flushed after invoking a logic method
+ * @author scastro
+ *
+ */
+public enum FlushMode {
+	NEVER, //the output is never flushed by the invoker
+	ALWAYS, //the output is flushed after each invocation
+	PERIODIC //the output is flushed after a number of invocations or after an interval of time, whatever comes first
+}
@@ -0,0 +1,52 @@
+package org.logicobjects.instrumentation;
+
+import java.lang.reflect.Method;
+
+import org.logicobjects.LogicObjects;
+import org.logicobjects.LogicObjectsPreferences;
+import org.logicobjects.annotation.LFlush;
+
+/**
+ * The output flushing policy of a logic method.
+ * It is resolved from the LFlush annotation of the method, otherwise from the LFlush annotation of its class (or an ancestor), otherwise from the preferences.
+ * @author scastro
+ *
+ */
+public class FlushPolicy {
+
+	public static FlushPolicy forMethod(Method method) {
+		LFlush aLFlush = method.getAnnotation(LFlush.class);
+		if(aLFlush == null)
+			aLFlush = method.getDeclaringClass().getAnnotation(LFlush.class); //the annotation is inherited, so the generated classes also have it
+		if(aLFlush != null)
+			return new FlushPolicy(aLFlush.value(), aLFlush.everyCalls(), aLFlush.everyMillis());
+		LogicObjectsPreferences preferences = LogicObjects.getDefault().getPreferences();
+		return new FlushPolicy(preferences.getFlushMode(), preferences.getFlushEveryCalls(), preferences.getFlushEveryMillis());
+	}
+	
+	
+	private final FlushMode mode;
+	private final int everyCalls;
+	private final long everyMillis;
+	
+	public FlushPolicy(FlushMode mode, int everyCalls, long everyMillis) {
+		if(mode == FlushMode.PERIODIC && everyCalls <= 0 && everyMillis <= 0)
+			throw new RuntimeException("A periodic flush policy requires a number of calls or an interval of time");
+		this.mode = mode;
+		this.everyCalls = everyCalls;
+		this.everyMillis = everyMillis;
+	}
+
+	public FlushMode getMode() {
+		return mode;
+	}
+
+	public int getEveryCalls() {
+		return everyCalls;
+	}
+
+	public long getEveryMillis() {
+		return everyMillis;
+	}
+	
+}
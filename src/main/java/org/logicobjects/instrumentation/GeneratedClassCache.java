@@ -0,0 +1,323 @@
+package org.logicobjects.instrumentation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.logicobjects.LogicObjects;
+import org.logicobjects.LogicObjectsPreferences;
+import org.minitoolbox.reflection.javassist.CodeGenerationUtil;
+import org.minitoolbox.reflection.javassist.JavassistUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Stores on disk the bytecode of the classes generated by the instrumentation, so they do not have to be generated again on each JVM start.
+ * An entry is keyed by a hash of the bytecode of the logic class (and its ancestors), of the classes generating the code and of the instrumentation backend.
+ * Therefore an entry is automatically ignored (and eventually replaced) when either the logic class, the code generation or the backend changes.
+ * <p>
+ * Cached classes are defined in the application class loader, so the cache must not contain classes written by other users.
+ * The cache directory is created accessible only by its owner, and the cache is not used (neither read nor written) if the directory is not owned by the current user, if it is accessible by other users, or if it is a symbolic link.
+ * Entries not owned by the current user are ignored.
+ * @author scastro
+ *
+ */
+public class GeneratedClassCache {
+
+	private static Logger logger = LoggerFactory.getLogger(GeneratedClassCache.class);
+
+	public static final String CACHE_SUBDIRECTORY_NAME = "classes";
+	private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+	private static final String CLASS_FILE_EXTENSION = ".class";
+	private static final String KEY_SEPARATOR = "-";
+	/**
+	 * The classes whose bytecode determines the generated code
+	 */
+	private static final List<Class> GENERATOR_CLASSES = Arrays.<Class>asList(LogicObjectInstrumentation.class, BytecodeMemberEmitter.class, LogicMethodParser.class, AbstractParser.class, CodeGenerationUtil.class, JavassistUtil.class); //the parsers generate the source code of the auxiliary methods
+
+	private static GeneratedClassCache defaultCache;
+
+	/**
+	 * The preferences are read on each call, so changes to the tmp directory or to the enabled flag apply to the classes generated afterwards.
+	 * @return the cache of the current user, located in the tmp directory of the LogicObjects preferences
+	 */
+	public static synchronized GeneratedClassCache getDefault() {
+		LogicObjectsPreferences preferences = LogicObjects.getDefault().getPreferences();
+		File directory = new File(preferences.getTmpDirectory(), CACHE_SUBDIRECTORY_NAME + KEY_SEPARATOR + System.getProperty("user.name")); //the tmp directory may be shared by several users
+		boolean enabled = preferences.isClassCacheEnabled();
+		if(defaultCache == null || !defaultCache.directory.equals(directory) || defaultCache.enabled != enabled)
+			defaultCache = new GeneratedClassCache(directory, enabled);
+		return defaultCache;
+	}
+
+
+	private final File directory;
+	private final boolean enabled;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicBoolean untrustedDirectoryReported = new AtomicBoolean();
+
+	public GeneratedClassCache(File directory, boolean enabled) {
+		this.directory = directory;
+		this.enabled = enabled;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the number of generated classes found in the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of generated classes not found in the cache (either they were never stored or their entry is outdated)
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * The key of an entry is a hash of several classes, so callers loading and then storing the same entry should compute it only once.
+	 * @param baseClass a logic class
+	 * @param backend the instrumentation backend
+	 * @return the key of the entry of the class generated for the logic class by the backend. Null if the cache is disabled or the key cannot be computed
+	 */
+	public String keyOf(Class baseClass, InstrumentationBackend backend) {
+		if(!enabled)
+			return null;
+		return key(baseClass, backend);
+	}
+
+	/**
+	 *
+	 * @param baseClass a logic class
+	 * @param backend the instrumentation backend that would generate the class
+	 * @return the cached bytecode of the class generated for the logic class by the backend. Null if there is no valid entry in the cache
+	 */
+	public byte[] load(Class baseClass, InstrumentationBackend backend) {
+		return load(baseClass, keyOf(baseClass, backend));
+	}
+
+	/**
+	 *
+	 * @param baseClass a logic class
+	 * @param key the key of the entry (see keyOf(Class, InstrumentationBackend))
+	 * @return the cached bytecode of the class generated for the logic class. Null if there is no valid entry in the cache
+	 */
+	public byte[] load(Class baseClass, String key) {
+		if(!enabled)
+			return null;
+		File classFile = classFile(baseClass, key);
+		if(classFile != null && classFile.isFile() && isTrusted(classFile)) {
+			try {
+				byte[] bytecode = Files.readAllBytes(classFile.toPath());
+				hits.incrementAndGet();
+				logger.debug("Generated class for " + baseClass.getName() + " found in the cache.");
+				return bytecode;
+			} catch (IOException e) {
+				logger.warn("Impossible to read the cached class file " + classFile + ": " + e.getMessage());
+			}
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Stores the bytecode of the class generated for a logic class. Outdated entries for the same logic class are deleted.
+	 * Failures to write the cache are logged and otherwise ignored, since the cache is only an optimization.
+	 * @param baseClass a logic class
+	 * @param backend the instrumentation backend that generated the class
+	 * @param bytecode the bytecode of the generated class
+	 */
+	public void store(Class baseClass, InstrumentationBackend backend, byte[] bytecode) {
+		store(baseClass, keyOf(baseClass, backend), bytecode);
+	}
+
+	/**
+	 * Stores the bytecode of the class generated for a logic class (see store(Class, InstrumentationBackend, byte[]))
+	 * @param baseClass a logic class
+	 * @param key the key of the entry (see keyOf(Class, InstrumentationBackend))
+	 * @param bytecode the bytecode of the generated class
+	 */
+	public void store(Class baseClass, String key, byte[] bytecode) {
+		if(!enabled)
+			return;
+		File classFile = classFile(baseClass, key);
+		if(classFile == null) //the bytecode of the base class is not available
+			return;
+		try {
+			createDirectory();
+			if(!isTrustedDirectory())
+				return;
+			deleteOutdatedEntries(baseClass, classFile);
+			Path tmpFile = Files.createTempFile(directory.toPath(), classFile.getName(), null); //only readable and writable by the owner if the file system supports POSIX permissions
+			Files.write(tmpFile, bytecode);
+			Files.move(tmpFile, classFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE); //other JVMs sharing the directory never read a partially written file
+		} catch (IOException e) {
+			logger.warn("Impossible to store the generated class for " + baseClass.getName() + " in the cache: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Creates the cache directory (if it does not exist), accessible only by its owner if the file system supports POSIX permissions
+	 */
+	private void createDirectory() throws IOException {
+		Path path = directory.toPath();
+		if(Files.exists(path, LinkOption.NOFOLLOW_LINKS))
+			return;
+		if(path.getParent() != null)
+			Files.createDirectories(path.getParent());
+		try {
+			if(supportsPosixPermissions())
+				Files.createDirectory(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY_PERMISSIONS));
+			else
+				Files.createDirectory(path);
+		} catch(FileAlreadyExistsException e) {} //created meanwhile (e.g., by another JVM). It is verified before being used
+	}
+	
+	/**
+	 * @return true if the cache directory is a directory (not a link) owned by the current user, and other users cannot access it (if the file system supports POSIX permissions)
+	 */
+	private boolean isTrustedDirectory() {
+		Path path = directory.toPath();
+		boolean trusted;
+		try {
+			trusted = Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS) && isOwnedByCurrentUser(path) && 
+					(!supportsPosixPermissions() || OWNER_ONLY_DIRECTORY_PERMISSIONS.containsAll(Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS)));
+		} catch(IOException | UnsupportedOperationException e) {
+			trusted = false;
+		}
+		if(!trusted && Files.exists(path, LinkOption.NOFOLLOW_LINKS) && untrustedDirectoryReported.compareAndSet(false, true))
+			logger.warn("The class cache directory " + directory + " is not used since it is not owned by the current user or other users can access it.");
+		return trusted;
+	}
+	
+	/**
+	 * @return true if an entry can be defined in the application: it is a regular file owned by the current user in a trusted cache directory
+	 */
+	private boolean isTrusted(File classFile) {
+		if(!isTrustedDirectory())
+			return false;
+		Path path = classFile.toPath();
+		try {
+			if(Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS) && isOwnedByCurrentUser(path))
+				return true;
+		} catch(IOException | UnsupportedOperationException e) {}
+		logger.warn("The cached class file " + classFile + " is ignored since it is not owned by the current user.");
+		return false;
+	}
+	
+	private static boolean isOwnedByCurrentUser(Path path) throws IOException {
+		UserPrincipal currentUser = path.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+		return currentUser.equals(Files.getOwner(path, LinkOption.NOFOLLOW_LINKS));
+	}
+	
+	private static boolean supportsPosixPermissions() {
+		return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+	}
+
+	private void deleteOutdatedEntries(Class baseClass, File classFile) {
+		String entryPrefix = LogicObjectInstrumentation.instrumentedClassName(baseClass) + KEY_SEPARATOR;
+		File[] entries = directory.listFiles();
+		if(entries != null) {
+			for(File entry : entries) {
+				if(entry.getName().startsWith(entryPrefix) && entry.getName().endsWith(CLASS_FILE_EXTENSION) && !entry.equals(classFile))
+					entry.delete();
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @param baseClass a logic class
+	 * @param key the key of the entry
+	 * @return the file of the cache entry for the logic class. Null if the entry has no key
+	 */
+	private File classFile(Class baseClass, String key) {
+		if(key == null)
+			return null;
+		return new File(directory, LogicObjectInstrumentation.instrumentedClassName(baseClass) + KEY_SEPARATOR + key + CLASS_FILE_EXTENSION);
+	}
+
+	/**
+	 * The key of a logic class is a hash of the bytecode of the class, its ancestors (from which the generated class may inherit logic methods), the classes generating the code (from this library or its dependencies), and the backend.
+	 * @param baseClass a logic class
+	 * @param backend the instrumentation backend
+	 * @return the key of the logic class. Null if the bytecode of any of the hashed classes is not available
+	 */
+	private static String key(Class baseClass, InstrumentationBackend backend) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(backend.name().getBytes("UTF-8"));
+			String libraryVersion = LogicObjectInstrumentation.class.getPackage().getImplementationVersion();
+			if(libraryVersion != null)
+				digest.update(libraryVersion.getBytes("UTF-8"));
+			for(Class generatorClass : GENERATOR_CLASSES) {
+				if(!digestBytecode(generatorClass, digest)) //also changes when the generators are rebuilt without a new version
+					return null;
+			}
+			for(Class ancestor : ancestors(baseClass)) {
+				if(!digestBytecode(ancestor, digest))
+					return null;
+			}
+			return BaseEncoding.base16().lowerCase().encode(digest.digest());
+		} catch (NoSuchAlgorithmException | IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static Set<Class> ancestors(Class clazz) {
+		Set<Class> ancestors = new LinkedHashSet<>();
+		addAncestors(clazz, ancestors);
+		return ancestors;
+	}
+
+	private static void addAncestors(Class clazz, Set<Class> ancestors) {
+		if(clazz == null || clazz.getClassLoader() == null || !ancestors.add(clazz)) //classes loaded by the bootstrap class loader are not hashed
+			return;
+		addAncestors(clazz.getSuperclass(), ancestors);
+		for(Class interfaze : clazz.getInterfaces())
+			addAncestors(interfaze, ancestors);
+	}
+
+	private static boolean digestBytecode(Class clazz, MessageDigest digest) throws IOException {
+		InputStream classStream = clazz.getClassLoader().getResourceAsStream(clazz.getName().replace('.', '/') + CLASS_FILE_EXTENSION);
+		if(classStream == null)
+			return false;
+		try {
+			digest.update(ByteStreams.toByteArray(classStream));
+			return true;
+		} finally {
+			classStream.close();
+		}
+	}
+
+}
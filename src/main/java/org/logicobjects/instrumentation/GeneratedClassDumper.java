@@ -0,0 +1,60 @@
+package org.logicobjects.instrumentation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Diagnostic utility writing the class files of generated classes to a directory (e.g., to inspect them with a decompiler).
+ * Class files are written asynchronously by a background thread, so the instrumentation does not perform any I/O.
+ * This mode is disabled unless a dump directory is configured in the LogicObjects preferences.
+ * @author scastro
+ *
+ */
+public class GeneratedClassDumper {
+
+	private static Logger logger = LoggerFactory.getLogger(GeneratedClassDumper.class);
+	
+	/**
+	 * The writer thread is created only if a class is dumped
+	 */
+	private static class WriterHolder {
+		private static final ExecutorService writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "logicobjects-class-dumper");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	/**
+	 * Schedules the writing of a class file. Failures are logged and otherwise ignored.
+	 * @param directory the dump directory
+	 * @param className the name of the class
+	 * @param bytecode the bytecode of the class
+	 */
+	public static void dump(final String directory, final String className, final byte[] bytecode) {
+		WriterHolder.writer.execute(new Runnable() {
+			@Override
+			public void run() {
+				Path classFile = Paths.get(directory, className.replace('.', '/') + ".class");
+				try {
+					Files.createDirectories(classFile.getParent());
+					Files.write(classFile, bytecode);
+				} catch (IOException e) {
+					logger.warn("Impossible to dump the class " + className + " to " + classFile + ": " + e.getMessage());
+				}
+			}
+		});
+	}
+
+}
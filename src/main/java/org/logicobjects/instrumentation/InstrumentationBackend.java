@@ -0,0 +1,11 @@
+package org.logicobjects.instrumentation;
+
+/**
+ * Determines how the members of generated classes are created
+ * @author scastro
+ *
+ */
+public enum InstrumentationBackend {
+	SOURCE, //members are generated as source code and compiled by the Javassist compiler
+	BYTECODE //members are emitted directly as bytecode (except the methods evaluating Java expressions, which are always compiled from source code)
+}
@@ -0,0 +1,110 @@
+package org.logicobjects.instrumentation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Evaluates the Java expressions of a logic method.
+ * Each expression is evaluated by a helper method generated in the instrumented class (see LogicObjectInstrumentation).
+ * The helper methods are resolved as method handles only once per class receiving the invocation (normally, there is just one such class: the generated class).
+ * Afterwards, evaluating the expressions of an invocation does not require any reflective lookup.
+ * @author scastro
+ *
+ */
+public class JavaExpressionsEvaluator {
+
+	private final List<String> helperMethodNames;
+	private final Class[] parameterTypes;
+	
+	private final ClassValue<MethodHandle[]> helperMethodHandles = new ClassValue<MethodHandle[]>() {
+		@Override
+		protected MethodHandle[] computeValue(Class<?> targetClass) {
+			return resolveHelperMethods(targetClass);
+		}
+	};
+	
+	/**
+	 * 
+	 * @param helperMethodNames the names of the helper methods, in the same order than the expressions. A null or empty name corresponds to an expression that should not be evaluated
+	 * @param parameterTypes the parameter types of the logic method (the helper methods have the same parameters)
+	 */
+	public JavaExpressionsEvaluator(List<String> helperMethodNames, Class[] parameterTypes) {
+		this.helperMethodNames = Collections.unmodifiableList(helperMethodNames);
+		this.parameterTypes = parameterTypes;
+	}
+	
+	public boolean isEmpty() {
+		return helperMethodNames.isEmpty();
+	}
+	
+	/**
+	 * 
+	 * @return the number of expressions
+	 */
+	public int size() {
+		return helperMethodNames.size();
+	}
+	
+	/**
+	 * 
+	 * @param index the position of an expression
+	 * @return true if the expression has a helper method evaluating it
+	 */
+	public boolean isEvaluable(int index) {
+		String helperMethodName = helperMethodNames.get(index);
+		return helperMethodName != null && !helperMethodName.isEmpty();
+	}
+	
+	private MethodHandle[] resolveHelperMethods(Class<?> targetClass) {
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup(); //the helper methods are public methods of a public class
+		MethodType helperMethodType = MethodType.methodType(Object.class, parameterTypes);
+		MethodHandle[] handles = new MethodHandle[helperMethodNames.size()];
+		for(int i = 0; i < handles.length; i++) {
+			if(isEvaluable(i)) {
+				String helperMethodName = helperMethodNames.get(i);
+				try {
+					MethodHandle handle = lookup.findVirtual(targetClass, helperMethodName, helperMethodType);
+					/**
+					 * The adapted handle receives the target object and the array of the method arguments.
+					 * Its type is (Object, Object[])Object, so it can be invoked without knowing the actual types of the logic method.
+					 */
+					handles[i] = handle.asSpreader(Object[].class, parameterTypes.length).asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+				} catch (NoSuchMethodException | IllegalAccessException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		}
+		return handles;
+	}
+	
+	/**
+	 * Evaluates all the expressions of a logic method invocation
+	 * @param targetObject the object receiving the invocation
+	 * @param arguments the arguments of the invocation
+	 * @return the values of the expressions, in the same order than the helper method names given to the constructor. An expression that should not be evaluated has a null value.
+	 */
+	public Object[] evaluate(Object targetObject, List arguments) {
+		Object[] results = new Object[helperMethodNames.size()];
+		if(results.length == 0)
+			return results;
+		MethodHandle[] handles = helperMethodHandles.get(targetObject.getClass());
+		Object[] argumentsArray = arguments.toArray();
+		for(int i = 0; i < handles.length; i++) {
+			MethodHandle handle = handles[i];
+			if(handle != null) {
+				try {
+					results[i] = handle.invokeExact(targetObject, argumentsArray);
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Throwable e) {
+					throw new RuntimeException(e);
+				}
+			}
+		}
+		return results;
+	}
+	
+}
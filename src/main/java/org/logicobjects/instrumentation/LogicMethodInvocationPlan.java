@@ -0,0 +1,97 @@
+package org.logicobjects.instrumentation;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.logicobjects.converter.old.ObjectToTermConverter;
+import org.logicobjects.core.LogicRoutine;
+import org.logicobjects.methodadapter.methodparameters.MethodArgumentsAdapter;
+import org.logicobjects.methodadapter.methodresult.MethodResultAdapter;
+import org.logicobjects.methodadapter.methodresult.MethodResultAdapterFactory;
+
+/**
+ * Describes how a logic method is invoked.
+ * Everything that does not depend on the receiver of the invocation or on its arguments (the logic routine wrapping the method, the parsed logic strings, the argument and result adapters, the flush policy, the result cache)
+ * is computed only once per method and shared by all its invocations.
+ * Instances of this class are immutable, so they can be shared between threads.
+ * @author scastro
+ *
+ */
+public class LogicMethodInvocationPlan {
+
+	private static final ConcurrentMap<Method, LogicMethodInvocationPlan> plans = new ConcurrentHashMap<>();
+
+	/**
+	 *
+	 * @param method a logic method
+	 * @return the (cached) invocation plan of the method
+	 */
+	public static LogicMethodInvocationPlan forMethod(Method method) {
+		LogicMethodInvocationPlan plan = plans.get(method);
+		if(plan == null) {
+			plan = new LogicMethodInvocationPlan(method);
+			LogicMethodInvocationPlan previousPlan = plans.putIfAbsent(method, plan);
+			if(previousPlan != null) //another thread created the plan first
+				plan = previousPlan;
+		}
+		return plan;
+	}
+
+
+	private final LogicRoutine logicRoutine;
+	private final LogicMethodParser parser;
+	private final List<ObjectToTermConverter> methodArgumentAdapters;
+	private final MethodArgumentsAdapter methodArgumentsAdapter;
+	private final MethodResultAdapterFactory resultAdapterFactory;
+	private final FlushPolicy flushPolicy;
+	private final LogicResultCache resultCache;
+
+	private LogicMethodInvocationPlan(Method method) {
+		logicRoutine = LogicRoutine.create(method);
+		parser = LogicMethodParser.create(logicRoutine).parse();
+		methodArgumentAdapters = Collections.unmodifiableList(logicRoutine.getEachMethodArgumentAdapters());
+		methodArgumentsAdapter = logicRoutine.getMethodArgumentsArrayAdapter();
+		resultAdapterFactory = new MethodResultAdapterFactory(logicRoutine);
+		flushPolicy = FlushPolicy.forMethod(method);
+		resultCache = LogicResultCache.forRoutine(logicRoutine);
+	}
+
+	public LogicRoutine getLogicRoutine() {
+		return logicRoutine;
+	}
+
+	public FlushPolicy getFlushPolicy() {
+		return flushPolicy;
+	}
+
+	/**
+	 * 
+	 * @return the result cache of the method. Null if the method is not annotated with LCached
+	 */
+	public LogicResultCache getResultCache() {
+		return resultCache;
+	}
+
+	public Method getMethod() {
+		return logicRoutine.getWrappedMethod();
+	}
+
+	/**
+	 * Binds the plan to an invocation context
+	 * @param targetObject the object receiving the logic method invocation
+	 * @param originalMethodArguments the arguments of the Java method
+	 * @return the parsed logic method
+	 */
+	public ParsedLogicMethod parse(Object targetObject, List originalMethodArguments) {
+		List adaptedMethodArguments = logicRoutine.adaptOriginalMethodArguments(originalMethodArguments, methodArgumentAdapters, methodArgumentsAdapter);
+		return parser.parsedLogicMethod(targetObject, adaptedMethodArguments);
+	}
+
+	public MethodResultAdapter getMethodAdapter(ParsedLogicMethod parsedLogicMethod) {
+		return resultAdapterFactory.create(parsedLogicMethod);
+	}
+
+}
@@ -1,39 +1,386 @@
 package org.logicobjects.instrumentation;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
 import org.jpc.query.Query;
-import org.jpc.util.PrologUtil;
-import org.logicobjects.converter.methodresult.MethodResultAdapter;
-import org.logicobjects.core.LogicRoutine;
+import org.jpc.term.Atom;
+import org.jpc.term.Compound;
+import org.jpc.term.Term;
+import org.jpc.term.Var;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.core.PrologEnginePool;
+import org.logicobjects.methodadapter.methodresult.MethodResultAdapter;
+import org.logicobjects.methodadapter.methodresult.solutioncomposition.SolutionEnumeration;
+import org.logicobjects.methodadapter.methodresult.solutioncomposition.SolutionPublisher;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 
 public class LogicMethodInvoker {
 
+	public static final String BATCH_VARIABLE_PREFIX = "LOGICOBJECTS_BATCH_";
+	public static final String BATCH_RESULT_VARIABLE_PREFIX = "LOGICOBJECTS_BATCH_RESULT_";
+	public static final String BATCH_SOLUTION_FUNCTOR = "solution";
+	
+
+	/**
+	 * Invokers are stateless beyond their engine configuration, so one invoker is shared by all the logic objects using the same configuration.
+	 * Configurations are compared by identity. An invoker references its configuration, so invokers (and their configurations) live as long as the application.
+	 */
+	private static final LoadingCache<AbstractPrologEngineDriver, LogicMethodInvoker> invokers = CacheBuilder.newBuilder().weakKeys().build(
+			new CacheLoader<AbstractPrologEngineDriver, LogicMethodInvoker>() {
+				@Override
+				public LogicMethodInvoker load(AbstractPrologEngineDriver logicEngineConfig) {
+					return new LogicMethodInvoker(logicEngineConfig);
+				}
+			});
+	
+	/**
+	 * 
+	 * @param logicEngineConfig a logic engine configuration
+	 * @return the (shared) invoker of logic methods for the given configuration
+	 */
+	public static LogicMethodInvoker forEngine(AbstractPrologEngineDriver logicEngineConfig) {
+		return invokers.getUnchecked(logicEngineConfig);
+	}
+	
+	/**
+	 * Resolves a logic method. Generated classes call this method only once per logic method (when the class is initialized).
+	 * @param clazz the class declaring or inheriting the method
+	 * @param methodName the name of the method
+	 * @param parameterTypes the parameter types of the method
+	 * @return the resolved method
+	 */
+	public static Method resolveMethod(Class clazz, String methodName, Class[] parameterTypes) {
+		try {
+			return clazz.getMethod(methodName, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	
 	private AbstractPrologEngineDriver logicEngineConfig;
-	private PrologUtil logicUtil;
+	private PrologEnginePool enginePool;
 	
 	public LogicMethodInvoker(AbstractPrologEngineDriver logicEngineConfig) {
 		this.logicEngineConfig = logicEngineConfig;
-		this.logicUtil = new PrologUtil(logicEngineConfig.getEngine());
+		this.enginePool = PrologEnginePool.forEngine(logicEngineConfig);
 	}
 	
-	public Object invoke(Object targetObject, Method method, Object[] argumentsArray) {
+	/**
+	 * Invokes a logic method.
+	 * If the method answers a CompletableFuture, the invocation is submitted to the engine pool without blocking the calling thread, and the answered future is completed with the adapted result.
+	 * If the method answers a Publisher, the invocation is deferred until a subscriber subscribes (see {@link InvocationPublisher}).
+	 * Otherwise the calling thread waits for the result.
+	 * Asynchronous invocations and publishers are executed in the thread of the engine checked out for them. 
+	 * Other invocations are executed in the calling thread, unless the engine pool is confined (see PrologEnginePool): then the invocation (parsing the method, querying and adapting the result) is handed to the thread of the engine.
+	 */
+	public Object invoke(final Object targetObject, final Method method, final Object[] argumentsArray) {
+		final LogicMethodInvocationPlan invocationPlan = LogicMethodInvocationPlan.forMethod(method);
+		if(invocationPlan.getLogicRoutine().isAsynchronous()) {
+			return enginePool.submit(new Callable<Object>() {
+				@Override
+				public Object call() {
+					Object result = invoke(invocationPlan, targetObject, argumentsArray);
+					return Void.class.equals(invocationPlan.getLogicRoutine().getResultClass()) ? null : result;
+				}
+			});
+		}
+		if(Publisher.class.isAssignableFrom(invocationPlan.getLogicRoutine().getResultClass()))
+			return new InvocationPublisher(invocationPlan, targetObject, argumentsArray);
+		final PrologEnginePool.Lease lease = enginePool.checkout();
 		try {
-			LogicRoutine logicMethod = LogicRoutine.create((method));
-			List arguments = Arrays.asList(argumentsArray);
-			ParsedLogicMethod parsedLogicMethod = logicMethod.parse(
-					targetObject, arguments);
-			Query query = logicUtil.query(parsedLogicMethod.asGoal());
-			MethodResultAdapter resultAdapter = logicMethod
-					.getMethodAdapter(parsedLogicMethod);
+			return lease.call(new Callable<Object>() {
+				@Override
+				public Object call() {
+					return invoke(invocationPlan, targetObject, argumentsArray);
+				}
+			});
+		} finally {
+			lease.release(); //lazy results keep their own lease of the engine
+		}
+	}
+	
+	/**
+	 * Invokes a logic method, unless its result is cached. It is called while holding an engine of the pool (in the thread of the engine if the pool is confined)
+	 */
+	private Object invoke(final LogicMethodInvocationPlan invocationPlan, Object targetObject, Object[] argumentsArray) {
+		final ParsedLogicMethod parsedLogicMethod;
+		try {
+			parsedLogicMethod = invocationPlan.parse(targetObject, Arrays.asList(argumentsArray));
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		LogicResultCache resultCache = invocationPlan.getResultCache();
+		if(resultCache == null)
+			return query(invocationPlan, parsedLogicMethod);
+		long generation = resultCache.getGeneration(LogicObjects.getDefault().getLogicObjectFactory().getLogicDependenciesLoader());
+		return resultCache.get(logicEngineConfig, generation, parsedLogicMethod.asGoal(), new Callable<Object>() {
+			@Override
+			public Object call() {
+				return query(invocationPlan, parsedLogicMethod);
+			}
+		});
+	}
+	
+	/**
+	 * Queries the goal of a logic method in an engine checked out from the engine pool of the configuration. It is called in the thread of that engine if the pool is confined.
+	 * The engine is released when the invocation returns, unless the result is a lazy view over the query (a solution enumeration, a stream or a publisher).
+	 * In that case the engine is released when the view is exhausted or closed (for publishers, when the subscription is completed or cancelled).
+	 * Views that are not exhausted (e.g., streams consumed by short-circuiting operations such as findFirst) must be closed, otherwise the engine is never returned to the pool (unless the engine is shared, see PrologEnginePool).
+	 * Raw queries answered by logic methods are not tracked, so they should not be used after invoking other logic methods from other threads if the pool has more than one engine.
+	 * They are not confined to the thread of their engine either.
+	 */
+	private Object query(LogicMethodInvocationPlan invocationPlan, ParsedLogicMethod parsedLogicMethod) {
+		PrologEnginePool.Lease lease = enginePool.checkout(); //re-enters the engine of the current thread
+		try {
+			Query query = lease.getLogicUtil().query(parsedLogicMethod.asGoal());
+			MethodResultAdapter resultAdapter = invocationPlan.getMethodAdapter(parsedLogicMethod);
 			Object result = resultAdapter.adapt(query);
-			logicUtil.flushOutput(); //TODO maybe this should be customizable per method ?
-			return result;
+			lease.getOutputFlusher().afterInvocation(invocationPlan.getFlushPolicy());
+			return releaseWhenDone(result, lease);
 		} catch (Exception e) {
+			lease.release();
 			throw new RuntimeException(e);
 		}	
 	}
+	
+	/**
+	 * @param result the result of a logic method
+	 * @param lease the lease of the engine where the logic method was invoked
+	 * @return the result, possibly wrapped so the engine is released when the result is exhausted or closed
+	 */
+	private Object releaseWhenDone(Object result, final PrologEnginePool.Lease lease) {
+		final Runnable releaseAction = new Runnable() {
+			@Override
+			public void run() {
+				lease.release();
+			}
+		};
+		if(result instanceof SolutionEnumeration) {
+			((SolutionEnumeration) result).onClose(releaseAction);
+			return result;
+		} else if(result instanceof SolutionPublisher) {
+			SolutionPublisher publisher = (SolutionPublisher) result;
+			publisher.setExecutor(lease.getEngine()); //solutions are fetched in the engine thread instead of the threads of the subscribers
+			publisher.onClose(releaseAction);
+			return result;
+		} else if(result instanceof Stream) {
+			final Stream stream = (Stream) result;
+			//streams are not closed when a terminal operation consumes them, so the engine is also released when the stream is exhausted
+			return StreamSupport.stream(new ReleasingSpliterator(stream.spliterator(), releaseAction), stream.isParallel()).onClose(new Runnable() {
+				@Override
+				public void run() {
+					stream.close();
+				}
+			}).onClose(releaseAction);
+		} else {
+			lease.release();
+			return result;
+		}
+	}
+	
+	/**
+	 * The result of a logic method answering a publisher. The method is invoked when a subscriber subscribes (each subscriber receives the solutions of its own query).
+	 * The invocation is submitted to the engine pool, so the query is opened and its solutions are fetched in the thread of the same engine.
+	 * That engine is held by the subscription (not by the thread that invoked the method) until the subscription is completed or cancelled.
+	 * Therefore a publisher without subscribers does not hold any engine, and the invoking thread does not re-enter the engine of a subscription.
+	 */
+	private class InvocationPublisher implements Publisher<Object> {
+		private final LogicMethodInvocationPlan invocationPlan;
+		private final Object targetObject;
+		private final Object[] argumentsArray;
+		
+		public InvocationPublisher(LogicMethodInvocationPlan invocationPlan, Object targetObject, Object[] argumentsArray) {
+			this.invocationPlan = invocationPlan;
+			this.targetObject = targetObject;
+			this.argumentsArray = argumentsArray;
+		}
+
+		@Override
+		public void subscribe(final Subscriber<? super Object> subscriber) {
+			if(subscriber == null)
+				throw new NullPointerException();
+			final AtomicBoolean subscribed = new AtomicBoolean();
+			enginePool.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					Publisher<Object> publisher = (Publisher<Object>) invoke(invocationPlan, targetObject, argumentsArray);
+					subscribed.set(true);
+					publisher.subscribe(subscriber);
+					return null;
+				}
+			}).whenComplete(new BiConsumer<Void, Throwable>() {
+				@Override
+				public void accept(Void result, Throwable e) {
+					if(e != null && !subscribed.get()) { //the invocation failed
+						subscriber.onSubscribe(new Subscription() {
+							@Override
+							public void request(long n) {}
+							@Override
+							public void cancel() {}
+						});
+						subscriber.onError(e);
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * A spliterator executing an action when the wrapped spliterator has no more elements.
+	 */
+	private static class ReleasingSpliterator<T> implements Spliterator<T> {
+		private final Spliterator<T> spliterator;
+		private final Runnable exhaustedAction;
+		
+		public ReleasingSpliterator(Spliterator<T> spliterator, Runnable exhaustedAction) {
+			this.spliterator = spliterator;
+			this.exhaustedAction = exhaustedAction;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			boolean advanced = spliterator.tryAdvance(action);
+			if(!advanced)
+				exhaustedAction.run();
+			return advanced;
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return spliterator.estimateSize();
+		}
+
+		@Override
+		public int characteristics() {
+			return spliterator.characteristics() & ~(SUBSIZED | CONCURRENT);
+		}
+	}
+	
+	/**
+	 * Invokes a logic method once per argument tuple in a single query.
+	 * The goal of each invocation is wrapped in a findall/3 collecting the bindings of its variables, and all the findall/3 goals are executed as one conjunction.
+	 * The collected bindings are then adapted to the return type of the method exactly as in a single invocation.
+	 * Since all the invocations share one query, methods whose result adapter answers a lazy view over the query (e.g., iterators, publishers or the query itself) cannot be invoked in this way.
+	 * Batch invocations do not use the result cache of the method (if any).
+	 * @param targetObject the object receiving the logic method invocations
+	 * @param method the logic method
+	 * @param argumentsList the arguments of each invocation
+	 * @return the result of each invocation, in the same order as the arguments
+	 * @throws IllegalArgumentException if the result adapter of the method cannot adapt collected solutions. Nothing is queried in that case
+	 */
+	public List<Object> invokeAll(final Object targetObject, final Method method, final List<Object[]> argumentsList) {
+		final LogicMethodInvocationPlan invocationPlan = LogicMethodInvocationPlan.forMethod(method);
+		PrologEnginePool.Lease lease = enginePool.checkout();
+		try {
+			return lease.call(new Callable<List<Object>>() {
+				@Override
+				public List<Object> call() {
+					return invokeAllWithEngine(invocationPlan, targetObject, method, argumentsList);
+				}
+			});
+		} finally {
+			lease.release();
+		}
+	}
+	
+	private List<Object> invokeAllWithEngine(LogicMethodInvocationPlan invocationPlan, Object targetObject, Method method, List<Object[]> argumentsList) {
+		List<MethodResultAdapter> resultAdapters = new ArrayList<>();
+		List<List<String>> variableNamesList = new ArrayList<>();
+		List<Term> findAllGoals = new ArrayList<>();
+		for(int i = 0; i < argumentsList.size(); i++) {
+			ParsedLogicMethod parsedLogicMethod = invocationPlan.parse(targetObject, Arrays.asList(argumentsList.get(i)));
+			MethodResultAdapter resultAdapter = invocationPlan.getMethodAdapter(parsedLogicMethod);
+			if(!resultAdapter.canAdaptSolutions())
+				throw new IllegalArgumentException("The logic method " + method + " cannot be invoked in a batch, since its result adapter (" + resultAdapter.getClass().getName() + ") answers a lazy view over its query");
+			Term goal = parsedLogicMethod.asGoal();
+			List<String> variableNames = new ArrayList<>(goal.getNamedVariablesNames());
+			Map<String, Term> renamedVariables = new HashMap<>();
+			List<Term> solutionArgs = new ArrayList<>();
+			for(String variableName : variableNames) { //the goals of different invocations must not share variables
+				Var renamedVariable = new Var(BATCH_VARIABLE_PREFIX + i + "_" + variableName);
+				renamedVariables.put(variableName, renamedVariable);
+				solutionArgs.add(renamedVariable);
+			}
+			goal = goal.replaceVariables(renamedVariables);
+			if(!resultAdapter.requiresAllSolutions())
+				goal = new Compound("once", Arrays.<Term>asList(goal));
+			Term solutionTemplate = solutionArgs.isEmpty() ? new Atom(BATCH_SOLUTION_FUNCTOR) : new Compound(BATCH_SOLUTION_FUNCTOR, solutionArgs);
+			findAllGoals.add(new Compound("findall", Arrays.<Term>asList(solutionTemplate, goal, new Var(BATCH_RESULT_VARIABLE_PREFIX + i))));
+			resultAdapters.add(resultAdapter);
+			variableNamesList.add(variableNames);
+		}
+		List<Object> results = new ArrayList<>();
+		if(findAllGoals.isEmpty())
+			return results;
+		Term batchGoal = findAllGoals.get(findAllGoals.size() - 1);
+		for(int i = findAllGoals.size() - 2; i >= 0; i--) {
+			batchGoal = new Compound(",", Arrays.<Term>asList(findAllGoals.get(i), batchGoal));
+		}
+		Map<String, Term> batchSolution;
+		PrologEnginePool.Lease lease = enginePool.checkout(); //re-enters the engine of the current thread
+		try {
+			Query query = lease.getLogicUtil().query(batchGoal);
+			try {
+				if(!query.hasNext())
+					throw new RuntimeException("The batch invocation of the logic method " + method + " failed");
+				batchSolution = query.next();
+			} finally {
+				query.close();
+			}
+			lease.getOutputFlusher().afterInvocation(invocationPlan.getFlushPolicy()); //the batch counts as one invocation
+		} finally {
+			lease.release();
+		}
+		for(int i = 0; i < resultAdapters.size(); i++) {
+			List<String> variableNames = variableNamesList.get(i);
+			List<Map> solutions = new ArrayList<>();
+			for(Term solutionTerm : listElements(batchSolution.get(BATCH_RESULT_VARIABLE_PREFIX + i))) {
+				Map<String, Term> solution = new HashMap<>();
+				for(int j = 0; j < variableNames.size(); j++) {
+					solution.put(variableNames.get(j), solutionTerm.getArgs().get(j));
+				}
+				solutions.add(solution);
+			}
+			Object result = resultAdapters.get(i).adaptSolutions(solutions);
+			if(invocationPlan.getLogicRoutine().isAsynchronous()) //the batch itself is synchronous, but the results keep the declared type
+				result = CompletableFuture.completedFuture(Void.class.equals(invocationPlan.getLogicRoutine().getResultClass()) ? null : result);
+			results.add(result);
+		}
+		return results;
+	}
+	
+	private static List<Term> listElements(Term listTerm) {
+		List<Term> elements = new ArrayList<>();
+		while(listTerm instanceof Compound && ((Compound)listTerm).isList() && listTerm.getArgs().size() == 2) {
+			elements.add(listTerm.getArgs().get(0));
+			listTerm = listTerm.getArgs().get(1);
+		}
+		return elements;
+	}
 }
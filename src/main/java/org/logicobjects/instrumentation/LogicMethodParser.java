@@ -29,10 +29,9 @@ import java.util.regex.Pattern;
 
 import org.jpc.engine.prolog.AbstractPrologEngine;
 import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
-import org.jpc.term.AbstractTerm;
+import org.jpc.term.Term;
 import org.jpc.util.PrologUtil;
 import org.logicobjects.LogicObjects;
-import org.logicobjects.converter.old.ObjectToTermConverter;
 import org.logicobjects.core.LogicRoutine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,17 +68,13 @@ public abstract class LogicMethodParser<LM extends LogicRoutine> extends Abstrac
 	public static final String ALL_ARGUMENTS_SYMBOL = ARGUMENT_PREFIX + ALL_ARGUMENTS_SUFFIX;
 	
 	
-	/**
-	 * substitution markers for expressions.
-	 * The idea is that java expressions could be temporarily removed while replacing term symbols, and after the replacement they have to be added again
-	 */
-	public static final String HIDDEN_EXPRESSION_PREFIX = "~HIDDEN_EXPRESSION~_";
-	
 	public static final String QUERY_TAG = "~QUERY~";
 	
 	public static final String METHOD_ARGUMENTS_TAG = "~METHOD_ARGUMENTS~";
 	
 	public static final String RETURN_TAG = "~RET~";
+	
+	private static final Pattern LOGIC_STRING_SECTIONS_PATTERN = Pattern.compile(Pattern.quote(QUERY_TAG)+"(.*)"+Pattern.quote(METHOD_ARGUMENTS_TAG)+"(.*)"+Pattern.quote(RETURN_TAG)+"(.*)");
 
 	
 	//private Method method;  
@@ -88,11 +83,19 @@ public abstract class LogicMethodParser<LM extends LogicRoutine> extends Abstrac
 	//THE FOLLOWING VALUES ARE CALCULATED WHEN PARSING
 	private List<String> expressions;
 	private Map<String, String> expressionsReplacementMap;
+	private JavaExpressionsEvaluator expressionsEvaluator;
+	private LogicTemplate queryTemplate;
+	private List<LogicTemplate> methodArgumentTemplates;
+	private LogicTemplate solutionTemplate;
+	//term templates of the previous templates. Null if a template cannot be expressed as a term
+	private LogicTermTemplate queryTermTemplate;
+	private List<LogicTermTemplate> methodArgumentTermTemplates;
+	private LogicTermTemplate solutionTermTemplate;
 
 	//protected LogicEngineConfiguration logicEngineConfig;
 	protected PrologUtil logicUtil;
 	
-	//TODO the idea of the factory is to be able to look in a cache if a method has already been parsed, to do some day when having time ...
+	//parsers are not cached here. Cached instances are available in the invocation plan of the method (LogicMethodInvocationPlan)
 	public static LogicMethodParser create(Method method) {
 		return new LogicMethodParser(method) {};
 	}
@@ -114,12 +117,21 @@ public abstract class LogicMethodParser<LM extends LogicRoutine> extends Abstrac
 	public LogicMethodParser parse() {
 		LogicMethodParsingData unparsedData = logicMethod.getDataToParse(); //the data to parse depends on the kind of logic method that was instantiated in a previous step
 		String unparsedQuery = asNotNullString(unparsedData.getQueryString());
-		String unparsedLogicArgumentsString = concatenateTokens(asNotNullStringList(unparsedData.getMethodArguments()));
+		List<String> unparsedLogicArguments = asNotNullStringList(unparsedData.getMethodArguments());
+		String unparsedLogicArgumentsString = concatenateTokens(unparsedLogicArguments);
 		String unparsedSolution = asNotNullString(unparsedData.getSolutionString());
-		allLogicStrings = QUERY_TAG + unparsedQuery + METHOD_ARGUMENTS_TAG + unparsedLogicArgumentsString + RETURN_TAG + unparsedSolution;
+		String allLogicStrings = QUERY_TAG + unparsedQuery + METHOD_ARGUMENTS_TAG + unparsedLogicArgumentsString + RETURN_TAG + unparsedSolution;
 		expressions = getJavaExpressions(allLogicStrings); //gather all java expressions
 		expressionsReplacementMap = expressionsReplacementMap(expressions);
-		foundSymbols = getAllMethodSymbols(allLogicStrings);
+		expressionsEvaluator = expressionsEvaluator(expressions, expressionsReplacementMap);
+		//the logic strings are compiled only once. Each invocation just renders the compiled templates
+		queryTemplate = LogicTemplate.compile(unparsedQuery, expressions);
+		methodArgumentTemplates = new ArrayList<>();
+		for(String unparsedLogicArgument : unparsedLogicArguments) {
+			methodArgumentTemplates.add(LogicTemplate.compile(unparsedLogicArgument, expressions));
+		}
+		solutionTemplate = LogicTemplate.compile(unparsedSolution, expressions);
+		compileTermTemplates();
 		return this;
 	}
 
@@ -163,10 +175,84 @@ public abstract class LogicMethodParser<LM extends LogicRoutine> extends Abstrac
 	 * @return
 	 */
 	private LogicMethodParsingData parsedData(Object targetObject, List oldArguments) {
-		String allLogicStringsProcessed = replaceSymbolsAndExpressions(allLogicStrings, foundSymbols, expressionsReplacementMap, targetObject, oldArguments);
-		LogicMethodParsingData parsedData = decomposeLogicString(allLogicStringsProcessed);
+		LogicMethodParsingData parsedData = new LogicMethodParsingData();
+		TemplateBindings bindings = new TemplateBindings(targetObject, oldArguments, logicUtil, expressionsEvaluator);
+		StringBuilder sb = new StringBuilder(); //reused for rendering all the templates
+		
+		Term queryTerm = instantiate(queryTermTemplate, bindings);
+		if(queryTerm != null)
+			parsedData.setQueryTerm(queryTerm);
+		else {
+			String queryString = render(queryTemplate, bindings, sb);
+			if(!queryString.isEmpty())
+				parsedData.setQueryString(queryString);
+		}
+		
+		List<Term> argumentTerms = instantiate(methodArgumentTermTemplates, bindings);
+		if(argumentTerms != null)
+			parsedData.setMethodArgumentTerms(argumentTerms);
+		else {
+			List<String> arguments = new ArrayList<>();
+			for(LogicTemplate methodArgumentTemplate : methodArgumentTemplates) {
+				arguments.add(render(methodArgumentTemplate, bindings, sb));
+			}
+			if(!(arguments.isEmpty() || (arguments.size() == 1 && arguments.get(0).isEmpty()))) //same criteria as decomposeLogicString(String)
+				parsedData.setMethodArguments(arguments);
+		}
+		
+		Term solutionTerm = instantiate(solutionTermTemplate, bindings);
+		if(solutionTerm != null)
+			parsedData.setSolutionTerm(solutionTerm);
+		else {
+			String solutionString = render(solutionTemplate, bindings, sb);
+			if(!solutionString.isEmpty())
+				parsedData.setSolutionString(solutionString);
+		}
 		return parsedData;
 	}
+	
+	/**
+	 * Term templates allow to build the terms of an invocation without printing its arguments as text and parsing them back.
+	 */
+	private void compileTermTemplates() {
+		if(logicMethod.hasGoalQueryString()) //otherwise the query string is not a term (e.g., it is the name of a predicate)
+			queryTermTemplate = LogicTermTemplate.compile(queryTemplate, expressionsEvaluator, logicUtil);
+		methodArgumentTermTemplates = new ArrayList<>();
+		for(LogicTemplate methodArgumentTemplate : methodArgumentTemplates) {
+			LogicTermTemplate methodArgumentTermTemplate = LogicTermTemplate.compile(methodArgumentTemplate, expressionsEvaluator, logicUtil);
+			if(methodArgumentTermTemplate == null) { //the method arguments will be rendered as text
+				methodArgumentTermTemplates = null;
+				break;
+			}
+			methodArgumentTermTemplates.add(methodArgumentTermTemplate);
+		}
+		solutionTermTemplate = LogicTermTemplate.compile(solutionTemplate, expressionsEvaluator, logicUtil);
+	}
+	
+	private static String render(LogicTemplate template, TemplateBindings bindings, StringBuilder sb) {
+		sb.setLength(0);
+		template.render(bindings, sb);
+		return sb.toString();
+	}
+	
+	private static Term instantiate(LogicTermTemplate termTemplate, TemplateBindings bindings) {
+		if(termTemplate == null)
+			return null;
+		return termTemplate.instantiate(bindings);
+	}
+	
+	private static List<Term> instantiate(List<LogicTermTemplate> termTemplates, TemplateBindings bindings) {
+		if(termTemplates == null || termTemplates.isEmpty())
+			return null;
+		List<Term> terms = new ArrayList<>();
+		for(LogicTermTemplate termTemplate : termTemplates) {
+			Term term = termTemplate.instantiate(bindings);
+			if(term == null)
+				return null;
+			terms.add(term);
+		}
+		return terms;
+	}
 
 	/**
 	 * This method is public for testing purposes
@@ -175,8 +261,7 @@ public abstract class LogicMethodParser<LM extends LogicRoutine> extends Abstrac
 	 */
 	public static LogicMethodParsingData decomposeLogicString(String allLogicStringsProcessed) {
 		LogicMethodParsingData parsedData = new LogicMethodParsingData();
-		Pattern pattern = Pattern.compile(Pattern.quote(QUERY_TAG)+"(.*)"+Pattern.quote(METHOD_ARGUMENTS_TAG)+"(.*)"+Pattern.quote(RETURN_TAG)+"(.*)");
-		Matcher matcher = pattern.matcher(allLogicStringsProcessed);
+		Matcher matcher = LOGIC_STRING_SECTIONS_PATTERN.matcher(allLogicStringsProcessed);
 		matcher.find();
 		String queryString = matcher.group(1);
 		if(!queryString.isEmpty())
@@ -190,21 +275,6 @@ public abstract class LogicMethodParser<LM extends LogicRoutine> extends Abstrac
 		return parsedData;
 	}
 	
-	/*
-	public String[] resolveInputTokens(Object targetObject, Object[] oldParams) {
-		String inputString = allLogicStrings.split(RETURN_SEPARATOR)[0];
-		inputString = replaceSymbolsAndExpressions(inputString, foundSymbols, expressionsReplacementMap, targetObject, oldParams);
-		return splitConcatenatedTokens(inputString);
-	}
-	
-	public String resolveEachSolutionValue(Object targetObject, Object[] oldParams) {
-		if(eachSolutionValue == null)
-			return null;
-		String solvedEachSolutionValue = replaceSymbolsAndExpressions(eachSolutionValue, foundSymbols, expressionsReplacementMap, targetObject, oldParams);
-		return solvedEachSolutionValue;
-	}
-*/
-
 	
 	
 	
@@ -217,31 +287,6 @@ public abstract class LogicMethodParser<LM extends LogicRoutine> extends Abstrac
 		return ARGUMENT_PREFIX+pos;
 	}
 	
-
-	
-	
-	public String suppressJavaExpressions(String s) {
-		/**
-		 * A Set is used to avoid duplicates
-		 * LinkedHashSet preserves the insertion order
-		 */
-		for(String expression : expressions) {
-			s.replaceAll(Pattern.quote(expression), ""); //ignore symbols in java Expressions
-		}
-		//s = concatenatedParams.replaceAll(DELIMITED_JAVA_REX, ""); //ignore symbols in java Expressions
-		return s;
-	}
-	
-	/**
-	 * 
-	 * @param concatenatedArguments
-	 * @return A list of symbol params referenced in the string sent as a parameter
-	 */
-	public List<String> getAllMethodSymbols(String concatenatedArguments) {
-		concatenatedArguments = suppressJavaExpressions(concatenatedArguments);
-		return scanMethodSymbols(concatenatedArguments);
-	}
-
 	public static List<String> scanMethodSymbols(String s) {
 		return scanSymbols(s, "("+Pattern.quote(ARGUMENT_PREFIX)+"(\\d+|"+Pattern.quote(ALL_ARGUMENTS_SUFFIX)+"))|"+Pattern.quote(INSTANCE_PROPERTY_PREFIX)+JAVA_NAME_REX);
 	}
@@ -402,98 +447,6 @@ public abstract class LogicMethodParser<LM extends LogicRoutine> extends Abstrac
 	}
 
 
-	public static String getHiddenExpressionName(int index) {
-		return HIDDEN_EXPRESSION_PREFIX + (index + 1);
-	}
-
-	private String hideExpressions(String logicString, List<String> expressions) {
-		for(int i=0; i<expressions.size(); i++) {
-			logicString = logicString.replaceAll(Pattern.quote(expressions.get(i)), Matcher.quoteReplacement(getHiddenExpressionName(i)));
-		}
-		return logicString;
-	}
-	
-	private String restoreExpressions(String logicString, List<String> expressions) {
-		for(int i=0; i<expressions.size(); i++) {
-			logicString = logicString.replaceAll(Pattern.quote(getHiddenExpressionName(i)) , Matcher.quoteReplacement(expressions.get(i)));
-		}
-		return logicString;
-	}
-	
-	
-
-	
-	/**
-	 * 
-	 * @param logicString a string with all the new params concatenated
-	 * @param oldArguments the java method params
-	 * @return
-	 */
-	private String replaceSymbolsAndExpressions(String logicString, List<String> setSymbols, Map<String, String> expressionsMap, Object targetObject, List oldArguments) {
-		List<String> expressions = new ArrayList<String>(expressionsMap.keySet());
-		logicString = hideExpressions(logicString, expressions);
-		
-		Map<String, String> symbolsMap = symbolsReplacementMap(targetObject, oldArguments, setSymbols); //obtaining a map with the symbols to replace
-		logicString = replaceSymbols(logicString, symbolsMap); //replacing symbols
-		
-		logicString = restoreExpressions(logicString, expressions);
-		
-		//replacing java expressions for the result of a method invocation
-		for(Entry<String, String> entry : expressionsMap.entrySet()) {
-			try {
-				String replacementValue;
-				String methodName = entry.getValue();
-				if(methodName == null || methodName.isEmpty())
-					replacementValue = "";
-				else {
-					Method helperMethod = targetObject.getClass().getMethod(methodName,logicMethod.getWrappedMethod().getParameterTypes());
-					Object expressionResult = helperMethod.invoke(targetObject, (Object[])oldArguments.toArray()); //result contains the value of the java expression
-					AbstractTerm expressionAsTerm = ObjectToTermConverter.asTerm(expressionResult);
-					replacementValue = expressionAsTerm.toString();
-				}
-				String delimitedJavaExpression = Pattern.quote(entry.getKey());
-				replacementValue = Matcher.quoteReplacement(replacementValue); //this is necessary if the String contains the symbol "$". Otherwise it will be interpreted as a group in the regular expression
-				logicString=logicString.replaceAll(delimitedJavaExpression, replacementValue);
-			} catch (Exception e) {
-				throw new RuntimeException(e);
-			}
-		}
-		return logicString;
-	}
-
-	
-	/**
-	 * Builds a dictionary of symbol params to values
-	 * @param args the java method parameters
-	 * @return
-	 */
-	private Map<String, String> symbolsReplacementMap(Object targetObject, List args, List<String> symbols) {
-		Map<String, String> dictionary = propertiesSymbolsReplacementMap(targetObject, symbols);
-		if(!args.isEmpty()) {
-			List<AbstractTerm> listTerms = new ArrayList<AbstractTerm>();
-			boolean allArgumentsRequired = symbols.contains(LogicMethodParser.ALL_ARGUMENTS_SYMBOL);
-			for(int i = 0; i<args.size(); i++) {
-				String paramName = LogicMethodParser.methodArgumentSymbol(i+1);
-				if(allArgumentsRequired || symbols.contains(paramName)) {
-					AbstractTerm termArgument = ObjectToTermConverter.asTerm(args.get(i));
-					if(!termArgument.getNamedVariablesNames().isEmpty())
-						throw new RuntimeException("Argument objects cannot contain free non-anonymous variables: "+termArgument);//in order to avoid id collisions
-					dictionary.put(paramName, termArgument.toString());
-					listTerms.add(termArgument);
-				}
-			}
-			if(allArgumentsRequired)
-				dictionary.put(LogicMethodParser.ALL_ARGUMENTS_SYMBOL, logicUtil.termSequenceToString(listTerms));
-		}
-		if(symbols.contains(LogicMethodParser.THIS_METHOD_ARGUMENT_SYMBOL)) { //the symbol $0 was found
-			String thisAsTermString = dictionary.get(THIS_INSTANCE_PROPERTY_SYMBOL); //find if the synonym @this has already been translated
-			if(thisAsTermString == null) //if the synonym does not exist, calculate the translation as term of this, otherwise reuse the existing translation
-				thisAsTermString = new ObjectToTermConverter().adapt(targetObject).toString();
-			dictionary.put(LogicMethodParser.THIS_METHOD_ARGUMENT_SYMBOL, thisAsTermString);
-		}
-		return dictionary;
-	}
-	
 	/**
 	 * 
 	 * @param delimitedExpressions all the expressions found. These expressions include delimiter characters
@@ -516,6 +469,19 @@ public abstract class LogicMethodParser<LM extends LogicRoutine> extends Abstrac
 		return expressionsReplacementMap;
 	}
 
+	/**
+	 * 
+	 * @param delimitedExpressions all the expressions found
+	 * @param expressionsReplacementMap a map mapping the expressions to the names of the methods evaluating them
+	 * @return an evaluator of the expressions. The evaluation results have the same order than the expressions
+	 */
+	private JavaExpressionsEvaluator expressionsEvaluator(List<String> delimitedExpressions, Map<String, String> expressionsReplacementMap) {
+		List<String> helperMethodNames = new ArrayList<>();
+		for(String delimitedExpression : delimitedExpressions) {
+			helperMethodNames.add(expressionsReplacementMap.get(delimitedExpression));
+		}
+		return new JavaExpressionsEvaluator(helperMethodNames, getMethod().getParameterTypes());
+	}
 	
 	public Map<String, String> generatedMethodsMap() {
 		Map<String, String> generatedMethodsMap = new HashMap<String, String>();
@@ -1,7 +1,10 @@
 package org.logicobjects.instrumentation;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.jpc.term.Term;
+
 
 /**
  * Encapsulates the parsing data of a logic method
@@ -11,6 +14,7 @@ import java.util.List;
  * - Some Strings representing the method arguments
  * - A String representing the method solution
  * Instances of this class can contain the unparsed data or the data after being parsed.
+ * After being parsed, an element can be available directly as a term. In that case its string representation is only computed if required.
  * @author scastro
  *
  */
@@ -19,26 +23,69 @@ public class LogicMethodParsingData {
 	private String queryString;
 	private List<String> methodArguments;
 	private String solutionString;
+	
+	private Term queryTerm;
+	private List<Term> methodArgumentTerms;
+	private Term solutionTerm;
 
 	public String getQueryString() {
+		if(queryString == null && queryTerm != null)
+			queryString = queryTerm.toString();
 		return queryString;
 	}
 	public void setQueryString(String queryString) {
 		this.queryString = queryString;
 	}
 	public List<String> getMethodArguments() {
+		if(methodArguments == null && methodArgumentTerms != null) {
+			methodArguments = new ArrayList<>();
+			for(Term methodArgumentTerm : methodArgumentTerms) {
+				methodArguments.add(methodArgumentTerm.toString());
+			}
+		}
 		return methodArguments;
 	}
 	public void setMethodArguments(List<String> methodArguments) {
 		this.methodArguments = methodArguments;
 	}
 	public String getSolutionString() {
+		if(solutionString == null && solutionTerm != null)
+			solutionString = solutionTerm.toString();
 		return solutionString;
 	}
 	public void setSolutionString(String solutionString) {
 		this.solutionString = solutionString;
 	}
-
 	
+	/**
+	 * 
+	 * @return the query as a term. Null if the query was not parsed as a term
+	 */
+	public Term getQueryTerm() {
+		return queryTerm;
+	}
+	public void setQueryTerm(Term queryTerm) {
+		this.queryTerm = queryTerm;
+	}
+	/**
+	 * 
+	 * @return the method arguments as terms. Null if the method arguments were not parsed as terms
+	 */
+	public List<Term> getMethodArgumentTerms() {
+		return methodArgumentTerms;
+	}
+	public void setMethodArgumentTerms(List<Term> methodArgumentTerms) {
+		this.methodArgumentTerms = methodArgumentTerms;
+	}
+	/**
+	 * 
+	 * @return the solution as a term. Null if the solution was not parsed as a term
+	 */
+	public Term getSolutionTerm() {
+		return solutionTerm;
+	}
+	public void setSolutionTerm(Term solutionTerm) {
+		this.solutionTerm = solutionTerm;
+	}
 	
 }
@@ -2,8 +2,11 @@ package org.logicobjects.instrumentation;
 
 import static org.minitoolbox.reflection.ReflectionUtil.isAbstract;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +22,7 @@ import javassist.CtField;
 import javassist.CtMethod;
 import javassist.CtNewMethod;
 import javassist.CtPrimitiveType;
+import javassist.NotFoundException;
 import javassist.bytecode.BadBytecode;
 import javassist.bytecode.SignatureAttribute;
 import javassist.bytecode.SignatureAttribute.ClassSignature;
@@ -30,6 +34,7 @@ import javassist.bytecode.SignatureAttribute.TypeVariable;
 import javassist.bytecode.SyntheticAttribute;
 
 import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+import org.logicobjects.LogicObjects;
 import org.logicobjects.converter.BadExpressionException;
 import org.logicobjects.converter.old.LogicBeanProperty;
 import org.logicobjects.core.LogicClass;
@@ -60,15 +65,29 @@ public class LogicObjectInstrumentation {
 */
 
 
-	private static final String TEST_DIRECTORY = "/test/";
-	
 	private Class classToExtend;
 	private ClassPool classPool;
 	private CtClass ctClassToExtend;
+	private int instrumentedMethodsCount; //used for naming the static fields referencing the instrumented methods
+	private GeneratedClassCache classCache;
+	private InstrumentationBackend backend;
+	private BytecodeMemberEmitter bytecodeEmitter; //null if members are compiled from source code
 	
 	public LogicObjectInstrumentation(Class classToExtend, ClassPool classPool) {
+		this(classToExtend, classPool, GeneratedClassCache.getDefault());
+	}
+	
+	public LogicObjectInstrumentation(Class classToExtend, ClassPool classPool, GeneratedClassCache classCache) {
+		this(classToExtend, classPool, classCache, LogicObjects.getDefault().getPreferences().getInstrumentationBackend());
+	}
+	
+	public LogicObjectInstrumentation(Class classToExtend, ClassPool classPool, GeneratedClassCache classCache, InstrumentationBackend backend) {
 		this.classToExtend = classToExtend;
 		this.classPool = classPool;
+		this.classCache = classCache;
+		this.backend = backend;
+		if(backend == InstrumentationBackend.BYTECODE)
+			bytecodeEmitter = new BytecodeMemberEmitter(classPool);
 		this.ctClassToExtend = JavassistUtil.asCtClass(classToExtend, classPool);
 	}
 
@@ -79,11 +98,31 @@ public class LogicObjectInstrumentation {
 	public static final String GENERATED_PARAMETER_PREFIX = "logicObjectsParam";
 	public static final String GENERATED_INSTANCE_VAR_SUFFIX = "___LogicObjectsInstrumented"; //avoid the character "$" this could create problems since it has an special meaning in javassist
 	public static final String LOGIC_ENGINE_CONFIG_FIELD_NAME = "logicEngineConfig" + GENERATED_INSTANCE_VAR_SUFFIX;
+	public static final String LOGIC_METHOD_FIELD_PREFIX = "logicMethod";
 	
 	public static String instrumentedClassName(Class aClass) {
 		return aClass.getName() + GENERATED_CLASS_SUFFIX;
 	}
 
+	/**
+	 * Answers the extending class generated at compile time (by the LogicObjects annotation processor) for a logic class.
+	 * @param aClass the logic class
+	 * @return the pregenerated class, or null if the class has not been generated at compile time
+	 */
+	public static Class findPregeneratedClass(Class aClass) {
+		ClassLoader classLoader = aClass.getClassLoader();
+		if(classLoader == null)
+			return null;
+		try {
+			Class pregeneratedClass = Class.forName(instrumentedClassName(aClass), false, classLoader);
+			if(aClass.equals(pregeneratedClass.getSuperclass()))
+				return pregeneratedClass;
+			return null;
+		} catch (ClassNotFoundException e) { //the class has not been generated at compile time
+			return null;
+		}
+	}
+
 	
 	/*
 	 * Answers if an extending class has already been created
@@ -119,8 +158,12 @@ public class LogicObjectInstrumentation {
 				return alreadyLoadedClass;
 			}
 			else {
+				String cacheKey = classCache.keyOf(classToExtend, backend); //computed only once for loading and storing the entry
+				byte[] cachedBytecode = classCache.load(classToExtend, cacheKey);
+				if(cachedBytecode != null) //the class was generated in a previous execution
+					return defineClass(cachedBytecode);
 				String extendingClassName = instrumentedClassName(classToExtend);  //derive the id of the extending class using the id of the base class
-				Class extendingClass = createExtendingClass(extendingClassName);  //create it
+				Class extendingClass = createExtendingClass(extendingClassName, cacheKey);  //create it
 				return extendingClass;
 			}	
 		} catch(Exception e) {
@@ -130,9 +173,27 @@ public class LogicObjectInstrumentation {
 	
 	/*
 	 * @param extendingClassName the id of the class to be created
-	 * @param parent the base class of the new class
+	 * @param cacheKey the key of the class in the class cache (null if the class should not be cached)
+	 */
+	private Class createExtendingClass(String extendingClassName, String cacheKey) {
+		try {
+			byte[] bytecode = generateExtendingClass(extendingClassName);
+			classCache.store(classToExtend, cacheKey, bytecode);
+			return defineClass(bytecode);
+		} catch (CannotCompileException | IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * Generates the extending class without loading it
+	 * @return the bytecode of the extending class
 	 */
-	private Class createExtendingClass(String extendingClassName) {
+	public byte[] generateExtendingClass() {
+		return generateExtendingClass(instrumentedClassName(classToExtend));
+	}
+	
+	private byte[] generateExtendingClass(String extendingClassName) {
 		CtClass newCtClass = classPool.makeClass(extendingClassName);//creating the new class with the given id
 		
 		try {
@@ -141,9 +202,10 @@ public class LogicObjectInstrumentation {
 			createGettersAndSetters(newCtClass);
 			createConstructors(newCtClass);
 			createLogicMethods(newCtClass);
+			if(bytecodeEmitter != null)
+				bytecodeEmitter.emitClassInitializer(newCtClass); //initializes the fields referencing the logic methods
 			
 			JavassistUtil.makeNonAbstract(newCtClass); //Javassist makes a class abstract if an abstract method is added to the class. Then it has to be explicitly changed back to non-abstract
-			JavassistUtil.createClassFile(TEST_DIRECTORY, newCtClass);  //just to show how the new class looks like (TODO DO NOT FORGET TO DELETE THIS LINE IN THE RELEASED IMPLEMENTATION !!!)
 			
 			String genericSignature = ctClassToExtend.getGenericSignature(); //the generic signature contains information about the type parameters and the generic superclass and interfaces
 			/**
@@ -190,18 +252,30 @@ public class LogicObjectInstrumentation {
 			}
 			SyntheticAttribute syntheticAttribute = new SyntheticAttribute(ctClassToExtend.getClassFile().getConstPool());
 			newCtClass.setAttribute(syntheticAttribute.getName(), syntheticAttribute.get()); //Marking the generated class as synthetic
-			Class newClass = classPool.toClass(newCtClass, classPool.getClass().getClassLoader(), null);
-			return newClass;
-		} catch (CannotCompileException e) {
+			byte[] bytecode = newCtClass.toBytecode();
+			newCtClass.detach(); //the class is defined again from its bytecode
+			return bytecode;
+		} catch (CannotCompileException | IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
+	
+	/*
+	 * Defines a generated class from its bytecode
+	 */
+	private Class defineClass(byte[] bytecode) throws CannotCompileException, IOException {
+		String classDumpDirectory = LogicObjects.getDefault().getPreferences().getClassDumpDirectory();
+		if(classDumpDirectory != null) //diagnostic mode
+			GeneratedClassDumper.dump(classDumpDirectory, instrumentedClassName(classToExtend), bytecode);
+		CtClass ctClass = classPool.makeClass(new ByteArrayInputStream(bytecode));
+		return classPool.toClass(ctClass, classPool.getClass().getClassLoader(), null);
+	}
 
 	private void addLogicEngineProperty(CtClass son) {
 		CtClass ctFieldClass = JavassistUtil.asCtClass(AbstractPrologEngineDriver.class, classPool);
 		CodeGenerationUtil.createField(ctFieldClass, AbstractPrologEngineDriver.class, LOGIC_ENGINE_CONFIG_FIELD_NAME, son);
-		CodeGenerationUtil.createGetter(AbstractPrologEngineDriver.class, LOGIC_ENGINE_CONFIG_FIELD_NAME, null, son);
-		CodeGenerationUtil.createSetter(AbstractPrologEngineDriver.class, LOGIC_ENGINE_CONFIG_FIELD_NAME, null, son);
+		createGetter(AbstractPrologEngineDriver.class, LOGIC_ENGINE_CONFIG_FIELD_NAME, null, null, son);
+		createSetter(AbstractPrologEngineDriver.class, LOGIC_ENGINE_CONFIG_FIELD_NAME, null, son);
 	}
 	
 	private void createGettersAndSetters(CtClass son) {
@@ -263,14 +337,14 @@ public class LogicObjectInstrumentation {
 			
 			
 			if(currentGetter == null || isAbstract(currentGetter)) {
-				CtMethod ctGeneratedGetter = CodeGenerationUtil.createGetter(beanPropertyType, arg, ctPropertyField.getDeclaringClass(), son);
+				CtMethod ctGeneratedGetter = createGetter(beanPropertyType, arg, currentGetter != null ? currentGetter.getName() : null, ctPropertyField.getDeclaringClass(), son);
 				if(currentGetter != null) { //then it is abstract
 					CtMethod ctCurrentGetter = JavassistUtil.asCtMethod(currentGetter, classPool);
 					JavassistUtil.copyAnnotationsAttribute(ctGeneratedGetter, ctCurrentGetter, classMap);
 				}
 			} else {
 				if(!ReflectionUtil.isPublic(currentGetter)) {
-					CtMethod ctGeneratedGetter = CodeGenerationUtil.createOverriddingGetter(beanPropertyType, arg, son);
+					CtMethod ctGeneratedGetter = createOverridingGetter(beanPropertyType, arg, currentGetter.getName(), son);
 					CtMethod ctCurrentGetter = JavassistUtil.asCtMethod(currentGetter, classPool);
 					JavassistUtil.copyAnnotationsAttribute(ctGeneratedGetter, ctCurrentGetter, classMap);
 					//JavassistUtil.makePublic(ctCurrentGetter);  //this does not work since the extended class is already loaded and cannot be modified anymore
@@ -279,14 +353,14 @@ public class LogicObjectInstrumentation {
 			}
 			
 			if(currentSetter == null || isAbstract(currentSetter)) {
-				CtMethod ctGeneratedSetter = CodeGenerationUtil.createSetter(beanPropertyType, arg, ctPropertyField.getDeclaringClass(), son);
+				CtMethod ctGeneratedSetter = createSetter(beanPropertyType, arg, ctPropertyField.getDeclaringClass(), son);
 				if(currentSetter != null) { //then it is abstract
 					CtMethod ctCurrentSetter = JavassistUtil.asCtMethod(currentSetter, classPool);
 					JavassistUtil.copyAnnotationsAttribute(ctGeneratedSetter, ctCurrentSetter, classMap);
 				}
 			} else {
 				if(!ReflectionUtil.isPublic(currentSetter)) {
-					CtMethod ctGeneratedSetter = CodeGenerationUtil.createOverriddingSetter(beanPropertyType, arg, son);
+					CtMethod ctGeneratedSetter = createOverridingSetter(beanPropertyType, arg, son);
 					CtMethod ctCurrentSetter = JavassistUtil.asCtMethod(currentSetter, classPool);
 					JavassistUtil.copyAnnotationsAttribute(ctGeneratedSetter, ctCurrentSetter, classMap);
 					//JavassistUtil.makePublic(ctCurrentSetter);  //this does not work since the extended class is already loaded and cannot be modified anymore
@@ -297,6 +371,34 @@ public class LogicObjectInstrumentation {
 		}
 		
 	}
+	
+	/*
+	 * The following methods generate accessors either from source code or directly as bytecode, according to the instrumentation backend
+	 */
+	
+	private CtMethod createGetter(Type propertyType, String propertyName, String getterName, CtClass fieldOwner, CtClass son) {
+		if(bytecodeEmitter != null)
+			return bytecodeEmitter.createGetter(propertyType, propertyName, getterName, fieldOwner, son);
+		return CodeGenerationUtil.createGetter(propertyType, propertyName, fieldOwner, son);
+	}
+	
+	private CtMethod createSetter(Type propertyType, String propertyName, CtClass fieldOwner, CtClass son) {
+		if(bytecodeEmitter != null)
+			return bytecodeEmitter.createSetter(propertyType, propertyName, fieldOwner, son);
+		return CodeGenerationUtil.createSetter(propertyType, propertyName, fieldOwner, son);
+	}
+	
+	private CtMethod createOverridingGetter(Type propertyType, String propertyName, String getterName, CtClass son) {
+		if(bytecodeEmitter != null)
+			return bytecodeEmitter.createOverridingGetter(propertyType, getterName, son);
+		return CodeGenerationUtil.createOverriddingGetter(propertyType, propertyName, son);
+	}
+	
+	private CtMethod createOverridingSetter(Type propertyType, String propertyName, CtClass son) {
+		if(bytecodeEmitter != null)
+			return bytecodeEmitter.createOverridingSetter(propertyType, propertyName, son);
+		return CodeGenerationUtil.createOverriddingSetter(propertyType, propertyName, son);
+	}
 
 
 	/*
@@ -324,7 +426,10 @@ public class LogicObjectInstrumentation {
 				
 				
 				
-				newCtConstructor.setBody("{ super($$); }");
+				if(bytecodeEmitter != null)
+					bytecodeEmitter.emitSuperConstructorCall(newCtConstructor);
+				else
+					newCtConstructor.setBody("{ super($$); }");
 				//JavassistUtil.makeNonAbstract(newCtConstructor);
 				
 				son.addConstructor(newCtConstructor);
@@ -468,22 +573,50 @@ public class LogicObjectInstrumentation {
 	}
 	
 	
+	/**
+	 * Adds to the class declaring a method a static final field referencing such method.
+	 * The field is initialized (only once) when the class is initialized.
+	 * @param m the method to reference
+	 * @return the name of the field
+	 */
+	private String addMethodField(CtMethod m) {
+		CtClass declaringClass = m.getDeclaringClass();
+		String methodFieldName = LOGIC_METHOD_FIELD_PREFIX + (++instrumentedMethodsCount) + GENERATED_INSTANCE_VAR_SUFFIX;
+		if(bytecodeEmitter != null) {
+			bytecodeEmitter.addMethodField(m, methodFieldName);
+			return methodFieldName;
+		}
+		try {
+			CtField methodField = new CtField(JavassistUtil.asCtClass(Method.class, classPool), methodFieldName, declaringClass);
+			methodField.setModifiers(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL);
+			String initializer = LogicMethodInvoker.class.getCanonicalName() + ".resolveMethod(" + declaringClass.getName() + ".class, \"" + m.getName() + "\", " + asNewClassArrayString(m.getParameterTypes()) + ")";
+			declaringClass.addField(methodField, CtField.Initializer.byExpr(initializer));
+		} catch (CannotCompileException | NotFoundException e) {
+			throw new RuntimeException(e);
+		}
+		return methodFieldName;
+	}
+	
+	/**
+	 * Instruments a method as a logic method.
+	 * The method object is resolved only once (when the declaring class is initialized) and the invoker is obtained from the static method "forEngine" of the invoker class.
+	 * @param m the method to instrument. It should belong to the generated class.
+	 * @param invokerClass the class of the invoker. It must define a static method "forEngine" answering an invoker for a logic engine configuration
+	 * @param invokerMethodName the name of the invoker method
+	 */
 	public void instrumentAsLogicMethod(CtMethod m, Class invokerClass, String invokerMethodName) {
+		if(bytecodeEmitter != null) {
+			bytecodeEmitter.emitLogicMethodBody(m, invokerClass, invokerMethodName, LOGIC_ENGINE_CONFIG_FIELD_NAME, addMethodField(m));
+			return;
+		}
 		String methodCode = null;
 		try {
-			String methodName = m.getName();
-			String methodParameterTypesString = asNewClassArrayString(m.getParameterTypes());
+			String methodFieldName = addMethodField(m);
 			StringBuilder methodCodeBuilder = new StringBuilder("{ ");
 
 			methodCodeBuilder.append("Object result = null; ");
 			methodCodeBuilder.append("try { ");
-			methodCodeBuilder.append("String methodName = \""+methodName+"\"; ");
-			methodCodeBuilder.append("Object[] args = $args; ");
-			
-			methodCodeBuilder.append(Method.class.getCanonicalName()+" thisMethod = getClass().getMethod(methodName, "+methodParameterTypesString+"); ");
-			methodCodeBuilder.append(invokerClass.getCanonicalName()+" methodInvoker = new "+invokerClass.getCanonicalName()+"("+LOGIC_ENGINE_CONFIG_FIELD_NAME+"); ");
-
-			methodCodeBuilder.append("result = "+"methodInvoker"+"."+invokerMethodName+"(this, thisMethod, args); ");
+			methodCodeBuilder.append("result = "+invokerClass.getCanonicalName()+".forEngine("+LOGIC_ENGINE_CONFIG_FIELD_NAME+")."+invokerMethodName+"(this, "+methodFieldName+", $args); ");
 			
 			methodCodeBuilder.append("} catch (Exception e) {throw new RuntimeException(e);} ");
 			
@@ -573,7 +706,6 @@ public class LogicObjectInstrumentation {
 */
 		try {
 			m.setBody(methodCode);
-			//JavassistUtil.createClassFile(TEST_DIRECTORY, targetClass);
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
@@ -0,0 +1,227 @@
+package org.logicobjects.instrumentation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+import org.jpc.query.Query;
+import org.jpc.term.Term;
+import org.logicobjects.annotation.method.LCached;
+import org.logicobjects.core.LogicDependenciesLoader;
+import org.logicobjects.core.LogicResourcesLoadedEvent;
+import org.logicobjects.core.LogicRoutine;
+import org.reactivestreams.Publisher;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * The cached results of a logic method annotated with LCached.
+ * Statistics (hits, misses and evictions) are always recorded.
+ * Results are keyed by the generation of the logic resources of the class declaring the method, of its ancestors and of their packages (see getGeneration(LogicDependenciesLoader)).
+ * They are discarded when those resources are reloaded (see LogicDependenciesListener). Loading the resources of other classes or packages does not affect them.
+ * @author scastro
+ *
+ */
+public class LogicResultCache {
+
+	/**
+	 * All the result caches, so they can be invalidated at once (e.g., after the logic theory changes)
+	 */
+	private static final Set<LogicResultCache> caches = Collections.newSetFromMap(new ConcurrentHashMap<LogicResultCache, Boolean>());
+	
+	/**
+	 * 
+	 * @param logicRoutine a logic routine
+	 * @return a new result cache for the routine. Null if the routine is not annotated with LCached
+	 */
+	public static LogicResultCache forRoutine(LogicRoutine logicRoutine) {
+		Method method = logicRoutine.getWrappedMethod();
+		LCached aLCached = method.getAnnotation(LCached.class);
+		if(aLCached == null)
+			return null;
+		Class resultClass = logicRoutine.getResultClass();
+		if(Query.class.isAssignableFrom(resultClass) || Iterator.class.isAssignableFrom(resultClass) || Enumeration.class.isAssignableFrom(resultClass) 
+				|| BaseStream.class.isAssignableFrom(resultClass) || Publisher.class.isAssignableFrom(resultClass))
+			throw new RuntimeException("The logic method " + method + " answers a lazy view over a query, so its results cannot be cached");
+		LogicResultCache resultCache = new LogicResultCache(aLCached, method.getDeclaringClass());
+		caches.add(resultCache);
+		return resultCache;
+	}
+	
+	/**
+	 * Discards the results of all the cached logic methods
+	 */
+	public static void invalidateAllCaches() {
+		for(LogicResultCache resultCache : caches)
+			resultCache.invalidateAll();
+	}
+	
+	/**
+	 * Discards the results of all the cached logic methods invoked on receivers with the given engine configuration
+	 * @param logicEngineConfig a logic engine configuration
+	 */
+	public static void invalidateAllCaches(AbstractPrologEngineDriver logicEngineConfig) {
+		for(LogicResultCache resultCache : caches)
+			resultCache.invalidate(logicEngineConfig);
+	}
+	
+	/**
+	 * Discards the results outdated by a loading of logic resources: the results of the methods depending on the loaded class or package, obtained from the engines where the resources were loaded
+	 * @param event a loading event
+	 */
+	public static void invalidateAllCaches(LogicResourcesLoadedEvent event) {
+		for(LogicResultCache resultCache : caches) {
+			if(resultCache.dependsOn(event))
+				resultCache.invalidate(event.getLogicEngineConfig());
+		}
+	}
+	
+	
+	private final Cache<Key, Optional<Object>> cache; //Guava caches do not accept null values
+	private final List<Class> classes = new ArrayList<>(); //the classes whose logic resources the results may depend on
+	private final Set<Package> packages = new HashSet<>(); //the packages of those classes
+	
+	private LogicResultCache(LCached aLCached, Class declaringClass) {
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().maximumSize(aLCached.maximumSize()).recordStats();
+		if(aLCached.expireAfterMillis() > 0)
+			cacheBuilder.expireAfterWrite(aLCached.expireAfterMillis(), TimeUnit.MILLISECONDS);
+		cache = cacheBuilder.build();
+		for(Class clazz = declaringClass; clazz != null && !clazz.equals(Object.class); clazz = clazz.getSuperclass()) { //conservatively, all the ancestors (and not only the logic classes)
+			classes.add(clazz);
+			if(clazz.getPackage() != null) //classes in the default package may not have a package
+				packages.add(clazz.getPackage());
+		}
+	}
+	
+	/**
+	 * 
+	 * @param dependenciesLoader the loader of logic resources
+	 * @return the generation of the logic resources the results depend on. It increases whenever the resources of the class declaring the method, of one of its ancestors, or of one of their packages are (re)loaded
+	 */
+	public long getGeneration(LogicDependenciesLoader dependenciesLoader) {
+		long generation = 0;
+		for(Class clazz : classes)
+			generation += dependenciesLoader.getGeneration(clazz);
+		for(Package pakkage : packages)
+			generation += dependenciesLoader.getGeneration(pakkage);
+		return generation;
+	}
+	
+	/**
+	 * 
+	 * @param event a loading event
+	 * @return true if the results depend on the class or package whose resources were loaded
+	 */
+	public boolean dependsOn(LogicResourcesLoadedEvent event) {
+		if(event.getLoadedClass() != null)
+			return classes.contains(event.getLoadedClass());
+		else
+			return packages.contains(event.getPackage());
+	}
+	
+	/**
+	 * 
+	 * @param logicEngineConfig the engine configuration of the receiver of the invocation
+	 * @param generation the generation of the logic resources the results depend on (see getGeneration(LogicDependenciesLoader)) before the invocation
+	 * @param goal the goal of the invocation
+	 * @param resultLoader invokes the logic method if its result is not cached
+	 * @return the (possibly cached) result of the invocation
+	 */
+	public Object get(AbstractPrologEngineDriver logicEngineConfig, long generation, Term goal, final Callable<Object> resultLoader) {
+		try {
+			//a result computed while resources are being loaded is cached with the previous generation, so it is never answered afterwards
+			return cache.get(new Key(logicEngineConfig, generation, goal), new Callable<Optional<Object>>() {
+				@Override
+				public Optional<Object> call() throws Exception {
+					return Optional.fromNullable(resultLoader.call());
+				}
+			}).orNull();
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+	}
+	
+	/**
+	 * Discards the result of an invocation
+	 * @param logicEngineConfig the engine configuration of the receiver of the invocation
+	 * @param generation the current generation of the logic resources the results depend on
+	 * @param goal the goal of the invocation
+	 */
+	public void invalidate(AbstractPrologEngineDriver logicEngineConfig, long generation, Term goal) {
+		cache.invalidate(new Key(logicEngineConfig, generation, goal));
+	}
+	
+	/**
+	 * Discards the results of the invocations on receivers with the given engine configuration
+	 * @param logicEngineConfig a logic engine configuration
+	 */
+	public void invalidate(AbstractPrologEngineDriver logicEngineConfig) {
+		Iterator<Key> keys = cache.asMap().keySet().iterator();
+		while(keys.hasNext()) {
+			if(keys.next().logicEngineConfig == logicEngineConfig)
+				keys.remove();
+		}
+	}
+	
+	/**
+	 * Discards all the results of the method
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+	
+	public long size() {
+		return cache.size();
+	}
+	
+	public CacheStats getStats() {
+		return cache.stats();
+	}
+	
+	
+	/**
+	 * A key references its engine configuration until the result is evicted, expires or is invalidated (see invalidate(AbstractPrologEngineDriver)).
+	 */
+	private static class Key {
+		private final AbstractPrologEngineDriver logicEngineConfig;
+		private final long generation;
+		private final Term goal;
+		
+		public Key(AbstractPrologEngineDriver logicEngineConfig, long generation, Term goal) {
+			this.logicEngineConfig = logicEngineConfig;
+			this.generation = generation;
+			this.goal = goal;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * System.identityHashCode(logicEngineConfig) + (int) (generation ^ (generation >>> 32))) + goal.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return logicEngineConfig == other.logicEngineConfig && generation == other.generation && goal.equals(other.goal);
+		}
+	}
+	
+}
@@ -0,0 +1,193 @@
+package org.logicobjects.instrumentation;
+
+import static org.logicobjects.instrumentation.AbstractParser.INSTANCE_PROPERTY_PREFIX;
+import static org.logicobjects.instrumentation.AbstractParser.JAVA_NAME_REX;
+import static org.logicobjects.instrumentation.LogicMethodParser.ALL_ARGUMENTS_SUFFIX;
+import static org.logicobjects.instrumentation.LogicMethodParser.ARGUMENT_PREFIX;
+import static org.logicobjects.instrumentation.LogicMethodParser.THIS_METHOD_ARGUMENT_SUFFIX;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A logic string (e.g., a query, a method argument or a solution of a logic method) compiled into a list of tokens.
+ * A template is compiled only once per logic method. 
+ * Rendering a template for a concrete invocation is a single pass over its tokens, no regular expressions are involved.
+ * @author scastro
+ *
+ */
+public class LogicTemplate {
+
+	private static final Pattern SYMBOL_PATTERN = Pattern.compile(Pattern.quote(ARGUMENT_PREFIX) + "(\\d+|" + Pattern.quote(ALL_ARGUMENTS_SUFFIX) + ")|" + Pattern.quote(INSTANCE_PROPERTY_PREFIX) + JAVA_NAME_REX);
+	
+	public static enum TokenKind {
+		LITERAL, //a literal segment of text
+		ARGUMENT, //$N
+		ALL_ARGUMENTS, //$$
+		THIS, //$0
+		PROPERTY, //@property
+		EXPRESSION //a delimited Java expression
+	}
+	
+	public static class Token {
+		private final TokenKind kind;
+		private final String text; //the original text of the token
+		private final int index; //the (1-based) position of an argument or the (0-based) position of an expression
+		private final String propertyName;
+		
+		private Token(TokenKind kind, String text, int index, String propertyName) {
+			this.kind = kind;
+			this.text = text;
+			this.index = index;
+			this.propertyName = propertyName;
+		}
+
+		public TokenKind getKind() {
+			return kind;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		public String getPropertyName() {
+			return propertyName;
+		}
+		
+		private void render(TemplateBindings bindings, StringBuilder sb) {
+			switch(kind) {
+			case LITERAL:
+				sb.append(text);
+				break;
+			case ARGUMENT:
+				if(index <= bindings.getArgumentsCount())
+					sb.append(bindings.getArgumentString(index));
+				else
+					sb.append(text); //there is no argument in such position, the symbol is not replaced
+				break;
+			case ALL_ARGUMENTS:
+				if(bindings.getArgumentsCount() > 0)
+					sb.append(bindings.getAllArgumentsString());
+				else
+					sb.append(text);
+				break;
+			case THIS:
+				sb.append(bindings.getThisString());
+				break;
+			case PROPERTY:
+				sb.append(bindings.getPropertyString(propertyName));
+				break;
+			case EXPRESSION:
+				sb.append(bindings.getExpressionString(index));
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * @param logicString the logic string to compile
+	 * @param delimitedExpressions the (delimited) Java expressions of the logic method. Symbols inside these expressions are not tokenized
+	 * @return the compiled template
+	 */
+	public static LogicTemplate compile(String logicString, List<String> delimitedExpressions) {
+		List<Token> tokens = new ArrayList<>();
+		if(logicString != null) {
+			int position = 0;
+			while(position < logicString.length()) {
+				int nextExpressionStart = -1;
+				int nextExpressionIndex = -1;
+				for(int i = 0; i < delimitedExpressions.size(); i++) {
+					int expressionStart = logicString.indexOf(delimitedExpressions.get(i), position);
+					if(expressionStart != -1 && (nextExpressionStart == -1 || expressionStart < nextExpressionStart)) {
+						nextExpressionStart = expressionStart;
+						nextExpressionIndex = i;
+					}
+				}
+				int segmentEnd = nextExpressionStart == -1 ? logicString.length() : nextExpressionStart;
+				addSymbolTokens(logicString.substring(position, segmentEnd), tokens);
+				if(nextExpressionStart == -1)
+					break;
+				String delimitedExpression = delimitedExpressions.get(nextExpressionIndex);
+				tokens.add(new Token(TokenKind.EXPRESSION, delimitedExpression, nextExpressionIndex, null));
+				position = nextExpressionStart + delimitedExpression.length();
+			}
+		}
+		return new LogicTemplate(tokens);
+	}
+	
+	private static void addSymbolTokens(String segment, List<Token> tokens) {
+		Matcher matcher = SYMBOL_PATTERN.matcher(segment);
+		int position = 0;
+		while(matcher.find()) {
+			if(matcher.start() > position)
+				tokens.add(new Token(TokenKind.LITERAL, segment.substring(position, matcher.start()), -1, null));
+			String symbol = matcher.group();
+			String argumentSuffix = matcher.group(1);
+			if(argumentSuffix == null)
+				tokens.add(new Token(TokenKind.PROPERTY, symbol, -1, matcher.group(2)));
+			else if(argumentSuffix.equals(ALL_ARGUMENTS_SUFFIX))
+				tokens.add(new Token(TokenKind.ALL_ARGUMENTS, symbol, -1, null));
+			else if(argumentSuffix.equals(THIS_METHOD_ARGUMENT_SUFFIX))
+				tokens.add(new Token(TokenKind.THIS, symbol, 0, null));
+			else
+				tokens.add(new Token(TokenKind.ARGUMENT, symbol, Integer.parseInt(argumentSuffix), null));
+			position = matcher.end();
+		}
+		if(position < segment.length())
+			tokens.add(new Token(TokenKind.LITERAL, segment.substring(position), -1, null));
+	}
+	
+	
+	private final List<Token> tokens;
+	private final boolean literal;
+	
+	private LogicTemplate(List<Token> tokens) {
+		this.tokens = Collections.unmodifiableList(tokens);
+		boolean literal = true;
+		for(Token token : tokens) {
+			if(!token.getKind().equals(TokenKind.LITERAL)) {
+				literal = false;
+				break;
+			}
+		}
+		this.literal = literal;
+	}
+	
+	public List<Token> getTokens() {
+		return tokens;
+	}
+	
+	/**
+	 * 
+	 * @return true if the template does not have any symbol or expression (its rendering does not depend on the invocation context)
+	 */
+	public boolean isLiteral() {
+		return literal;
+	}
+	
+	/**
+	 * Renders the template in a builder
+	 * @param bindings the values of the symbols and expressions
+	 * @param sb the builder
+	 */
+	public void render(TemplateBindings bindings, StringBuilder sb) {
+		for(Token token : tokens) {
+			token.render(bindings, sb);
+		}
+	}
+	
+	public String render(TemplateBindings bindings) {
+		StringBuilder sb = new StringBuilder();
+		render(bindings, sb);
+		return sb.toString();
+	}
+	
+}
@@ -0,0 +1,135 @@
+package org.logicobjects.instrumentation;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jpc.term.Term;
+import org.jpc.util.PrologUtil;
+import org.logicobjects.instrumentation.LogicTemplate.Token;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A logic template parsed only once as a term.
+ * The symbols and expressions of the template are parsed as placeholder variables, which are replaced by the actual terms of an invocation.
+ * This avoids printing the actual terms as text and parsing the whole logic string again for each invocation.
+ * Not every template can be parsed as a term (e.g., templates using the symbol $$, or symbols inside quoted atoms). 
+ * In such cases the logic string should be rendered as text.
+ * @author scastro
+ *
+ */
+public class LogicTermTemplate {
+
+	private static Logger logger = LoggerFactory.getLogger(LogicTermTemplate.class);
+	
+	public static final String PLACEHOLDER_PREFIX = "LOGICOBJECTS_PLACEHOLDER_";
+	
+	private static String placeholderName(Token token) {
+		switch(token.getKind()) {
+		case ARGUMENT:
+			return PLACEHOLDER_PREFIX + "ARG_" + token.getIndex();
+		case THIS:
+			return PLACEHOLDER_PREFIX + "THIS";
+		case PROPERTY:
+			return PLACEHOLDER_PREFIX + "PROPERTY_" + token.getPropertyName();
+		case EXPRESSION:
+			return PLACEHOLDER_PREFIX + "EXPRESSION_" + token.getIndex();
+		default:
+			throw new IllegalArgumentException("No placeholder for token: " + token.getText());
+		}
+	}
+	
+	/**
+	 * 
+	 * @param template a compiled logic template
+	 * @param expressionsEvaluator the evaluator of the expressions of the logic method
+	 * @param logicUtil used for parsing the template
+	 * @return a term template, or null if the template cannot be expressed as a term with placeholders
+	 */
+	public static LogicTermTemplate compile(LogicTemplate template, JavaExpressionsEvaluator expressionsEvaluator, PrologUtil logicUtil) {
+		StringBuilder sb = new StringBuilder();
+		Map<String, Token> placeholders = new LinkedHashMap<>();
+		for(Token token : template.getTokens()) {
+			switch(token.getKind()) {
+			case LITERAL:
+				if(token.getText().contains(PLACEHOLDER_PREFIX))
+					return null; //placeholders would be ambiguous
+				sb.append(token.getText());
+				break;
+			case ALL_ARGUMENTS:
+				return null; //all the arguments are spliced as a sequence of terms, this cannot be expressed with a single placeholder
+			case EXPRESSION:
+				if(!expressionsEvaluator.isEvaluable(token.getIndex()))
+					return null; //the expression is replaced by an empty string
+				//otherwise, an expression is treated as any other symbol
+			default:
+				String placeholderName = placeholderName(token);
+				placeholders.put(placeholderName, token);
+				sb.append(placeholderName);
+			}
+		}
+		String termString = sb.toString();
+		if(termString.trim().isEmpty())
+			return null;
+		Term term;
+		try {
+			term = logicUtil.asTerm(termString);
+		} catch(RuntimeException e) {
+			logger.debug("The logic string " + termString + " cannot be parsed as a term template. It will be rendered as text.");
+			return null;
+		}
+		for(String placeholderName : placeholders.keySet()) {
+			if(!term.hasVariable(placeholderName)) //e.g., the symbol was part of a quoted atom
+				return null;
+		}
+		return new LogicTermTemplate(term, placeholders);
+	}
+	
+	
+	private final Term term;
+	private final Map<String, Token> placeholders;
+	
+	private LogicTermTemplate(Term term, Map<String, Token> placeholders) {
+		this.term = term;
+		this.placeholders = placeholders;
+	}
+	
+	public Term getTerm() {
+		return term;
+	}
+	
+	/**
+	 * 
+	 * @param bindings the values of the symbols and expressions of an invocation
+	 * @return the term of the template after replacing its placeholders. Null if the template cannot be instantiated with the given bindings (e.g., an argument symbol refers to a non existing argument)
+	 */
+	public Term instantiate(TemplateBindings bindings) {
+		if(placeholders.isEmpty())
+			return term;
+		Map<String, Term> replacements = new HashMap<>();
+		for(Entry<String, Token> placeholderEntry : placeholders.entrySet()) {
+			Token token = placeholderEntry.getValue();
+			Term replacement;
+			switch(token.getKind()) {
+			case ARGUMENT:
+				if(token.getIndex() > bindings.getArgumentsCount())
+					return null; //the symbol is not replaced when rendering the template as text
+				replacement = bindings.getArgumentTerm(token.getIndex());
+				break;
+			case THIS:
+				replacement = bindings.getThisTerm();
+				break;
+			case PROPERTY:
+				replacement = bindings.getPropertyTerm(token.getPropertyName());
+				break;
+			default:
+				replacement = bindings.getExpressionTerm(token.getIndex());
+			}
+			replacements.put(placeholderEntry.getKey(), replacement);
+		}
+		return term.replaceVariables(replacements);
+	}
+	
+}
@@ -0,0 +1,147 @@
+package org.logicobjects.instrumentation;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jpc.util.PrologUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Flushes the output of a logic engine after logic method invocations according to their flush policies.
+ * One flusher is shared by all the logic methods invoked in the same logic engine, so periodic policies count the calls of all of them.
+ * The engine is only accessed by the executor of the engine (for pooled engines, the thread the engine is confined to): 
+ * invocations notify the flusher from that thread, and periodic flushes are submitted to the executor instead of being executed by the scheduler thread.
+ * @author scastro
+ *
+ */
+public class OutputFlusher {
+
+	private static Logger logger = LoggerFactory.getLogger(OutputFlusher.class);
+	
+	/**
+	 * One scheduler thread is shared by all the periodic flushers. It is a daemon thread so it does not prevent the JVM from exiting.
+	 * It only decides when a flush is due, it never accesses an engine.
+	 */
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "logicobjects-output-flusher");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	private final PrologUtil logicUtil;
+	private final Executor engineExecutor;
+	private final AtomicInteger pendingCalls = new AtomicInteger();
+	private long scheduledMillis = Long.MAX_VALUE; //the interval of the scheduled periodic flush, guarded by this
+	private ScheduledFuture<?> scheduledFlush; //guarded by this
+	
+	/**
+	 * @param logicUtil the utility object of the engine
+	 * @param engineExecutor the executor where the engine is accessed
+	 */
+	public OutputFlusher(PrologUtil logicUtil, Executor engineExecutor) {
+		this.logicUtil = logicUtil;
+		this.engineExecutor = engineExecutor;
+	}
+	
+	/**
+	 * Notifies the flusher that a logic method has been invoked. It must be called by the executor of the engine
+	 * @param flushPolicy the flush policy of the method
+	 */
+	public void afterInvocation(FlushPolicy flushPolicy) {
+		switch(flushPolicy.getMode()) {
+		case ALWAYS:
+			flush();
+			break;
+		case PERIODIC:
+			if(flushPolicy.getEveryMillis() > 0)
+				schedule(flushPolicy.getEveryMillis());
+			int calls = pendingCalls.incrementAndGet();
+			if(flushPolicy.getEveryCalls() > 0 && calls >= flushPolicy.getEveryCalls())
+				flush();
+			break;
+		case NEVER:
+			break;
+		}
+	}
+	
+	/**
+	 * Flushes the output of the engine. It must be called by the executor of the engine
+	 */
+	public void flush() {
+		pendingCalls.set(0);
+		logicUtil.flushOutput();
+	}
+	
+	private void flushPending() {
+		if(pendingCalls.get() > 0)
+			flush();
+	}
+	
+	/**
+	 * Schedules the periodic flush with the given interval, unless it is already scheduled with a shorter one.
+	 * A periodic flush previously scheduled with a longer interval is cancelled, so at most one periodic flush is scheduled per flusher.
+	 */
+	private synchronized void schedule(long everyMillis) {
+		if(everyMillis < scheduledMillis) {
+			if(scheduledFlush != null)
+				scheduledFlush.cancel(false);
+			scheduledMillis = everyMillis;
+			scheduledFlush = scheduler.scheduleWithFixedDelay(new PeriodicFlush(this), everyMillis, everyMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * Submits a flush of the pending output to the executor of the engine
+	 */
+	private void submitFlush() {
+		engineExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					flushPending();
+				} catch(Exception e) {
+					logger.warn("Error flushing the output of a logic engine", e); //a transient error must not be propagated to the executor of the engine
+				}
+			}
+		});
+	}
+	
+	/**
+	 * The periodic task only keeps a weak reference to its flusher, so it does not keep alive a flusher (and its logic engine) that is not used anymore.
+	 * The task itself does not flush the output, since the engine may be executing a query in its own thread: it submits the flush to the executor of the engine.
+	 */
+	private static class PeriodicFlush implements Runnable {
+		
+		private final WeakReference<OutputFlusher> flusherReference;
+		
+		public PeriodicFlush(OutputFlusher flusher) {
+			flusherReference = new WeakReference<>(flusher);
+		}
+		
+		@Override
+		public void run() {
+			OutputFlusher flusher = flusherReference.get();
+			if(flusher == null)
+				throw new CancellationException(); //an exception cancels the subsequent executions of a periodic task
+			if(flusher.pendingCalls.get() > 0) {
+				try {
+					flusher.submitFlush();
+				} catch(Exception e) {
+					logger.warn("Error submitting a flush of the output of a logic engine", e); //the task must not die because of a transient error (e.g., a rejected submission)
+				}
+			}
+		}
+	}
+	
+}
@@ -24,6 +24,9 @@ public class ParsedLogicMethod {
 	private String computedMethodName;
 	private List computedMethodArguments; //the method arguments
 	
+	private Term goal; //lazily computed
+	private AbstractTerm eachSolutionTerm; //lazily computed (the adapters of each solution may ask for it many times)
+	
 	/**
 	 * 
 	 * @param logicMethod knows how to configure this object given a parsedData object
@@ -56,6 +59,8 @@ public class ParsedLogicMethod {
 	}
 	
 	public String getComputedQueryString() {
+		if(computedQueryString == null && parsedData != null && parsedData.getQueryTerm() != null) //the query was built directly as a term
+			computedQueryString = parsedData.getQueryString();
 		return computedQueryString;
 	}
 
@@ -81,11 +86,15 @@ public class ParsedLogicMethod {
 
 	
 	public Term asGoal() {
-		return logicMethod.asGoal(this);
+		if(goal == null)
+			goal = logicMethod.asGoal(this);
+		return goal;
 	}
 	
 	public AbstractTerm getEachSolutionTerm() {
-		return logicMethod.getEachSolutionTerm(this);
+		if(eachSolutionTerm == null)
+			eachSolutionTerm = logicMethod.getEachSolutionTerm(this);
+		return eachSolutionTerm;
 	}
 	
 	
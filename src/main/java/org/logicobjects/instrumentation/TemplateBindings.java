@@ -0,0 +1,162 @@
+package org.logicobjects.instrumentation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jpc.term.Term;
+import org.jpc.util.PrologUtil;
+import org.logicobjects.converter.old.ObjectToTermConverter;
+import org.logicobjects.core.LogicObject;
+
+/**
+ * The values of the symbols and expressions of the logic templates of a method for a concrete invocation.
+ * Values are computed lazily and only once per invocation, no matter how many times a symbol is found in the templates.
+ * @author scastro
+ *
+ */
+public class TemplateBindings {
+
+	private static final String THIS_PROPERTY_NAME = "this";
+	
+	private final Object targetObject;
+	private final List arguments;
+	private final PrologUtil logicUtil;
+	private final JavaExpressionsEvaluator expressionsEvaluator;
+	
+	private final Term[] argumentTerms;
+	private final String[] argumentStrings;
+	private String allArgumentsString;
+	private Term thisTerm;
+	private String thisString;
+	private Map<String, Term> propertyTerms;
+	private Map<String, String> propertyStrings;
+	private Object[] expressionsResults;
+	private Term[] expressionTerms;
+	private String[] expressionStrings;
+	
+	public TemplateBindings(Object targetObject, List arguments, PrologUtil logicUtil, JavaExpressionsEvaluator expressionsEvaluator) {
+		this.targetObject = targetObject;
+		this.arguments = arguments;
+		this.logicUtil = logicUtil;
+		this.expressionsEvaluator = expressionsEvaluator;
+		argumentTerms = new Term[arguments.size()];
+		argumentStrings = new String[arguments.size()];
+	}
+	
+	public int getArgumentsCount() {
+		return arguments.size();
+	}
+	
+	/**
+	 * 
+	 * @param position a 1-based index of the java argument
+	 * @return the argument as a term
+	 */
+	public Term getArgumentTerm(int position) {
+		Term argumentTerm = argumentTerms[position - 1];
+		if(argumentTerm == null) {
+			argumentTerm = ObjectToTermConverter.asTerm(arguments.get(position - 1));
+			if(!argumentTerm.getNamedVariablesNames().isEmpty())
+				throw new RuntimeException("Argument objects cannot contain free non-anonymous variables: "+argumentTerm);//in order to avoid id collisions
+			argumentTerms[position - 1] = argumentTerm;
+		}
+		return argumentTerm;
+	}
+	
+	public String getArgumentString(int position) {
+		String argumentString = argumentStrings[position - 1];
+		if(argumentString == null) {
+			argumentString = getArgumentTerm(position).toString();
+			argumentStrings[position - 1] = argumentString;
+		}
+		return argumentString;
+	}
+	
+	public String getAllArgumentsString() {
+		if(allArgumentsString == null) {
+			List<Term> listTerms = new ArrayList<>();
+			for(int i = 1; i <= arguments.size(); i++) {
+				listTerms.add(getArgumentTerm(i));
+			}
+			allArgumentsString = logicUtil.termSequenceToString(listTerms);
+		}
+		return allArgumentsString;
+	}
+	
+	public Term getThisTerm() {
+		if(thisTerm == null) {
+			if(propertyTerms != null) //find if the synonym @this has already been translated
+				thisTerm = propertyTerms.get(THIS_PROPERTY_NAME);
+			if(thisTerm == null)
+				thisTerm = new ObjectToTermConverter().adapt(targetObject);
+		}
+		return thisTerm;
+	}
+	
+	public String getThisString() {
+		if(thisString == null)
+			thisString = getThisTerm().toString();
+		return thisString;
+	}
+	
+	public Term getPropertyTerm(String propertyName) {
+		if(propertyTerms == null)
+			propertyTerms = new HashMap<>();
+		Term propertyTerm = propertyTerms.get(propertyName);
+		if(propertyTerm == null) {
+			propertyTerm = LogicObject.propertyAsTerm(targetObject, propertyName);
+			propertyTerms.put(propertyName, propertyTerm);
+		}
+		return propertyTerm;
+	}
+	
+	public String getPropertyString(String propertyName) {
+		if(propertyStrings == null)
+			propertyStrings = new HashMap<>();
+		String propertyString = propertyStrings.get(propertyName);
+		if(propertyString == null) {
+			propertyString = getPropertyTerm(propertyName).toString();
+			propertyStrings.put(propertyName, propertyString);
+		}
+		return propertyString;
+	}
+	
+	/**
+	 * 
+	 * @param index the (0-based) position of the expression
+	 * @return the value of the expression as a term string. An empty string if the expression is not valid
+	 */
+	public String getExpressionString(int index) {
+		if(!expressionsEvaluator.isEvaluable(index))
+			return "";
+		if(expressionStrings == null)
+			expressionStrings = new String[expressionsEvaluator.size()];
+		String expressionString = expressionStrings[index];
+		if(expressionString == null) {
+			expressionString = getExpressionTerm(index).toString();
+			expressionStrings[index] = expressionString;
+		}
+		return expressionString;
+	}
+	
+	/**
+	 * 
+	 * @param index the (0-based) position of an evaluable expression
+	 * @return the value of the expression as a term
+	 */
+	public Term getExpressionTerm(int index) {
+		if(expressionsResults == null) { //all the expressions are evaluated in one pass
+			expressionsResults = expressionsEvaluator.evaluate(targetObject, arguments);
+			expressionTerms = new Term[expressionsResults.length];
+		}
+		Term expressionTerm = expressionTerms[index];
+		if(expressionTerm == null) {
+			expressionTerm = ObjectToTermConverter.asTerm(expressionsResults[index]);
+			expressionTerms[index] = expressionTerm;
+		}
+		return expressionTerm;
+	}
+	
+}
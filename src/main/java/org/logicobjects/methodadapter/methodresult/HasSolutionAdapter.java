@@ -1,5 +1,8 @@
 package org.logicobjects.methodadapter.methodresult;
 
+import java.util.List;
+import java.util.Map;
+
 import org.jpc.query.Query;
 
 
@@ -13,5 +16,20 @@ public class HasSolutionAdapter extends MethodResultAdapter<Boolean> {
 	public Boolean adapt(Query source) {
 		return source.hasSolution();
 	}
+	
+	@Override
+	public boolean canAdaptSolutions() {
+		return true;
+	}
+	
+	@Override
+	public Boolean adaptSolutions(List<Map> solutions) {
+		return !solutions.isEmpty();
+	}
+	
+	@Override
+	public boolean requiresAllSolutions() {
+		return false;
+	}
 
 }
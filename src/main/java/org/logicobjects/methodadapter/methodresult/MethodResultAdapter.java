@@ -2,6 +2,8 @@ package org.logicobjects.methodadapter.methodresult;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
 
 import org.jpc.query.Query;
 import org.logicobjects.instrumentation.ParsedLogicMethod;
@@ -60,6 +62,32 @@ public abstract class MethodResultAdapter<MethodResultType> extends LogicAdapter
 		this.parsedLogicMethod = parsedLogicMethod;
 	}
 	
+	/**
+	 * 
+	 * @return true if this adapter can adapt solutions that were already collected (see {@link #adaptSolutions(List)}), false if it answers the query itself or a lazy view over it
+	 */
+	public boolean canAdaptSolutions() {
+		return false;
+	}
+	
+	/**
+	 * Adapts solutions that were already collected (e.g., by a batch invocation) instead of a live query.
+	 * Only called if {@link #canAdaptSolutions()} answers true, so adapters overriding this method should also override that one.
+	 * @param solutions the solutions of the query (each solution maps variable names to terms)
+	 * @return the adapted solutions
+	 */
+	public MethodResultType adaptSolutions(List<Map> solutions) {
+		throw new UnsupportedOperationException("The adapter " + getClass().getName() + " cannot adapt collected solutions");
+	}
+	
+	/**
+	 * 
+	 * @return true if this adapter may need all the solutions of the query, false if the first solution (if any) is enough
+	 */
+	public boolean requiresAllSolutions() {
+		return true;
+	}
+	
 /*
 	public void setMethod(Method method) {
 		this.method = method;
@@ -105,7 +133,7 @@ public abstract class MethodResultAdapter<MethodResultType> extends LogicAdapter
 			throw new RuntimeException(e);
 		}
 		*/
-		return getMethod().getGenericReturnType();
+		return parsedLogicMethod.getLogicMethod().getResultType();
 	}
 
 }
@@ -0,0 +1,84 @@
+package org.logicobjects.methodadapter.methodresult;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Type;
+
+import org.logicobjects.core.LogicRoutine;
+import org.logicobjects.instrumentation.ParsedLogicMethod;
+import org.logicobjects.methodadapter.methodresult.eachsolution.EachSolutionAdapter;
+import org.logicobjects.methodadapter.methodresult.solutioncomposition.SmartWrapperAdapter;
+import org.logicobjects.methodadapter.methodresult.solutioncomposition.SolutionCompositionAdapter;
+import org.logicobjects.methodadapter.methodresult.solutioncomposition.WrapperAdapter;
+
+/**
+ * Creates the result adapters of a logic method.
+ * Everything that does not depend on a concrete invocation (the annotations of the method, the adapter classes and their constructors, the type of each solution) is resolved only once.
+ * Creating an adapter for an invocation just instantiates the already resolved classes.
+ * @author scastro
+ *
+ */
+public class MethodResultAdapterFactory {
+
+	private final Constructor<? extends MethodResultAdapter> simpleAdapterConstructor; //null if the solutions of the query have to be composed
+	private final Constructor<? extends SolutionCompositionAdapter> compositionAdapterConstructor;
+	private final Constructor<? extends EachSolutionAdapter> eachSolutionAdapterConstructor;
+	private final Type eachSolutionType;
+	
+	public MethodResultAdapterFactory(LogicRoutine logicRoutine) {
+		try {
+			Class<? extends MethodResultAdapter> simpleAdapterClass = logicRoutine.getSimpleMethodAdapterClass();
+			if(simpleAdapterClass != null) {
+				simpleAdapterConstructor = simpleAdapterClass.getConstructor();
+				compositionAdapterConstructor = null;
+				eachSolutionAdapterConstructor = null;
+				eachSolutionType = null;
+			} else {
+				simpleAdapterConstructor = null;
+				Type methodResultType = logicRoutine.getResultType(); //for asynchronous methods, the type the future is completed with
+				Class<? extends SolutionCompositionAdapter> compositionAdapterClass = logicRoutine.getCompositionAdapterClass();
+				if(SmartWrapperAdapter.class.equals(compositionAdapterClass)) {
+					/**
+					 * The wrapper adapter chosen by a smart wrapper adapter only depends on the return type of the method.
+					 * If it can be found now, it is instantiated directly. Otherwise the smart adapter is kept (and it will report the problem when adapting a query).
+					 */
+					Class<? extends WrapperAdapter> wrapperAdapterClass = SmartWrapperAdapter.findWrapperAdapterClass(methodResultType);
+					if(wrapperAdapterClass != null)
+						compositionAdapterClass = wrapperAdapterClass;
+				}
+				compositionAdapterConstructor = compositionAdapterClass.getConstructor();
+				eachSolutionType = compositionAdapterConstructor.newInstance().resolveEachSolutionType(methodResultType);
+				eachSolutionAdapterConstructor = logicRoutine.getEachSolutionAdapterClass(eachSolutionType).getConstructor();
+			}
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * 
+	 * @return the type of each solution. Null if the solutions of the query are not composed
+	 */
+	public Type getEachSolutionType() {
+		return eachSolutionType;
+	}
+	
+	/**
+	 * 
+	 * @param parsedLogicMethod the parsed logic method of an invocation
+	 * @return a new result adapter for the invocation
+	 */
+	public MethodResultAdapter create(ParsedLogicMethod parsedLogicMethod) {
+		try {
+			if(simpleAdapterConstructor != null)
+				return simpleAdapterConstructor.newInstance();
+			SolutionCompositionAdapter compositionAdapter = compositionAdapterConstructor.newInstance();
+			compositionAdapter.setParsedLogicMethod(parsedLogicMethod);
+			compositionAdapter.setEachSolutionType(eachSolutionType);
+			compositionAdapter.setEachSolutionAdapter(eachSolutionAdapterConstructor.newInstance());
+			return compositionAdapter;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+}
@@ -1,5 +1,8 @@
 package org.logicobjects.methodadapter.methodresult;
 
+import java.util.List;
+import java.util.Map;
+
 import org.jpc.query.Query;
 
 public class NumberOfSolutionsAdapter extends MethodResultAdapter<Integer> {
@@ -7,7 +10,22 @@ public class NumberOfSolutionsAdapter extends MethodResultAdapter<Integer> {
 	
 	@Override
 	public Integer adapt(Query query) {
-		return query.allSolutions().size();
+		int count = 0;
+		while(query.hasNext()) { //the solutions are counted without keeping them in memory
+			query.next();
+			count++;
+		}
+		return count;
+	}
+	
+	@Override
+	public boolean canAdaptSolutions() {
+		return true;
+	}
+	
+	@Override
+	public Integer adaptSolutions(List<Map> solutions) {
+		return solutions.size();
 	}
 
 }
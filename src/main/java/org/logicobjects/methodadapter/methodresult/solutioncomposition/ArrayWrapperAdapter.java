@@ -1,7 +1,9 @@
 package org.logicobjects.methodadapter.methodresult.solutioncomposition;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.jpc.query.Query;
 import org.minitoolbox.reflection.typewrapper.ArrayTypeWrapper;
@@ -11,8 +13,25 @@ public class ArrayWrapperAdapter<LogicAnswerType> extends WrapperAdapter<LogicAn
 
 	@Override
 	public LogicAnswerType[] adapt(Query query) {
-		List<LogicAnswerType> list = new SolutionEnumeration(query, getEachSolutionAdapter()).allElements();
+		List<LogicAnswerType> list = new ArrayList<>();
+		new SolutionEnumeration<LogicAnswerType>(query, getEachSolutionAdapter()).addAllElements(list); //no intermediate list of bindings
+		return asArray(list);
+	}
+	
+	@Override
+	public boolean canAdaptSolutions() {
+		return true;
+	}
+	
+	@Override
+	public LogicAnswerType[] adaptSolutions(List<Map> solutions) {
+		return asArray(adaptEachSolution(solutions));
+	}
+	
+	private LogicAnswerType[] asArray(List<LogicAnswerType> list) {
 		Class arrayClass = TypeWrapper.wrap(new ArrayTypeWrapper(getConcreteMethodResultType()).getComponentType()).getRawClass();
+		if(!arrayClass.isPrimitive()) //the presized array is filled in one step
+			return list.toArray((LogicAnswerType[]) Array.newInstance(arrayClass, list.size()));
 		Object array = Array.newInstance(arrayClass, list.size());
 		for(int i=0; i<list.size(); i++) {
 			Array.set(array, i, list.get(i));
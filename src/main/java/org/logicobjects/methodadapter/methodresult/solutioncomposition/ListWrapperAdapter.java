@@ -1,6 +1,7 @@
 package org.logicobjects.methodadapter.methodresult.solutioncomposition;
 
 import java.util.List;
+import java.util.Map;
 
 import org.jpc.query.Query;
 
@@ -11,7 +12,17 @@ public class ListWrapperAdapter<LogicAnswerType> extends WrapperAdapter<List<Log
 
 	@Override
 	public List<LogicAnswerType> adapt(Query query) {
-		return new SolutionEnumeration(query, getEachSolutionAdapter()).allElements();
+		return new SolutionEnumeration<LogicAnswerType>(query, getEachSolutionAdapter()).allElements(); //solutions are adapted as they are produced by the query
+	}
+	
+	@Override
+	public boolean canAdaptSolutions() {
+		return true;
+	}
+	
+	@Override
+	public List<LogicAnswerType> adaptSolutions(List<Map> solutions) {
+		return adaptEachSolution(solutions);
 	}
 
 }
@@ -1,6 +1,8 @@
 package org.logicobjects.methodadapter.methodresult.solutioncomposition;
 
 import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
 
 import org.jpc.query.Query;
 
@@ -20,8 +22,25 @@ public class OneSolutionAdapter<LogicSolutionType> extends SolutionCompositionAd
 	}
 
 	@Override
-	public Type getEachSolutionType() {
-		return getConcreteMethodResultType();
+	public boolean canAdaptSolutions() {
+		return true;
+	}
+	
+	@Override
+	public LogicSolutionType adaptSolutions(List<Map> solutions) {
+		if(solutions.isEmpty())
+			return null;
+		return getEachSolutionAdapter().adapt(solutions.get(0));
+	}
+	
+	@Override
+	public boolean requiresAllSolutions() {
+		return false;
+	}
+
+	@Override
+	public Type resolveEachSolutionType(Type concreteMethodResultType) {
+		return concreteMethodResultType;
 	}
 
 }
@@ -0,0 +1,18 @@
+package org.logicobjects.methodadapter.methodresult.solutioncomposition;
+
+import org.jpc.query.Query;
+import org.reactivestreams.Publisher;
+
+/*
+ * Adapt a logic query as a (Reactive Streams) Publisher pushing the solutions to a subscriber as it requests them.
+ * Solutions are requested to the query only when the subscriber demands them, and the query is closed if the subscription is cancelled.
+ * When the query is answered by a logic method, the query is opened and its solutions are fetched in the thread of the engine executing it.
+ */
+public class PublisherWrapperAdapter<LogicAnswerType> extends WrapperAdapter<Publisher<LogicAnswerType>, LogicAnswerType> {
+
+	@Override
+	public Publisher<LogicAnswerType> adapt(Query query) {
+		return new SolutionPublisher<LogicAnswerType>(new SolutionEnumeration<LogicAnswerType>(query, getEachSolutionAdapter()));
+	}
+
+}
@@ -1,6 +1,9 @@
 package org.logicobjects.methodadapter.methodresult.solutioncomposition;
 
 
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.jpc.query.Query;
@@ -29,9 +32,42 @@ public class SmartWrapperAdapter extends WrapperAdapter<Object, Object>  {
 		}
 	}
 	
+	@Override
+	public boolean canAdaptSolutions() {
+		return concreteWrapperAdapter().canAdaptSolutions();
+	}
+	
+	@Override
+	public Object adaptSolutions(List<Map> solutions) {
+		return concreteWrapperAdapter().adaptSolutions(solutions);
+	}
+	
+	private WrapperAdapter concreteWrapperAdapter() {
+		Class<? extends WrapperAdapter> wrapperAdapterClass = findWrapperAdapterClass();
+		if(wrapperAdapterClass == null)
+			throw new RuntimeException("Impossible to find a composition adapter");
+		try {
+			WrapperAdapter wrapperAdapter = wrapperAdapterClass.getConstructor().newInstance();
+			wrapperAdapter.setParsedLogicMethod(getParsedLogicMethod());
+			wrapperAdapter.setEachSolutionAdapter(getEachSolutionAdapter());
+			return wrapperAdapter;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
 	public Class findWrapperAdapterClass() {
-		Set<Class<? extends WrapperAdapter>> wrapperAdaptersClasses = LogicObjects.getCompositionAdapters();
-		TypeWrapper methodTypeWrapper = TypeWrapper.wrap(getConcreteMethodResultType());
+		return findWrapperAdapterClass(getConcreteMethodResultType());
+	}
+	
+	/**
+	 * 
+	 * @param methodResultType the (generic) return type of a logic method
+	 * @return a registered wrapper adapter class able to adapt a query to the given type. Null if no such adapter exists
+	 */
+	public static Class<? extends WrapperAdapter> findWrapperAdapterClass(Type methodResultType) {
+		Set<Class<? extends WrapperAdapter>> wrapperAdaptersClasses = LogicObjects.getDefault().getWrapperAdapters();
+		TypeWrapper methodTypeWrapper = TypeWrapper.wrap(methodResultType);
 		
 		for(Class wrapperAdaptersClass : wrapperAdaptersClasses) {
 			TypeWrapper wrapperAdapterReturnType = TypeWrapper.wrap(new TypeUtil().findAncestorTypeParameters(WrapperAdapter.class, wrapperAdaptersClass)[0]);
@@ -2,6 +2,8 @@ package org.logicobjects.methodadapter.methodresult.solutioncomposition;
 
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.logicobjects.converter.methodresult.MethodResultAdapter;
@@ -51,7 +53,40 @@ public abstract class SolutionCompositionAdapter<MethodResultType, EachSolutionT
 	*/
 
 	
+	/**
+	 * 
+	 * @param solutions collected solutions of the query
+	 * @return the solutions adapted by the each solution adapter
+	 */
+	protected List<EachSolutionType> adaptEachSolution(List<Map> solutions) {
+		List<EachSolutionType> adaptedSolutions = new ArrayList<>();
+		for(Map solution : solutions) {
+			adaptedSolutions.add(eachSolutionAdapter.adapt(solution));
+		}
+		return adaptedSolutions;
+	}
+	
 	public Type getEachSolutionType() {
+		if(eachSolutionType == null)
+			eachSolutionType = resolveEachSolutionType(getConcreteMethodResultType());
+		return eachSolutionType;
+	}
+	
+	/**
+	 * Sets an already resolved each solution type (e.g., cached by a MethodResultAdapterFactory)
+	 * @param eachSolutionType the type of each solution
+	 */
+	public void setEachSolutionType(Type eachSolutionType) {
+		this.eachSolutionType = eachSolutionType;
+	}
+	
+	/**
+	 * Resolves the type of each solution given the type of the method result.
+	 * This method depends only on the class of this adapter and on the given type, so its result can be cached per method.
+	 * @param concreteMethodResultType the (generic) return type of a logic method
+	 * @return the type of each solution
+	 */
+	public Type resolveEachSolutionType(Type concreteMethodResultType) {
 		TypeUtil util = new TypeUtil();
 		Type adapterWithBoundVariableTypes = util.bindTypeGivenDescendant(SolutionCompositionAdapter.class, getClass());
 		TypeWrapper wrappedAdapterType = TypeWrapper.wrap(adapterWithBoundVariableTypes);
@@ -60,7 +95,7 @@ public abstract class SolutionCompositionAdapter<MethodResultType, EachSolutionT
 		if(! (TypeWrapper.wrap(eachSolutionType) instanceof VariableTypeWrapper) )
 			return eachSolutionType;
 		
-		Map<TypeVariable, Type> map = util.unifyWithDescendant(declaredMethodResultType, getConcreteMethodResultType());
+		Map<TypeVariable, Type> map = util.unifyWithDescendant(declaredMethodResultType, concreteMethodResultType);
 		Type boundType = map.get(eachSolutionType);
 		
 		if(boundType==null)
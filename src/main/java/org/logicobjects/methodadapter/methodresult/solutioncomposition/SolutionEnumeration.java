@@ -1,13 +1,18 @@
 package org.logicobjects.methodadapter.methodresult.solutioncomposition;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jpc.query.Query;
 import org.jpc.term.AbstractTerm;
+import org.logicobjects.core.PrologEnginePool;
 import org.logicobjects.methodadapter.methodresult.eachsolution.EachSolutionAdapter;
 
 /*
@@ -17,11 +22,14 @@ import org.logicobjects.methodadapter.methodresult.eachsolution.EachSolutionAdap
  * However, the class does not implements Iterable (and then it cannot be used in enhanced 'for' loops) since then it should provide a method for returning an Iterator. 
  * Then this method in theory could be called as many times as needed and in parallel. 
  * However, the wrapped query will not behave adequately in such circumstance.
+ * If the enumeration is created in the thread of a pooled engine (as it happens with the results of asynchronous logic methods, or of all the logic methods if the pool is confined), the query is accessed with that engine (see PooledEngine.call(Callable)), whatever the thread using the enumeration.
  */
 public class SolutionEnumeration<EachSolutionType> implements Enumeration<EachSolutionType>, Iterator<EachSolutionType> /*, Iterable<LogicAnswerType>*/ { 
 
 	private EachSolutionAdapter<EachSolutionType> adapter;
-	private Query query;
+	private final Query query;
+	private Runnable closeHandler; //executed (once) when the query is exhausted or closed
+	private final PrologEnginePool.PooledEngine engine; //the engine of the thread that created the query, null if the query was created by another thread
 	
 	public SolutionEnumeration(Query query) {
 		this(query, (EachSolutionAdapter<EachSolutionType>) new EachSolutionAdapter.EachSolutionMapAdapter());
@@ -30,19 +38,45 @@ public class SolutionEnumeration<EachSolutionType> implements Enumeration<EachSo
 	public SolutionEnumeration(Query query, EachSolutionAdapter<EachSolutionType> adapter) {
 		this.query = query;
 		this.adapter = adapter;
+		this.engine = PrologEnginePool.engineOfCurrentThread();
+	}
+	
+	private <T> T withEngine(Callable<T> task) {
+		if(engine != null)
+			return engine.call(task);
+		try {
+			return task.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
 	}
 	
 	//will close the query when no more elements are present
 	@Override
 	public boolean hasMoreElements() {
-		return query.hasNext();
+		boolean hasMoreElements = withEngine(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return query.hasNext();
+			}
+		});
+		if(!hasMoreElements)
+			closed();
+		return hasMoreElements;
 	}
 
 	@Override
 	public EachSolutionType nextElement() {
-		if(hasMoreElements())
-			return adapter.adapt((Map)query.next());
-		else
+		if(hasMoreElements()) {
+			return withEngine(new Callable<EachSolutionType>() {
+				@Override
+				public EachSolutionType call() {
+					return adapter.adapt((Map)query.next());
+				}
+			});
+		} else
 			return null;
 	}
 	
@@ -57,12 +91,64 @@ public class SolutionEnumeration<EachSolutionType> implements Enumeration<EachSo
 	/*
 	 * will not close the query, it should be closed afterwards
 	 */
-	public List<EachSolutionType> nElements(long n) {
-		return asList(query.nSolutions(n));
+	public List<EachSolutionType> nElements(final long n) {
+		return withEngine(new Callable<List<EachSolutionType>>() {
+			@Override
+			public List<EachSolutionType> call() {
+				return asList(query.nSolutions(n));
+			}
+		});
 	}
 	
+	/*
+	 * Solutions are adapted one by one as they are produced by the query. 
+	 * Therefore the bindings of all the solutions are never in memory at the same time.
+	 */
 	public List<EachSolutionType> allElements() {
-		return asList(query.allSolutions());
+		List<EachSolutionType> answers = new ArrayList<EachSolutionType>();
+		addAllElements(answers);
+		return answers;
+	}
+	
+	/**
+	 * Adds all the (remaining) adapted solutions to a collection. Each solution is adapted as soon as it is produced by the query.
+	 * @param collection the collection where the solutions are added
+	 * @return the number of added solutions
+	 */
+	public int addAllElements(final Collection<? super EachSolutionType> collection) {
+		int count;
+		try {
+			count = withEngine(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					int count = 0;
+					while(query.hasNext()) {
+						collection.add(adapter.adapt((Map)query.next()));
+						count++;
+					}
+					return count;
+				}
+			});
+		} catch(RuntimeException e) {
+			close(); //the query may not have been exhausted
+			throw e;
+		}
+		closed(); //the query is exhausted
+		return count;
+	}
+	
+	/**
+	 * Answers a sequential stream of the (remaining) adapted solutions. Solutions are produced lazily.
+	 * The query is closed when the stream is closed, so the stream should be used in a try-with-resources block if it may not be completely consumed.
+	 * @return a stream of the solutions
+	 */
+	public Stream<EachSolutionType> stream() {
+		return StreamSupport.stream(new SolutionSpliterator<EachSolutionType>(this), false).onClose(new Runnable() {
+			@Override
+			public void run() {
+				close();
+			}
+		});
 	}
 	/*
 	public void open() {
@@ -70,7 +156,50 @@ public class SolutionEnumeration<EachSolutionType> implements Enumeration<EachSo
 	}
 	*/
 	public void close() {
-		query.close();
+		try {
+			withEngine(new Callable<Void>() {
+				@Override
+				public Void call() {
+					query.close();
+					return null;
+				}
+			});
+		} finally {
+			closed();
+		}
+	}
+	
+	/**
+	 * Registers an action to execute when the query is exhausted or closed (e.g., releasing the logic engine executing the query).
+	 * Previously registered actions are also executed.
+	 * @param handler the action
+	 */
+	public synchronized void onClose(final Runnable handler) {
+		if(closeHandler == null) {
+			closeHandler = handler;
+		} else {
+			final Runnable previousHandler = closeHandler;
+			closeHandler = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						previousHandler.run();
+					} finally {
+						handler.run();
+					}
+				}
+			};
+		}
+	}
+	
+	private void closed() {
+		Runnable handler;
+		synchronized(this) {
+			handler = closeHandler;
+			closeHandler = null;
+		}
+		if(handler != null)
+			handler.run();
 	}
 	/*
 	public void rewind() {
@@ -0,0 +1,165 @@
+package org.logicobjects.methodadapter.methodresult.solutioncomposition;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Publishes the solutions of a query to a single subscriber, according to its demand.
+ * Solutions are requested to the query only when the subscriber requests them (request(n) fetches at most n more solutions), so no thread is blocked waiting for the subscriber.
+ * Solutions are fetched by the executor of the publisher (by default, the thread requesting them). Only one fetching task runs at a time, so the query is never accessed concurrently.
+ * The query is closed when it has no more solutions, when fetching a solution fails, when the subscriber throws an exception receiving a solution, or when the subscription is cancelled.
+ * Since a query can only be traversed once, a publisher accepts only one subscriber.
+ * This is a Reactive Streams publisher. On Java 9 or later it can be converted to a java.util.concurrent.Flow.Publisher with org.reactivestreams.FlowAdapters.
+ */
+public class SolutionPublisher<EachSolutionType> implements Publisher<EachSolutionType> {
+
+	private static final Executor CALLER_EXECUTOR = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+	
+	private final SolutionEnumeration<EachSolutionType> solutionEnumeration;
+	private volatile Executor executor = CALLER_EXECUTOR;
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+	
+	public SolutionPublisher(SolutionEnumeration<EachSolutionType> solutionEnumeration) {
+		this.solutionEnumeration = solutionEnumeration;
+	}
+	
+	/**
+	 * @param executor the executor fetching the solutions. It should be set before a subscriber subscribes
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * Registers an action to execute when the query is exhausted or closed
+	 * @param handler the action
+	 * @see SolutionEnumeration#onClose(Runnable)
+	 */
+	public void onClose(Runnable handler) {
+		solutionEnumeration.onClose(handler);
+	}
+	
+	@Override
+	public void subscribe(Subscriber<? super EachSolutionType> subscriber) {
+		if(subscriber == null)
+			throw new NullPointerException();
+		if(subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new SolutionSubscription(subscriber));
+		} else {
+			subscriber.onSubscribe(new Subscription() {
+				@Override
+				public void request(long n) {}
+				@Override
+				public void cancel() {}
+			});
+			subscriber.onError(new IllegalStateException("The solutions of a query can only be published to one subscriber"));
+		}
+	}
+	
+	private class SolutionSubscription implements Subscription, Runnable {
+		private final Subscriber<? super EachSolutionType> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger pendingSignals = new AtomicInteger(); //requests and cancellations not yet seen by the fetching task
+		private volatile boolean cancelled;
+		private volatile Throwable invalidRequest;
+		private boolean done; //only accessed by the fetching task
+		
+		public SolutionSubscription(Subscriber<? super EachSolutionType> subscriber) {
+			this.subscriber = subscriber;
+		}
+		
+		@Override
+		public void request(long n) {
+			if(n <= 0) {
+				invalidRequest = new IllegalArgumentException("The number of requested solutions should be positive. Requested: " + n);
+				cancelled = true;
+			} else {
+				long previousDemand, newDemand;
+				do {
+					previousDemand = demand.get();
+					if(previousDemand == Long.MAX_VALUE) //unbounded demand
+						return;
+					newDemand = previousDemand + n;
+					if(newDemand < 0) //overflow
+						newDemand = Long.MAX_VALUE;
+				} while(!demand.compareAndSet(previousDemand, newDemand));
+			}
+			schedule();
+		}
+		
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule(); //the query is closed by the fetching task, since it may be using it right now
+		}
+		
+		private void schedule() {
+			if(pendingSignals.getAndIncrement() == 0)
+				executor.execute(this);
+		}
+		
+		/**
+		 * The fetching task. Fetches solutions while there is demand, then exits (it is scheduled again when more solutions are requested).
+		 */
+		@Override
+		public void run() {
+			int signals = 1;
+			do {
+				if(done)
+					return;
+				long requested = demand.get();
+				long emitted = 0;
+				while(emitted != requested && !cancelled) {
+					EachSolutionType solution;
+					try {
+						if(!solutionEnumeration.hasMoreElements()) { //the query is closed when it has no more solutions
+							done = true;
+							subscriber.onComplete();
+							return;
+						}
+						solution = solutionEnumeration.next();
+					} catch(Throwable e) {
+						done = true;
+						solutionEnumeration.close();
+						subscriber.onError(e);
+						return;
+					}
+					boolean delivered = false;
+					try {
+						subscriber.onNext(solution);
+						delivered = true;
+					} finally {
+						if(!delivered) { //a subscriber throwing an exception is considered to have cancelled its subscription
+							done = true;
+							cancelled = true;
+							solutionEnumeration.close();
+						}
+					}
+					emitted++;
+				}
+				if(cancelled) {
+					done = true;
+					solutionEnumeration.close();
+					if(invalidRequest != null)
+						subscriber.onError(invalidRequest);
+					return;
+				}
+				if(requested != Long.MAX_VALUE)
+					demand.addAndGet(-emitted);
+				signals = pendingSignals.addAndGet(-signals);
+			} while(signals != 0);
+		}
+	}
+	
+}
@@ -0,0 +1,49 @@
+package org.logicobjects.methodadapter.methodresult.solutioncomposition;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/*
+ * A lazy spliterator over the solutions of a query.
+ * A solution is requested to the query only when the spliterator is advanced, so short-circuiting stream operations (e.g., findFirst, limit) do not pull the remaining solutions.
+ * The query is closed as soon as it has no more solutions. If the spliterator is not exhausted, the query should be closed explicitly (e.g., by closing the stream using this spliterator).
+ * The number of solutions of a query is not known in advance, and this spliterator cannot be split, since a query can only be traversed sequentially.
+ */
+public class SolutionSpliterator<EachSolutionType> implements Spliterator<EachSolutionType> {
+
+	private final SolutionEnumeration<EachSolutionType> solutionEnumeration;
+	private boolean exhausted;
+	
+	public SolutionSpliterator(SolutionEnumeration<EachSolutionType> solutionEnumeration) {
+		this.solutionEnumeration = solutionEnumeration;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super EachSolutionType> action) {
+		if(exhausted)
+			return false;
+		if(!solutionEnumeration.hasNext()) {
+			exhausted = true;
+			solutionEnumeration.close();
+			return false;
+		}
+		action.accept(solutionEnumeration.next());
+		return true;
+	}
+
+	@Override
+	public Spliterator<EachSolutionType> trySplit() {
+		return null;
+	}
+
+	@Override
+	public long estimateSize() {
+		return exhausted ? 0 : Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED;
+	}
+
+}
@@ -0,0 +1,32 @@
+package org.logicobjects.methodadapter.methodresult.solutioncomposition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.jpc.query.Query;
+
+/*
+ * Adapt a logic query as a (lazy and sequential) Stream.
+ * Solutions are requested to the query only when the stream needs them. 
+ * The query is closed when the stream is closed (or when all the solutions have been consumed). 
+ * Therefore streams not completely consumed should be closed (e.g., with a try-with-resources block).
+ */
+public class StreamWrapperAdapter<LogicAnswerType> extends WrapperAdapter<Stream<LogicAnswerType>, LogicAnswerType> {
+
+	@Override
+	public Stream<LogicAnswerType> adapt(Query query) {
+		return new SolutionEnumeration<LogicAnswerType>(query, getEachSolutionAdapter()).stream();
+	}
+	
+	@Override
+	public boolean canAdaptSolutions() {
+		return true;
+	}
+	
+	@Override
+	public Stream<LogicAnswerType> adaptSolutions(List<Map> solutions) {
+		return adaptEachSolution(solutions).stream();
+	}
+
+}
@@ -0,0 +1,66 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.test.fixture.MyAsynchronousLogicMethods;
+
+public class TestAsynchronousLogicMethods extends LocalLogicTest {
+
+	private static final String ENGINE_THREAD_PREFIX = "logicobjects-engine-";
+
+	@Test
+	public void testFutureResult() throws Exception {
+		MyAsynchronousLogicMethods logicObject = LogicObjects.newLogicObject(MyAsynchronousLogicMethods.class);
+		assertEquals(true, logicObject.same("a", "a").get());
+		assertEquals(false, logicObject.same("a", "b").get());
+		assertNull(logicObject.run().get());
+	}
+	
+	@Test
+	public void testManyPendingInvocations() throws Exception {
+		MyAsynchronousLogicMethods logicObject = LogicObjects.newLogicObject(MyAsynchronousLogicMethods.class);
+		List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+		for(int i = 0; i < 100; i++) {
+			futures.add(logicObject.same("a" + i, "a" + (i % 2 == 0 ? i : i + 1)));
+		}
+		for(int i = 0; i < futures.size(); i++) {
+			assertEquals(i % 2 == 0, futures.get(i).get());
+		}
+	}
+	
+	@Test
+	public void testInvocationThreads() throws Exception {
+		final MyAsynchronousLogicMethods logicObject = LogicObjects.newLogicObject(MyAsynchronousLogicMethods.class);
+		assertFalse(LogicObjects.getDefault().getPreferences().isEngineThreadConfinement());
+		String asynchronousThread = logicObject.threadName().get();
+		String synchronousThread = logicObject.synchronousThreadName();
+		assertTrue(asynchronousThread.startsWith(ENGINE_THREAD_PREFIX));
+		assertEquals(Thread.currentThread().getName(), synchronousThread); //engines are not confined by default, so synchronous invocations do not change of thread
+		
+		//asynchronous invocations from other threads are also executed in the engine threads
+		List<CompletableFuture<String>> futures = new ArrayList<>();
+		for(int i = 0; i < 10; i++) {
+			futures.add(CompletableFuture.supplyAsync(new Supplier<String>() {
+				@Override
+				public String get() {
+					return logicObject.threadName().join();
+				}
+			}));
+			futures.add(logicObject.threadName());
+		}
+		for(CompletableFuture<String> future : futures) {
+			assertTrue(future.get().startsWith(ENGINE_THREAD_PREFIX));
+		}
+	}
+	
+}
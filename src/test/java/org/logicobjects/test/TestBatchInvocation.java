@@ -0,0 +1,53 @@
+package org.logicobjects.test;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.test.fixture.MyPublisherLogicMethods;
+import org.logicobjects.test.fixture.MyTrivialLogicMethods;
+
+public class TestBatchInvocation extends LocalLogicTest {
+
+	@Test
+	public void testInvokeAll() throws NoSuchMethodException {
+		MyTrivialLogicMethods logicObject = LogicObjects.newLogicObject(MyTrivialLogicMethods.class);
+		Method method = MyTrivialLogicMethods.class.getMethod("same", String.class, String.class);
+		List<Object[]> argumentsList = asList(new Object[]{"a", "a"}, new Object[]{"a", "b"}, new Object[]{"b", "b"});
+		List<Object> results = LogicObjects.invokeAll(logicObject, method, argumentsList);
+		assertEquals(asList(true, false, true), results);
+		for(int i = 0; i < argumentsList.size(); i++) { //same results as independent invocations
+			Object[] arguments = argumentsList.get(i);
+			assertEquals(logicObject.same((String)arguments[0], (String)arguments[1]), results.get(i));
+		}
+	}
+	
+	@Test
+	public void testInvokeAllWithoutArguments() throws NoSuchMethodException {
+		MyTrivialLogicMethods logicObject = LogicObjects.newLogicObject(MyTrivialLogicMethods.class);
+		Method method = MyTrivialLogicMethods.class.getMethod("same", String.class, String.class);
+		assertEquals(Collections.emptyList(), LogicObjects.invokeAll(logicObject, method, Collections.<Object[]>emptyList()));
+	}
+	
+	@Test
+	public void testLazyResultsRejected() throws NoSuchMethodException {
+		MyPublisherLogicMethods logicObject = LogicObjects.newLogicObject(MyPublisherLogicMethods.class);
+		Method method = MyPublisherLogicMethods.class.getMethod("numbers");
+		int fetched = MyPublisherLogicMethods.fetchedSolutions.get();
+		try {
+			LogicObjects.invokeAll(logicObject, method, asList(new Object[]{}, new Object[]{}));
+			fail();
+		} catch(IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("numbers"));
+		}
+		assertEquals(fetched, MyPublisherLogicMethods.fetchedSolutions.get());
+	}
+	
+}
@@ -0,0 +1,165 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javassist.ClassPool;
+
+import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+import org.junit.Test;
+import org.logicobjects.instrumentation.GeneratedClassCache;
+import org.logicobjects.instrumentation.InstrumentationBackend;
+import org.logicobjects.instrumentation.LogicObjectInstrumentation;
+import org.logicobjects.test.fixture.MyManyLogicMethods;
+import org.logicobjects.test.fixture.MyPrimitiveLogicMethods;
+import org.logicobjects.test.fixture.MyTrivialLogicMethods;
+
+/**
+ * Verifies that the members emitted as bytecode behave as the ones compiled from source code.
+ * The class of a logic class is generated with each backend and loaded in its own class loader, so both classes can be loaded at the same time.
+ * @author scastro
+ *
+ */
+public class TestBytecodeMemberEmitter extends LocalLogicTest {
+
+	private static class GeneratedClassLoader extends ClassLoader {
+		public GeneratedClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+		
+		public Class define(String className, byte[] bytecode) {
+			return defineClass(className, bytecode, 0, bytecode.length);
+		}
+	}
+	
+	/**
+	 * Generates (with the given backend) and loads the class of a logic class
+	 */
+	private static Class instrument(Class logicClass, InstrumentationBackend backend) {
+		byte[] bytecode = new LogicObjectInstrumentation(logicClass, new ClassPool(true), new GeneratedClassCache(null, false), backend).generateExtendingClass(); //the on disk cache is disabled
+		return new GeneratedClassLoader(logicClass.getClassLoader()).define(LogicObjectInstrumentation.instrumentedClassName(logicClass), bytecode);
+	}
+	
+	/**
+	 * Instantiates a generated class and sets the engine configuration of the instance
+	 */
+	private static Object newInstance(Class generatedClass) throws Exception {
+		Object logicObject = generatedClass.newInstance();
+		generatedClass.getMethod(accessorName("set", LogicObjectInstrumentation.LOGIC_ENGINE_CONFIG_FIELD_NAME), AbstractPrologEngineDriver.class).invoke(logicObject, logicEngineConfig);
+		return logicObject;
+	}
+	
+	private static String accessorName(String prefix, String propertyName) {
+		return prefix + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+	}
+	
+	/**
+	 * @return the public methods declared by a generated class, indexed by their signatures
+	 */
+	private static Map<String, Method> declaredMethods(Class generatedClass) {
+		Map<String, Method> methods = new TreeMap<>();
+		for(Method method : generatedClass.getDeclaredMethods()) {
+			if(Modifier.isPublic(method.getModifiers()))
+				methods.put(method.toGenericString(), method); //both generated classes have the same name
+		}
+		return methods;
+	}
+	
+	private static Object[] sampleArguments(Method method) {
+		Class[] parameterTypes = method.getParameterTypes();
+		Object[] arguments = new Object[parameterTypes.length];
+		for(int i = 0; i < parameterTypes.length; i++) {
+			Class parameterType = parameterTypes[i];
+			if(parameterType.equals(String.class))
+				arguments[i] = "a";
+			else if(parameterType.equals(int.class))
+				arguments[i] = i + 1;
+			else if(parameterType.equals(long.class))
+				arguments[i] = (long) i + 1;
+			else if(parameterType.equals(double.class))
+				arguments[i] = i + 1.5;
+			else
+				throw new IllegalArgumentException("No sample argument of type " + parameterType);
+		}
+		return arguments;
+	}
+	
+	/**
+	 * Invokes all the logic methods of a logic class in instances of its class generated with each backend, and verifies that their results are the same
+	 */
+	private static void assertSameBehaviour(Class logicClass) throws Exception {
+		Class sourceClass = instrument(logicClass, InstrumentationBackend.SOURCE);
+		Class bytecodeClass = instrument(logicClass, InstrumentationBackend.BYTECODE);
+		assertNotSame(sourceClass, bytecodeClass);
+		assertFalse(Modifier.isAbstract(bytecodeClass.getModifiers()));
+		assertEquals(logicClass, bytecodeClass.getSuperclass());
+		Map<String, Method> sourceMethods = declaredMethods(sourceClass);
+		Map<String, Method> bytecodeMethods = declaredMethods(bytecodeClass);
+		assertEquals(sourceMethods.keySet(), bytecodeMethods.keySet()); //same signatures, including generic types
+		
+		Object sourceObject = newInstance(sourceClass);
+		Object bytecodeObject = newInstance(bytecodeClass);
+		for(Method logicMethod : logicClass.getDeclaredMethods()) {
+			if(!Modifier.isAbstract(logicMethod.getModifiers()) || logicMethod.getName().startsWith("get") || logicMethod.getName().startsWith("set"))
+				continue;
+			Object[] arguments = sampleArguments(logicMethod);
+			Object sourceResult = sourceClass.getMethod(logicMethod.getName(), logicMethod.getParameterTypes()).invoke(sourceObject, arguments);
+			Object bytecodeResult = bytecodeClass.getMethod(logicMethod.getName(), logicMethod.getParameterTypes()).invoke(bytecodeObject, arguments);
+			assertEquals("Result of " + logicMethod, sourceResult, bytecodeResult);
+		}
+	}
+	
+	@Test
+	public void testTrivialLogicMethods() throws Exception {
+		assertSameBehaviour(MyTrivialLogicMethods.class);
+		MyTrivialLogicMethods logicObject = (MyTrivialLogicMethods) newInstance(instrument(MyTrivialLogicMethods.class, InstrumentationBackend.BYTECODE));
+		assertTrue(logicObject.alwaysTrue());
+		assertTrue(logicObject.same("a", "a"));
+		assertFalse(logicObject.same("a", "b"));
+	}
+	
+	@Test
+	public void testManyLogicMethods() throws Exception {
+		assertSameBehaviour(MyManyLogicMethods.class);
+		MyManyLogicMethods logicObject = (MyManyLogicMethods) newInstance(instrument(MyManyLogicMethods.class, InstrumentationBackend.BYTECODE));
+		assertTrue(logicObject.alwaysTrue20());
+		assertFalse(logicObject.same20("a", "b"));
+		logicObject.lessOrEqual20(1L, 1.5); //long and double parameters take two slots each
+	}
+	
+	@Test
+	public void testPrimitiveLogicMethods() throws Exception {
+		assertSameBehaviour(MyPrimitiveLogicMethods.class);
+		MyPrimitiveLogicMethods logicObject = (MyPrimitiveLogicMethods) newInstance(instrument(MyPrimitiveLogicMethods.class, InstrumentationBackend.BYTECODE));
+		assertEquals(3L, logicObject.sum(1L, 2L));
+		assertEquals(2.5, logicObject.half(5.0), 0);
+		assertEquals(7, logicObject.identity(7));
+		assertTrue(logicObject.lessOrEqual(1, 1.5));
+		assertFalse(logicObject.lessOrEqual(2, 1.5));
+		logicObject.checkLessOrEqual(1L, 1.5);
+	}
+	
+	@Test
+	public void testAccessors() throws Exception {
+		for(InstrumentationBackend backend : Arrays.asList(InstrumentationBackend.SOURCE, InstrumentationBackend.BYTECODE)) {
+			Class generatedClass = instrument(MyPrimitiveLogicMethods.class, backend);
+			MyPrimitiveLogicMethods logicObject = (MyPrimitiveLogicMethods) newInstance(generatedClass);
+			logicObject.setCount(Long.MAX_VALUE);
+			logicObject.setWeight(0.5);
+			assertEquals(backend.name(), Long.MAX_VALUE, logicObject.getCount());
+			assertEquals(backend.name(), 0.5, logicObject.getWeight(), 0);
+			generatedClass.getMethod("setLabel", Object.class).invoke(logicObject, "label");
+			assertEquals(backend.name(), "label", generatedClass.getMethod("getLabel").invoke(logicObject));
+			assertEquals(backend.name(), logicEngineConfig, generatedClass.getMethod(accessorName("get", LogicObjectInstrumentation.LOGIC_ENGINE_CONFIG_FIELD_NAME)).invoke(logicObject));
+		}
+	}
+	
+}
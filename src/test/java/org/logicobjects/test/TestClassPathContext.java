@@ -0,0 +1,27 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.logicobjects.core.ClassPathContext;
+import org.logicobjects.examples.metro.Station;
+
+public class TestClassPathContext extends LocalLogicTest {
+
+	@Test
+	public void testFindLogicClass() {
+		ClassPathContext context = new ClassPathContext();
+		assertEquals(Station.class, context.findLogicClass("station", 1));
+		assertNull(context.findLogicClass("station", 2));
+		assertNull(context.findLogicClass("no_logic_class", 1));
+	}
+	
+	@Test
+	public void testFindLogicClassAfterRefresh() {
+		ClassPathContext context = new ClassPathContext();
+		context.addPackage(Station.class.getPackage().getName());
+		assertEquals(Station.class, context.findLogicClass("station", 1));
+	}
+	
+}
@@ -0,0 +1,87 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.annotation.method.LQuery;
+import org.logicobjects.instrumentation.LogicObjectInstrumentation;
+
+/**
+ * Stress test for the concurrent generation of instrumented classes.
+ * Many threads create at the same time instances of logic classes that have not been generated yet.
+ * @author scastro
+ *
+ */
+public class TestConcurrentInstrumentation extends LocalLogicTest {
+
+	private static final int THREADS = 32;
+	private static final int INSTANCES_PER_THREAD = 50;
+	
+	@LObject
+	public static abstract class MyConcurrentLogicObject1 {
+		@LQuery("true")
+		public abstract boolean alwaysTrue();
+	}
+	
+	@LObject
+	public static abstract class MyConcurrentLogicObject2 {
+		@LQuery("true")
+		public abstract boolean alwaysTrue();
+	}
+	
+	@LObject
+	public static abstract class MyConcurrentLogicObject3 {
+		@LQuery("true")
+		public abstract boolean alwaysTrue();
+	}
+	
+	private static final Class[] LOGIC_CLASSES = new Class[] {MyConcurrentLogicObject1.class, MyConcurrentLogicObject2.class, MyConcurrentLogicObject3.class};
+	
+	@Test
+	public void testConcurrentCreation() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		final CountDownLatch startSignal = new CountDownLatch(1);
+		List<Future<List<Object>>> futures = new ArrayList<>();
+		try {
+			for(int i = 0; i < THREADS; i++) {
+				final int threadIndex = i;
+				futures.add(executor.submit(new Callable<List<Object>>() {
+					@Override
+					public List<Object> call() throws Exception {
+						startSignal.await(); //all the threads start creating objects at the same time
+						List<Object> logicObjects = new ArrayList<>();
+						for(int j = 0; j < INSTANCES_PER_THREAD; j++) {
+							Class logicClass = LOGIC_CLASSES[(threadIndex + j) % LOGIC_CLASSES.length];
+							logicObjects.add(LogicObjects.newLogicObject(logicClass));
+						}
+						return logicObjects;
+					}
+				}));
+			}
+			startSignal.countDown();
+			for(Future<List<Object>> future : futures) {
+				for(Object logicObject : future.get()) { //rethrows any exception (e.g., a duplicated class definition) thrown by a creating thread
+					Class generatedClass = logicObject.getClass();
+					assertEquals(LogicObjectInstrumentation.instrumentedClassName(generatedClass.getSuperclass()), generatedClass.getName());
+					assertTrue(LogicObjects.getDefault().getLogicObjectFactory().getInstantiatingClass(generatedClass.getSuperclass()) == generatedClass); //only one generated class per logic class
+				}
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+	
+}
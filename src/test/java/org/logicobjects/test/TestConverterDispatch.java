@@ -0,0 +1,81 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.jpc.term.Atom;
+import org.jpc.term.Compound;
+import org.jpc.term.Term;
+import org.junit.Test;
+import org.logicobjects.converter.old.ObjectToTermConverter;
+import org.logicobjects.converter.old.TermToObjectConverter;
+import org.logicobjects.test.fixture.MyPoint;
+
+/**
+ * Tests that the converters dispatch the common types (strings, numbers, terms and annotated classes) to the same conversions as when they were tried one after the other.
+ * @author scastro
+ *
+ */
+public class TestConverterDispatch extends LocalLogicTest {
+
+	private static Term asTerm(Object object) {
+		return new ObjectToTermConverter().adapt(object);
+	}
+
+	private static Object asObject(Term term, Class clazz) {
+		return new TermToObjectConverter().adapt(term, clazz);
+	}
+
+	@Test
+	public void testSimpleValuesToTerms() {
+		assertEquals(Term.newTerm("hello"), asTerm("hello"));
+		assertEquals(Term.newTerm(new StringBuilder("hello")), asTerm(new StringBuilder("hello")));
+		assertEquals(Term.newTerm(42), asTerm(42));
+		assertEquals(Term.newTerm(42L), asTerm(42L));
+		assertEquals(Term.newTerm(0.5), asTerm(0.5));
+		assertEquals(Term.newTerm(true), asTerm(true));
+		assertEquals(asTerm(42), asTerm(42)); //the cached strategy of the class is used the second time
+	}
+
+	@Test
+	public void testTermsToTerms() {
+		Term atom = new Atom("hello");
+		assertSame(atom, asTerm(atom));
+		Term compound = new Compound("point", Arrays.<Term>asList(new Atom("a"), new Atom("b")));
+		assertSame(compound, asTerm(compound));
+		assertSame(atom, asObject(atom, Term.class));
+		assertSame(compound, asObject(compound, Term.class));
+	}
+
+	@Test
+	public void testTermsToSimpleValues() {
+		assertEquals("hello", asObject(new Atom("hello"), String.class));
+		assertEquals("hello", asObject(new Atom("hello"), Object.class)); //atoms are converted to strings if the target class accepts them
+		assertEquals(42, asObject(Term.newTerm(42), Integer.class));
+		assertEquals(42, asObject(Term.newTerm(42), int.class));
+		assertEquals(42L, asObject(Term.newTerm(42), Long.class));
+		assertEquals(0.5, asObject(Term.newTerm(0.5), Double.class));
+		assertEquals(42, asObject(new Atom("42"), Integer.class)); //atoms can be converted to numbers
+		assertEquals(true, asObject(new Atom("true"), Boolean.class));
+		assertEquals('a', asObject(new Atom("a"), Character.class));
+	}
+
+	@Test
+	public void testAnnotatedClasses() {
+		MyPoint point = new MyPoint(1, "origin", 0.5, 2.0, true);
+		Term expectedTerm = new Compound("my_point", Arrays.<Term>asList(Term.newTerm(1), Term.newTerm("origin"), Term.newTerm(0.5), Term.newTerm(2.0), Term.newTerm(true)));
+		Term pointTerm = asTerm(point);
+		assertEquals(expectedTerm, pointTerm);
+		assertEquals(expectedTerm, asTerm(point));
+
+		MyPoint adaptedPoint = (MyPoint) asObject(pointTerm, MyPoint.class);
+		assertEquals(1, adaptedPoint.getId());
+		assertEquals("origin", adaptedPoint.getLabel());
+		assertEquals(0.5, adaptedPoint.getX(), 0);
+		assertEquals(2.0, adaptedPoint.getY(), 0);
+		assertEquals(true, adaptedPoint.isVisible());
+	}
+
+}
@@ -0,0 +1,53 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.logicobjects.annotation.LFlush;
+import org.logicobjects.annotation.method.LQuery;
+import org.logicobjects.instrumentation.FlushMode;
+import org.logicobjects.instrumentation.FlushPolicy;
+
+public class TestFlushPolicy extends LocalLogicTest {
+
+	@LFlush(FlushMode.NEVER)
+	public static abstract class MyNeverFlushingLogicMethods {
+		@LQuery("true")
+		public abstract boolean inheritingFlushMode();
+		
+		@LFlush(value=FlushMode.PERIODIC, everyCalls=100, everyMillis=50)
+		@LQuery("true")
+		public abstract boolean periodicallyFlushing();
+	}
+	
+	public static abstract class MyDefaultFlushingLogicMethods {
+		@LQuery("true")
+		public abstract boolean defaultFlushing();
+	}
+	
+	@Test
+	public void testClassFlushMode() throws NoSuchMethodException {
+		FlushPolicy flushPolicy = FlushPolicy.forMethod(MyNeverFlushingLogicMethods.class.getMethod("inheritingFlushMode"));
+		assertEquals(FlushMode.NEVER, flushPolicy.getMode());
+	}
+	
+	@Test
+	public void testMethodFlushMode() throws NoSuchMethodException {
+		FlushPolicy flushPolicy = FlushPolicy.forMethod(MyNeverFlushingLogicMethods.class.getMethod("periodicallyFlushing"));
+		assertEquals(FlushMode.PERIODIC, flushPolicy.getMode());
+		assertEquals(100, flushPolicy.getEveryCalls());
+		assertEquals(50, flushPolicy.getEveryMillis());
+	}
+	
+	@Test
+	public void testDefaultFlushMode() throws NoSuchMethodException {
+		FlushPolicy flushPolicy = FlushPolicy.forMethod(MyDefaultFlushingLogicMethods.class.getMethod("defaultFlushing"));
+		assertEquals(FlushMode.ALWAYS, flushPolicy.getMode());
+	}
+	
+	@Test(expected=RuntimeException.class)
+	public void testPeriodicWithoutPeriod() {
+		new FlushPolicy(FlushMode.PERIODIC, 0, 0);
+	}
+	
+}
@@ -0,0 +1,103 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.Test;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.LogicObjectsPreferences;
+import org.logicobjects.instrumentation.GeneratedClassCache;
+import org.logicobjects.instrumentation.InstrumentationBackend;
+import org.logicobjects.test.fixture.MyPoint;
+import org.logicobjects.test.fixture.MyTrivialLogicMethods;
+
+public class TestGeneratedClassCache extends LocalLogicTest {
+
+	private static final byte[] BYTECODE = new byte[] {(byte)0xCA, (byte)0xFE, (byte)0xBA, (byte)0xBE};
+	
+	@Test
+	public void testHitsAndMisses() throws IOException {
+		File directory = Files.createTempDirectory("logicobjects").toFile();
+		GeneratedClassCache cache = new GeneratedClassCache(directory, true);
+		assertNull(cache.load(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE));
+		cache.store(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE, BYTECODE);
+		assertArrayEquals(BYTECODE, cache.load(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE));
+		assertNull(cache.load(MyPoint.class, InstrumentationBackend.SOURCE));
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertArrayEquals(BYTECODE, new GeneratedClassCache(directory, true).load(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE)); //entries survive the cache instance
+	}
+	
+	@Test
+	public void testEntriesPerBackend() throws IOException {
+		File directory = Files.createTempDirectory("logicobjects").toFile();
+		GeneratedClassCache cache = new GeneratedClassCache(directory, true);
+		cache.store(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE, BYTECODE);
+		assertNull(cache.load(MyTrivialLogicMethods.class, InstrumentationBackend.BYTECODE)); //a class generated by another backend is not reused
+		assertArrayEquals(BYTECODE, cache.load(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE));
+	}
+	
+	@Test
+	public void testKeys() throws IOException {
+		File directory = Files.createTempDirectory("logicobjects").toFile();
+		GeneratedClassCache cache = new GeneratedClassCache(directory, true);
+		String key = cache.keyOf(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE);
+		assertNotNull(key);
+		assertEquals(key, cache.keyOf(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE));
+		assertFalse(key.equals(cache.keyOf(MyTrivialLogicMethods.class, InstrumentationBackend.BYTECODE)));
+		assertFalse(key.equals(cache.keyOf(MyPoint.class, InstrumentationBackend.SOURCE)));
+		cache.store(MyTrivialLogicMethods.class, key, BYTECODE);
+		assertArrayEquals(BYTECODE, cache.load(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE)); //the same entry is found by its backend
+		assertNull(new GeneratedClassCache(directory, false).keyOf(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE)); //keys are not computed if the cache is disabled
+	}
+	
+	@Test
+	public void testDisabledCache() throws IOException {
+		File directory = Files.createTempDirectory("logicobjects").toFile();
+		GeneratedClassCache cache = new GeneratedClassCache(directory, false);
+		cache.store(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE, BYTECODE);
+		assertNull(cache.load(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE));
+		assertEquals(0, directory.list().length);
+	}
+	
+	@Test
+	public void testOwnerOnlyDirectory() throws IOException {
+		assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+		File directory = new File(Files.createTempDirectory("logicobjects").toFile(), "classes");
+		GeneratedClassCache cache = new GeneratedClassCache(directory, true);
+		cache.store(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE, BYTECODE);
+		assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(directory.toPath()));
+		assertArrayEquals(BYTECODE, cache.load(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE));
+		
+		Files.setPosixFilePermissions(directory.toPath(), PosixFilePermissions.fromString("rwxrwxrwx")); //other users could have written the entries
+		assertNull(cache.load(MyTrivialLogicMethods.class, InstrumentationBackend.SOURCE));
+		cache.store(MyPoint.class, InstrumentationBackend.SOURCE, BYTECODE);
+		assertEquals(1, directory.list().length); //nothing is written in an untrusted directory
+	}
+	
+	@Test
+	public void testDefaultCacheFollowsPreferences() {
+		LogicObjectsPreferences preferences = LogicObjects.getDefault().getPreferences();
+		boolean enabled = preferences.isClassCacheEnabled();
+		try {
+			preferences.setClassCacheEnabled(false);
+			assertFalse(GeneratedClassCache.getDefault().isEnabled());
+			preferences.setClassCacheEnabled(true);
+			assertTrue(GeneratedClassCache.getDefault().isEnabled());
+		} finally {
+			preferences.setClassCacheEnabled(enabled);
+		}
+	}
+	
+}
@@ -0,0 +1,98 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.core.LogicClass;
+import org.logicobjects.core.LogicClassMetadata;
+import org.logicobjects.test.fixture.MyPoint;
+
+/**
+ * Tests that the logic metadata of a class is resolved only once. No Prolog engine is needed.
+ * @author scastro
+ *
+ */
+public class TestLogicClassMetadata {
+
+	public static class MyLabeledPoint extends MyPoint {}
+
+	@LObject(args = {"radius"})
+	public static class MyCircle {
+		private int radius;
+		public int getRadius() {return radius;}
+		public void setRadius(int radius) {this.radius = radius;}
+	}
+
+	public static class MyPlainClass {}
+
+	@Test
+	public void testMetadataIsComputedOnce() {
+		LogicClassMetadata metadata = LogicClass.getMetadata(MyPoint.class);
+		assertSame(metadata, LogicClass.getMetadata(MyPoint.class));
+		LogicClass logicClass = LogicClass.findLogicClass(MyPoint.class);
+		assertSame(metadata.getLogicClass(), logicClass); //the logic class is not built again
+		assertSame(logicClass, LogicClass.findLogicClass(MyPoint.class));
+		assertNotNull(metadata.getDefaultTermDescriptor());
+		assertSame(metadata.getDefaultTermDescriptor(), LogicClass.getMetadata(MyPoint.class).getDefaultTermDescriptor());
+	}
+
+	@Test
+	public void testConcurrentComputation() throws Exception {
+		int threads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<LogicClassMetadata>> futures = new ArrayList<>();
+			for(int i = 0; i < threads; i++) {
+				futures.add(executor.submit(new Callable<LogicClassMetadata>() {
+					@Override
+					public LogicClassMetadata call() throws Exception {
+						start.await();
+						return LogicClass.getMetadata(MyCircle.class); //the metadata of this class is not requested by other tests
+					}
+				}));
+			}
+			start.countDown();
+			LogicClassMetadata metadata = futures.get(0).get(10, TimeUnit.SECONDS);
+			for(Future<LogicClassMetadata> future : futures) {
+				assertSame(metadata, future.get(10, TimeUnit.SECONDS)); //all the threads see the same metadata
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testGuidingClass() {
+		assertEquals(MyPoint.class, LogicClass.findGuidingClass(MyPoint.class));
+		assertEquals(MyPoint.class, LogicClass.findGuidingClass(MyLabeledPoint.class));
+		assertSame(LogicClass.getMetadata(MyPoint.class).getGuidingClass(), LogicClass.getMetadata(MyLabeledPoint.class).getGuidingClass());
+		assertNull(LogicClass.findGuidingClass(MyPlainClass.class));
+		assertNull(LogicClass.findGuidingClass(Object.class));
+	}
+
+	@Test
+	public void testInterfaces() {
+		assertNull(LogicClass.getMetadata(Runnable.class).getLogicClass());
+		assertSame(LogicClass.getMetadata(Runnable.class), LogicClass.getMetadata(Runnable.class));
+		try {
+			LogicClass.findLogicClass(Runnable.class);
+			fail();
+		} catch(RuntimeException e) {}
+	}
+
+}
@@ -0,0 +1,89 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.logicobjects.core.LogicClass;
+import org.logicobjects.core.LogicPropertyAccessor;
+import org.logicobjects.test.fixture.MyPoint;
+
+/**
+ * Tests the cached accessors of logic properties. No Prolog engine is needed.
+ * @author scastro
+ *
+ */
+public class TestLogicPropertyAccessor {
+
+	public static class MyLabeledPoint extends MyPoint {}
+
+	public static class MyFieldsOnly {
+		private int counter;
+		private String name;
+	}
+
+	public static class MyInheritedFields extends MyFieldsOnly {}
+
+	public static class MyComputedLabel {
+		private String label;
+		public String getLabel() {return "<" + label + ">";}
+		public void setLabel(String label) {this.label = label.trim();}
+	}
+
+	private static LogicPropertyAccessor accessor(Class clazz, String propertyName) {
+		return LogicClass.getMetadata(clazz).getPropertyAccessor(propertyName);
+	}
+
+	@Test
+	public void testAccessorsAreCached() {
+		LogicPropertyAccessor accessor = accessor(MyPoint.class, "label");
+		assertSame(accessor, accessor(MyPoint.class, "label"));
+		assertEquals("label", accessor.getPropertyName());
+		assertEquals(String.class, accessor.getPropertyType());
+	}
+
+	@Test
+	public void testBeanProperties() {
+		MyPoint point = new MyPoint(1, "origin", 0.5, 2.0, true);
+		assertEquals(1, accessor(MyPoint.class, "id").get(point));
+		assertEquals(0.5, accessor(MyPoint.class, "x").get(point));
+		assertEquals(true, accessor(MyPoint.class, "visible").get(point)); //a boolean getter starting with "is"
+		accessor(MyPoint.class, "id").set(point, 2); //primitive properties are unboxed
+		accessor(MyPoint.class, "label").set(point, "moved");
+		assertEquals(2, point.getId());
+		assertEquals("moved", point.getLabel());
+	}
+
+	@Test
+	public void testAccessorMethodsBeforeFields() {
+		MyComputedLabel object = new MyComputedLabel();
+		LogicPropertyAccessor accessor = accessor(MyComputedLabel.class, "label");
+		accessor.set(object, " hello ");
+		assertEquals("<hello>", accessor.get(object));
+	}
+
+	@Test
+	public void testPrivateFields() {
+		MyFieldsOnly object = new MyFieldsOnly();
+		accessor(MyFieldsOnly.class, "counter").set(object, 3);
+		accessor(MyFieldsOnly.class, "name").set(object, "fields");
+		assertEquals(3, object.counter);
+		assertEquals("fields", object.name);
+		assertEquals(3, accessor(MyFieldsOnly.class, "counter").get(object));
+		assertEquals("fields", accessor(MyFieldsOnly.class, "name").get(object));
+	}
+
+	@Test
+	public void testInheritedProperties() {
+		MyLabeledPoint point = new MyLabeledPoint();
+		accessor(MyLabeledPoint.class, "label").set(point, "inherited");
+		assertEquals("inherited", point.getLabel());
+		assertEquals("inherited", accessor(MyLabeledPoint.class, "label").get(point));
+
+		MyInheritedFields object = new MyInheritedFields();
+		accessor(MyInheritedFields.class, "counter").set(object, 5);
+		assertEquals(5, ((MyFieldsOnly) object).counter); //the field is declared in the superclass
+		assertEquals(5, accessor(MyInheritedFields.class, "counter").get(object));
+	}
+
+}
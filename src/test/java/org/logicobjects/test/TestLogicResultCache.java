@@ -0,0 +1,162 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.core.LogicClass;
+import org.logicobjects.core.LogicDependenciesListener;
+import org.logicobjects.core.LogicDependenciesLoader;
+import org.logicobjects.core.LogicResourcesLoadedEvent;
+import org.logicobjects.instrumentation.LogicResultCache;
+import org.logicobjects.test.fixture.MyCachedLogicMethods;
+import org.logicobjects.test.fixture.MyLibraryLogicMethods;
+import org.logicobjects.test.fixture.MyTrivialLogicMethods;
+import org.reflections.util.ClasspathHelper;
+
+public class TestLogicResultCache extends LocalLogicTest {
+
+	@Test
+	public void testHitsAndInvalidation() throws NoSuchMethodException {
+		MyCachedLogicMethods logicObject = LogicObjects.newLogicObject(MyCachedLogicMethods.class);
+		Method method = MyCachedLogicMethods.class.getMethod("same", String.class, String.class);
+		LogicResultCache resultCache = LogicObjects.getResultCache(logicObject, method);
+		resultCache.invalidateAll();
+		long hits = resultCache.getStats().hitCount();
+		long misses = resultCache.getStats().missCount();
+		assertTrue(logicObject.same("a", "a"));
+		assertTrue(logicObject.same("a", "a"));
+		assertFalse(logicObject.same("a", "b"));
+		assertEquals(hits + 1, resultCache.getStats().hitCount());
+		assertEquals(misses + 2, resultCache.getStats().missCount());
+		
+		LogicObjects.invalidateCachedResult(logicObject, method, "a", "a");
+		assertTrue(logicObject.same("a", "a"));
+		assertEquals(misses + 3, resultCache.getStats().missCount());
+		
+		LogicObjects.invalidateAllCachedResults();
+		assertEquals(0, resultCache.size());
+	}
+	
+	@Test
+	public void testEviction() throws NoSuchMethodException {
+		MyCachedLogicMethods logicObject = LogicObjects.newLogicObject(MyCachedLogicMethods.class);
+		LogicResultCache resultCache = LogicObjects.getResultCache(logicObject, MyCachedLogicMethods.class.getMethod("same", String.class, String.class));
+		long evictions = resultCache.getStats().evictionCount();
+		for(int i = 0; i < 5; i++)
+			logicObject.same("a", "a" + i);
+		assertTrue(resultCache.size() <= 2);
+		assertTrue(resultCache.getStats().evictionCount() > evictions);
+	}
+	
+	@Test
+	public void testInvalidationOnReload() throws NoSuchMethodException {
+		MyCachedLogicMethods logicObject = LogicObjects.newLogicObject(MyCachedLogicMethods.class);
+		LogicResultCache resultCache = LogicObjects.getResultCache(logicObject, MyCachedLogicMethods.class.getMethod("same", String.class, String.class));
+		assertTrue(logicObject.same("b", "b"));
+		assertTrue(resultCache.size() > 0);
+		
+		LogicDependenciesLoader dependenciesLoader = LogicObjects.getDefault().getLogicObjectFactory().getLogicDependenciesLoader();
+		Package pakkage = MyCachedLogicMethods.class.getPackage();
+		long packageGeneration = dependenciesLoader.getGeneration(pakkage);
+		long classGeneration = dependenciesLoader.getGeneration(MyCachedLogicMethods.class);
+		List<LogicResourcesLoadedEvent> events = loadClass(dependenciesLoader, MyCachedLogicMethods.class);
+		assertEquals(1, events.size());
+		assertEquals(MyCachedLogicMethods.class, events.get(0).getLoadedClass());
+		assertEquals(classGeneration + 1, dependenciesLoader.getGeneration(MyCachedLogicMethods.class));
+		assertEquals(packageGeneration, dependenciesLoader.getGeneration(pakkage)); //loading a class does not change the generation of its package
+		assertEquals(0, resultCache.size());
+	}
+	
+	@Test
+	public void testInvalidationOfAffectedResultsOnly() throws NoSuchMethodException {
+		MyCachedLogicMethods logicObject = LogicObjects.newLogicObject(MyCachedLogicMethods.class);
+		LogicResultCache resultCache = LogicObjects.getResultCache(logicObject, MyCachedLogicMethods.class.getMethod("same", String.class, String.class));
+		resultCache.invalidateAll();
+		assertTrue(logicObject.same("c", "c"));
+		assertEquals(1, resultCache.size());
+		LogicDependenciesLoader dependenciesLoader = LogicObjects.getDefault().getLogicObjectFactory().getLogicDependenciesLoader();
+		
+		//loading an unrelated class (in the same package) keeps the cached results
+		assertEquals(1, loadClass(dependenciesLoader, MyLibraryLogicMethods.class).size());
+		assertEquals(1, resultCache.size());
+		long hits = resultCache.getStats().hitCount();
+		assertTrue(logicObject.same("c", "c"));
+		assertEquals(hits + 1, resultCache.getStats().hitCount());
+		
+		//reloading the package of the class drops them
+		List<LogicResourcesLoadedEvent> events = loadPackage(dependenciesLoader, MyCachedLogicMethods.class);
+		assertEquals(1, events.size());
+		assertNull(events.get(0).getLoadedClass());
+		assertEquals(0, resultCache.size());
+		long misses = resultCache.getStats().missCount();
+		assertTrue(logicObject.same("c", "c"));
+		assertEquals(misses + 1, resultCache.getStats().missCount());
+	}
+	
+	@Test
+	public void testLoadingWithoutResources() throws NoSuchMethodException {
+		MyCachedLogicMethods logicObject = LogicObjects.newLogicObject(MyCachedLogicMethods.class);
+		LogicResultCache resultCache = LogicObjects.getResultCache(logicObject, MyCachedLogicMethods.class.getMethod("same", String.class, String.class));
+		assertTrue(logicObject.same("d", "d"));
+		long size = resultCache.size();
+		LogicDependenciesLoader dependenciesLoader = LogicObjects.getDefault().getLogicObjectFactory().getLogicDependenciesLoader();
+		long classGeneration = dependenciesLoader.getGeneration(MyTrivialLogicMethods.class);
+		assertTrue(loadClass(dependenciesLoader, MyTrivialLogicMethods.class).isEmpty()); //the class does not declare resources
+		assertEquals(classGeneration, dependenciesLoader.getGeneration(MyTrivialLogicMethods.class));
+		assertEquals(size, resultCache.size());
+	}
+	
+	/**
+	 * (Re)loads the resources of a class
+	 * @return the notified loading events
+	 */
+	private static List<LogicResourcesLoadedEvent> loadClass(LogicDependenciesLoader dependenciesLoader, Class clazz) {
+		EventsRecorder recorder = new EventsRecorder();
+		dependenciesLoader.addListener(recorder);
+		try {
+			dependenciesLoader.simpleLoadClass(LogicClass.findLogicClass(clazz));
+		} finally {
+			dependenciesLoader.removeListener(recorder);
+		}
+		return recorder.events;
+	}
+	
+	/**
+	 * (Re)loads the resources of the package of a class
+	 * @return the notified loading events
+	 */
+	private static List<LogicResourcesLoadedEvent> loadPackage(LogicDependenciesLoader dependenciesLoader, Class clazz) {
+		EventsRecorder recorder = new EventsRecorder();
+		dependenciesLoader.addListener(recorder);
+		try {
+			dependenciesLoader.simpleLoadPackage(clazz.getPackage(), ClasspathHelper.forClass(clazz));
+		} finally {
+			dependenciesLoader.removeListener(recorder);
+		}
+		return recorder.events;
+	}
+	
+	private static class EventsRecorder implements LogicDependenciesListener {
+		private final List<LogicResourcesLoadedEvent> events = new ArrayList<>();
+		
+		@Override
+		public void resourcesLoaded(LogicResourcesLoadedEvent event) {
+			events.add(event);
+		}
+	}
+	
+	@Test
+	public void testNotCachedMethod() throws NoSuchMethodException {
+		MyTrivialLogicMethods logicObject = LogicObjects.newLogicObject(MyTrivialLogicMethods.class);
+		assertNull(LogicObjects.getResultCache(logicObject, MyTrivialLogicMethods.class.getMethod("same", String.class, String.class)));
+	}
+	
+}
@@ -0,0 +1,111 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.jpc.util.PrologUtil;
+import org.junit.Test;
+import org.logicobjects.instrumentation.FlushMode;
+import org.logicobjects.instrumentation.FlushPolicy;
+import org.logicobjects.instrumentation.OutputFlusher;
+import org.logicobjects.test.configuration.StubEngineConfiguration;
+
+/**
+ * Tests when the output of an engine is flushed after logic method invocations. The engine is a stub, so no Prolog installation is needed.
+ * @author scastro
+ *
+ */
+public class TestOutputFlusher {
+
+	/**
+	 * Counts the flushes of the output of a stub engine
+	 */
+	private static class CountingPrologUtil extends PrologUtil {
+		private final Semaphore flushes = new Semaphore(0);
+		
+		public CountingPrologUtil() {
+			super(StubEngineConfiguration.newStubEngine());
+		}
+		
+		@Override
+		public void flushOutput() {
+			flushes.release();
+		}
+		
+		public int getFlushes() {
+			return flushes.availablePermits();
+		}
+		
+		/**
+		 * @return true if the output is flushed before the timeout
+		 */
+		public boolean awaitFlush(long timeoutMillis) throws InterruptedException {
+			return flushes.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	private static final Executor CURRENT_THREAD_EXECUTOR = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+	
+	@Test
+	public void testFlushAfterEachCall() {
+		CountingPrologUtil logicUtil = new CountingPrologUtil();
+		OutputFlusher outputFlusher = new OutputFlusher(logicUtil, CURRENT_THREAD_EXECUTOR);
+		FlushPolicy flushPolicy = new FlushPolicy(FlushMode.ALWAYS, 0, 0);
+		outputFlusher.afterInvocation(flushPolicy);
+		assertEquals(1, logicUtil.getFlushes());
+		outputFlusher.afterInvocation(flushPolicy);
+		assertEquals(2, logicUtil.getFlushes());
+	}
+	
+	@Test
+	public void testNeverFlush() {
+		CountingPrologUtil logicUtil = new CountingPrologUtil();
+		OutputFlusher outputFlusher = new OutputFlusher(logicUtil, CURRENT_THREAD_EXECUTOR);
+		outputFlusher.afterInvocation(new FlushPolicy(FlushMode.NEVER, 0, 0));
+		assertEquals(0, logicUtil.getFlushes());
+	}
+	
+	@Test
+	public void testFlushEveryCalls() {
+		CountingPrologUtil logicUtil = new CountingPrologUtil();
+		OutputFlusher outputFlusher = new OutputFlusher(logicUtil, CURRENT_THREAD_EXECUTOR);
+		FlushPolicy flushPolicy = new FlushPolicy(FlushMode.PERIODIC, 3, 0);
+		outputFlusher.afterInvocation(flushPolicy);
+		outputFlusher.afterInvocation(flushPolicy);
+		assertEquals(0, logicUtil.getFlushes());
+		outputFlusher.afterInvocation(flushPolicy);
+		assertEquals(1, logicUtil.getFlushes());
+		outputFlusher.afterInvocation(flushPolicy);
+		assertEquals(1, logicUtil.getFlushes()); //the count starts again after each flush
+	}
+	
+	@Test
+	public void testFlushEveryMillis() throws InterruptedException {
+		CountingPrologUtil logicUtil = new CountingPrologUtil();
+		OutputFlusher outputFlusher = new OutputFlusher(logicUtil, CURRENT_THREAD_EXECUTOR);
+		outputFlusher.afterInvocation(new FlushPolicy(FlushMode.PERIODIC, 0, 20));
+		assertEquals(0, logicUtil.getFlushes()); //the output is flushed by the scheduler, not after the call
+		assertTrue(logicUtil.awaitFlush(5000));
+		Thread.sleep(100);
+		assertEquals(0, logicUtil.getFlushes()); //there was no pending output after the flush
+	}
+	
+	@Test
+	public void testShorterInterval() throws InterruptedException {
+		CountingPrologUtil logicUtil = new CountingPrologUtil();
+		OutputFlusher outputFlusher = new OutputFlusher(logicUtil, CURRENT_THREAD_EXECUTOR);
+		outputFlusher.afterInvocation(new FlushPolicy(FlushMode.PERIODIC, 0, 60000));
+		outputFlusher.afterInvocation(new FlushPolicy(FlushMode.PERIODIC, 0, 20)); //replaces the periodic flush with the longer interval
+		assertTrue(logicUtil.awaitFlush(5000));
+	}
+	
+}
@@ -2,6 +2,7 @@ package org.logicobjects.test;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 
@@ -22,12 +23,19 @@ import static org.logicobjects.instrumentation.LogicMethodParser.methodArgumentS
 import static org.logicobjects.instrumentation.LogicMethodParser.normalizeExpression;
 import static org.logicobjects.instrumentation.LogicMethodParser.scanMethodSymbols;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 
 import org.junit.Test;
+import org.logicobjects.instrumentation.JavaExpressionsEvaluator;
 import org.logicobjects.instrumentation.LogicMethodParser;
 import org.logicobjects.instrumentation.LogicMethodParsingData;
+import org.logicobjects.instrumentation.LogicTemplate;
+import org.logicobjects.instrumentation.LogicTemplate.Token;
+import org.logicobjects.instrumentation.LogicTemplate.TokenKind;
+import org.logicobjects.instrumentation.LogicTermTemplate;
 
 
 public class TestParsingExpressions extends LocalLogicTest {
@@ -155,4 +163,54 @@ public class TestParsingExpressions extends LocalLogicTest {
 		assertEquals(parsedData.getSolutionString(), returnValue);
 	}
 
+	@Test
+	public void testCompileLogicTemplate() {
+		LogicTemplate template = LogicTemplate.compile("p($1, x, $$, @name, $0, $12)", Collections.<String>emptyList());
+		List<Token> tokens = template.getTokens();
+		assertFalse(template.isLiteral());
+		assertEquals(tokens.size(), 11);
+		assertEquals(tokens.get(0).getKind(), TokenKind.LITERAL);
+		assertEquals(tokens.get(0).getText(), "p(");
+		assertEquals(tokens.get(1).getKind(), TokenKind.ARGUMENT);
+		assertEquals(tokens.get(1).getIndex(), 1);
+		assertEquals(tokens.get(2).getText(), ", x, ");
+		assertEquals(tokens.get(3).getKind(), TokenKind.ALL_ARGUMENTS);
+		assertEquals(tokens.get(5).getKind(), TokenKind.PROPERTY);
+		assertEquals(tokens.get(5).getPropertyName(), "name");
+		assertEquals(tokens.get(7).getKind(), TokenKind.THIS);
+		assertEquals(tokens.get(9).getKind(), TokenKind.ARGUMENT);
+		assertEquals(tokens.get(9).getIndex(), 12);
+		assertEquals(tokens.get(10).getText(), ")");
+	}
+	
+	@Test
+	public void testCompileLogicTemplateWithExpressions() {
+		String expression = BEGIN_JAVA_VALUE_EXP + "$1 + 1" + END_JAVA_EXPRESSION_BLOCK;
+		LogicTemplate template = LogicTemplate.compile("p(" + expression + ", $1)", Arrays.asList(expression));
+		List<Token> tokens = template.getTokens();
+		assertEquals(tokens.size(), 5);
+		assertEquals(tokens.get(1).getKind(), TokenKind.EXPRESSION); //symbols inside the expression are not tokenized
+		assertEquals(tokens.get(1).getIndex(), 0);
+		assertEquals(tokens.get(3).getKind(), TokenKind.ARGUMENT);
+	}
+	
+	@Test
+	public void testRenderLiteralTemplate() {
+		LogicTemplate template = LogicTemplate.compile("p(x, y)", Collections.<String>emptyList());
+		assertTrue(template.isLiteral());
+		assertEquals(template.render(null), "p(x, y)"); //a literal template does not need any binding
+		assertTrue(LogicTemplate.compile(null, Collections.<String>emptyList()).getTokens().isEmpty());
+	}
+
+	@Test
+	public void testCompileLogicTermTemplate() {
+		JavaExpressionsEvaluator noExpressions = new JavaExpressionsEvaluator(Collections.<String>emptyList(), new Class[0]);
+		LogicTermTemplate termTemplate = LogicTermTemplate.compile(LogicTemplate.compile("p($1, X)", Collections.<String>emptyList()), noExpressions, logicUtil);
+		assertNotNull(termTemplate);
+		assertTrue(termTemplate.getTerm().hasVariable(LogicTermTemplate.PLACEHOLDER_PREFIX + "ARG_1"));
+		//symbols that cannot be replaced structurally
+		assertNull(LogicTermTemplate.compile(LogicTemplate.compile("p('$1')", Collections.<String>emptyList()), noExpressions, logicUtil));
+		assertNull(LogicTermTemplate.compile(LogicTemplate.compile("$$", Collections.<String>emptyList()), noExpressions, logicUtil));
+	}
+
 }
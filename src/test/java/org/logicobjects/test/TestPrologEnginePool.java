@@ -0,0 +1,309 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.jpc.engine.prolog.PrologEngine;
+import org.jpc.term.AbstractTerm;
+import org.jpc.term.Atom;
+import org.junit.Test;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.LogicObjectsPreferences;
+import org.logicobjects.core.PrologEnginePool;
+import org.logicobjects.core.PrologEnginePool.Lease;
+import org.logicobjects.core.PrologEnginePool.PooledEngine;
+import org.logicobjects.test.configuration.StubEngineConfiguration;
+
+/**
+ * Tests the checkout of engines from a pool. The engines of the pool are stubs, so no Prolog installation is needed.
+ * @author scastro
+ *
+ */
+public class TestPrologEnginePool {
+
+	private static PrologEnginePool newPool(int size, boolean confined) {
+		return new PrologEnginePool(new StubEngineConfiguration(), size, StubEngineConfiguration.STUB_ENGINE_FACTORY, confined);
+	}
+
+	private static List<AbstractTerm> modules(String... names) {
+		List<AbstractTerm> terms = new ArrayList<>();
+		for(String name : names) {
+			terms.add(new Atom(name));
+		}
+		return terms;
+	}
+
+	/**
+	 * Starts a new thread executing a task. Threads are not reused, since a thread holding an engine would check it out again
+	 * @return the future result of the task
+	 */
+	private static <T> FutureTask<T> startInNewThread(Callable<T> task) {
+		FutureTask<T> future = new FutureTask<>(task);
+		new Thread(future).start();
+		return future;
+	}
+
+	/**
+	 * Checks out an engine from a new thread. The lease can be released by any thread
+	 */
+	private static Lease checkoutInOtherThread(final PrologEnginePool pool) throws Exception {
+		return startInNewThread(new Callable<Lease>() {
+			@Override
+			public Lease call() {
+				return pool.checkout();
+			}
+		}).get(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testConcurrentCheckouts() throws Exception {
+		PrologEnginePool pool = newPool(2, false);
+		Lease lease1 = pool.checkout();
+		Lease lease2 = checkoutInOtherThread(pool);
+		assertNotSame(lease1.getEngine(), lease2.getEngine());
+		lease2.release();
+		Lease lease3 = checkoutInOtherThread(pool);
+		assertSame(lease2.getEngine(), lease3.getEngine()); //the released engine is reused instead of creating another one
+		lease3.release();
+		lease1.release();
+	}
+
+	@Test
+	public void testExclusiveCheckouts() throws Exception {
+		final PrologEnginePool pool = newPool(2, false);
+		final Set<PooledEngine> busyEngines = Collections.synchronizedSet(new HashSet<PooledEngine>());
+		final Set<PooledEngine> usedEngines = Collections.synchronizedSet(new HashSet<PooledEngine>());
+		List<Future<Boolean>> futures = new ArrayList<>();
+		for(int i = 0; i < 20; i++) {
+			futures.add(startInNewThread(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					Lease lease = pool.checkout();
+					try {
+						usedEngines.add(lease.getEngine());
+						if(!busyEngines.add(lease.getEngine()))
+							return false; //another thread was using the engine
+						Thread.sleep(5);
+						busyEngines.remove(lease.getEngine());
+						return true;
+					} finally {
+						lease.release();
+					}
+				}
+			}));
+		}
+		for(Future<Boolean> future : futures) {
+			assertTrue(future.get(10, TimeUnit.SECONDS));
+		}
+		assertTrue(usedEngines.size() <= 2);
+	}
+
+	@Test
+	public void testSharedCheckouts() throws Exception {
+		PrologEnginePool pool = newPool(1, false);
+		Lease lease1 = pool.checkout();
+		Lease lease2 = checkoutInOtherThread(pool); //does not wait for the release of the first lease
+		assertSame(lease1.getEngine(), lease2.getEngine());
+		lease1.release();
+		lease2.release();
+	}
+
+	@Test
+	public void testNestedCheckouts() throws Exception {
+		PrologEnginePool pool = newPool(2, false);
+		Lease outerLease = pool.checkout();
+		Lease innerLease = pool.checkout();
+		assertSame(outerLease.getEngine(), innerLease.getEngine()); //a thread re-entering the pool keeps its engine
+		innerLease.release();
+		innerLease.release(); //releasing a lease more than once has no effect
+		Lease otherLease = checkoutInOtherThread(pool);
+		assertNotSame(outerLease.getEngine(), otherLease.getEngine()); //the engine is still held by the outer lease
+		outerLease.release();
+		Lease anotherLease = checkoutInOtherThread(pool);
+		assertSame(outerLease.getEngine(), anotherLease.getEngine());
+		otherLease.release();
+		anotherLease.release();
+	}
+
+	@Test
+	public void testCheckoutTimeout() throws Exception {
+		LogicObjectsPreferences preferences = LogicObjects.getDefault().getPreferences();
+		long timeoutMillis = preferences.getEngineCheckoutTimeoutMillis();
+		preferences.setEngineCheckoutTimeoutMillis(100);
+		try {
+			PrologEnginePool pool = newPool(2, false);
+			Lease lease1 = pool.checkout();
+			Lease lease2 = checkoutInOtherThread(pool);
+			try {
+				checkoutInOtherThread(pool);
+				fail();
+			} catch(ExecutionException e) {
+				assertTrue(e.getCause() instanceof IllegalStateException);
+			}
+			lease2.release();
+			Lease lease3 = checkoutInOtherThread(pool);
+			assertSame(lease2.getEngine(), lease3.getEngine());
+			lease1.release();
+			lease3.release();
+		} finally {
+			preferences.setEngineCheckoutTimeoutMillis(timeoutMillis);
+		}
+	}
+
+	@Test
+	public void testCatchUpOnCheckout() throws Exception {
+		PrologEnginePool pool = newPool(2, false);
+		Lease lease1 = pool.checkout();
+		Lease lease2 = checkoutInOtherThread(pool);
+		PooledEngine engine1 = lease1.getEngine();
+		PooledEngine engine2 = lease2.getEngine();
+		assertTrue(pool.ensureLoaded(modules("library(lists)")));
+		assertEquals(1, engine1.getLoadedSteps()); //the engine held by this thread loads the modules immediately
+		assertEquals(0, engine2.getLoadedSteps()); //the engine held by the other thread loads them when it is checked out again
+		lease2.release();
+		Lease lease3 = checkoutInOtherThread(pool);
+		assertSame(engine2, lease3.getEngine());
+		assertEquals(1, engine2.getLoadedSteps());
+
+		lease3.release();
+		assertTrue(pool.logtalkLoad(modules("my_object"))); //the idle engine loads the files immediately
+		assertEquals(2, engine1.getLoadedSteps());
+		assertEquals(2, engine2.getLoadedSteps());
+		lease1.release();
+	}
+
+	@Test
+	public void testCatchUpOnNestedCheckout() throws Exception {
+		final PrologEnginePool pool = newPool(2, false);
+		Lease outerLease = pool.checkout();
+		startInNewThread(new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return pool.ensureLoaded(modules("library(lists)"));
+			}
+		}).get(10, TimeUnit.SECONDS);
+		assertEquals(0, outerLease.getEngine().getLoadedSteps()); //the engine was held by this thread while another thread loaded the modules
+		Lease innerLease = pool.checkout();
+		assertEquals(1, innerLease.getEngine().getLoadedSteps());
+		innerLease.release();
+		outerLease.release();
+	}
+
+	@Test
+	public void testCatchUpOfNewEngines() throws Exception {
+		PrologEnginePool pool = newPool(2, false);
+		assertTrue(pool.ensureLoaded(modules("library(lists)")));
+		assertTrue(pool.ensureLoaded(modules("library(apply)")));
+		Lease lease1 = pool.checkout();
+		Lease lease2 = checkoutInOtherThread(pool); //a new engine is created
+		assertNotSame(lease1.getEngine(), lease2.getEngine());
+		assertEquals(2, lease2.getEngine().getLoadedSteps());
+		lease1.release();
+		lease2.release();
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidSize() {
+		newPool(0, false);
+	}
+
+	@Test
+	public void testSubmittedTasks() throws Exception {
+		PrologEnginePool pool = newPool(2, false);
+		List<Future<String>> futures = new ArrayList<>();
+		for(int i = 0; i < 10; i++) {
+			futures.add(pool.submit(new Callable<String>() {
+				@Override
+				public String call() {
+					return Thread.currentThread().getName();
+				}
+			}));
+		}
+		Set<String> threads = new HashSet<>();
+		for(Future<String> future : futures) {
+			threads.add(future.get(10, TimeUnit.SECONDS));
+		}
+		assertTrue(threads.size() <= 2);
+		for(String thread : threads) {
+			assertTrue(thread.startsWith("logicobjects-engine-"));
+		}
+	}
+
+	private static final Callable<String> THREAD_NAME = new Callable<String>() {
+		@Override
+		public String call() {
+			return Thread.currentThread().getName();
+		}
+	};
+
+	@Test
+	public void testUnconfinedCalls() throws Exception {
+		PrologEnginePool pool = newPool(2, false);
+		Lease lease = pool.checkout();
+		assertEquals(Thread.currentThread().getName(), lease.call(THREAD_NAME));
+		lease.release();
+		assertTrue(pool.submit(THREAD_NAME).get(10, TimeUnit.SECONDS).startsWith("logicobjects-engine-")); //asynchronous tasks are always executed in the engine threads
+	}
+
+	@Test
+	public void testConfinedCalls() throws Exception {
+		PrologEnginePool pool = newPool(2, true);
+		Lease lease = pool.checkout();
+		assertEquals(lease.getEngine().getName(), lease.call(THREAD_NAME));
+		lease.release();
+	}
+
+	@Test
+	public void testConfinedEngineCreation() throws Exception {
+		final List<String> creationThreads = Collections.synchronizedList(new ArrayList<String>());
+		StubEngineConfiguration logicEngineConfig = new StubEngineConfiguration() {
+			@Override
+			protected PrologEngine createLogicEngine() {
+				creationThreads.add("configuration");
+				return super.createLogicEngine();
+			}
+		};
+		PrologEnginePool pool = new PrologEnginePool(logicEngineConfig, 2, new Callable<PrologEngine>() {
+			@Override
+			public PrologEngine call() {
+				creationThreads.add(Thread.currentThread().getName());
+				return StubEngineConfiguration.newStubEngine();
+			}
+		}, true);
+		Lease lease1 = pool.checkout();
+		Lease lease2 = checkoutInOtherThread(pool);
+		assertEquals(Arrays.asList(lease1.getEngine().getName(), lease2.getEngine().getName()), creationThreads); //the engine of the configuration is not used
+		lease1.release();
+		lease2.release();
+	}
+
+	@Test
+	public void testSubmitWhileHoldingEngine() throws Exception {
+		PrologEnginePool pool = newPool(2, false);
+		Lease lease1 = pool.checkout(); //e.g., an open solution enumeration
+		Lease lease2 = checkoutInOtherThread(pool);
+		String thread = pool.submit(THREAD_NAME).get(10, TimeUnit.SECONDS); //waiting for a release of another engine would never finish
+		assertEquals(lease1.getEngine().getName(), thread);
+		lease1.release();
+		lease2.release();
+		Lease lease3 = pool.checkout();
+		assertSame(lease1.getEngine(), lease3.getEngine()); //the task released its hold of the engine
+		lease3.release();
+	}
+
+}
@@ -0,0 +1,165 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.test.fixture.MyPublisherLogicMethods;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Tests the publishers answered by logic methods. 
+ * The checks of released engines assume the default pool size (one engine per configuration): an engine still held by a publisher would block the invocations from other threads.
+ * @author scastro
+ *
+ */
+public class TestSolutionPublisher extends LocalLogicTest {
+
+	private static final long TIMEOUT_SECONDS = 5;
+	
+	private static class RecordingSubscriber implements Subscriber<Object> {
+		private final BlockingQueue<Object> solutions = new LinkedBlockingQueue<>();
+		private final CountDownLatch subscribed = new CountDownLatch(1);
+		private final CountDownLatch terminated = new CountDownLatch(1);
+		private volatile Subscription subscription;
+		private volatile boolean completed;
+		private volatile Throwable error;
+		
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+			subscribed.countDown();
+		}
+
+		@Override
+		public void onNext(Object solution) {
+			solutions.add(solution);
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			this.error = error;
+			terminated.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+			terminated.countDown();
+		}
+		
+		public Subscription awaitSubscription() throws InterruptedException {
+			assertTrue(subscribed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+			return subscription;
+		}
+	}
+	
+	/**
+	 * @return true if another thread could invoke a logic method (i.e., the engine is not held by a publisher)
+	 */
+	private boolean invokeFromAnotherThread(final MyPublisherLogicMethods logicObject) throws Exception {
+		return CompletableFuture.supplyAsync(new Supplier<Boolean>() {
+			@Override
+			public Boolean get() {
+				return logicObject.succeeds();
+			}
+		}).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+	}
+	
+	@Test
+	public void testNoSubscriber() throws Exception {
+		MyPublisherLogicMethods logicObject = LogicObjects.newLogicObject(MyPublisherLogicMethods.class);
+		int fetched = MyPublisherLogicMethods.fetchedSolutions.get();
+		Publisher<Object> publisher = logicObject.numbers();
+		assertNotNull(publisher);
+		assertTrue(invokeFromAnotherThread(logicObject)); //the query is not opened until a subscriber subscribes
+		assertEquals(fetched, MyPublisherLogicMethods.fetchedSolutions.get());
+	}
+	
+	@Test
+	public void testDemand() throws Exception {
+		MyPublisherLogicMethods logicObject = LogicObjects.newLogicObject(MyPublisherLogicMethods.class);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		logicObject.numbers().subscribe(subscriber);
+		Subscription subscription = subscriber.awaitSubscription();
+		int fetched = MyPublisherLogicMethods.fetchedSolutions.get();
+		subscription.request(2);
+		assertNotNull(subscriber.solutions.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertNotNull(subscriber.solutions.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertNull(subscriber.solutions.poll(200, TimeUnit.MILLISECONDS)); //no more solutions than requested
+		assertEquals(fetched + 2, MyPublisherLogicMethods.fetchedSolutions.get()); //solutions are only fetched when requested
+		subscription.request(1);
+		assertNotNull(subscriber.solutions.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertNull(subscriber.solutions.poll(200, TimeUnit.MILLISECONDS));
+		assertEquals(fetched + 3, MyPublisherLogicMethods.fetchedSolutions.get());
+		assertFalse(subscriber.completed);
+		subscription.cancel();
+	}
+	
+	@Test
+	public void testCancel() throws Exception {
+		MyPublisherLogicMethods logicObject = LogicObjects.newLogicObject(MyPublisherLogicMethods.class);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		logicObject.numbers().subscribe(subscriber);
+		Subscription subscription = subscriber.awaitSubscription();
+		subscription.request(1);
+		assertNotNull(subscriber.solutions.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		subscription.cancel();
+		assertTrue(invokeFromAnotherThread(logicObject)); //the engine is released once the query is closed
+		int fetched = MyPublisherLogicMethods.fetchedSolutions.get();
+		subscription.request(1); //no effect after cancelling
+		assertNull(subscriber.solutions.poll(200, TimeUnit.MILLISECONDS));
+		assertEquals(fetched, MyPublisherLogicMethods.fetchedSolutions.get());
+		assertFalse(subscriber.completed);
+		assertNull(subscriber.error);
+	}
+	
+	@Test
+	public void testComplete() throws Exception {
+		MyPublisherLogicMethods logicObject = LogicObjects.newLogicObject(MyPublisherLogicMethods.class);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		logicObject.numbers().subscribe(subscriber);
+		subscriber.awaitSubscription().request(Long.MAX_VALUE);
+		assertTrue(subscriber.terminated.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertTrue(subscriber.completed);
+		assertNull(subscriber.error);
+		assertEquals(5, subscriber.solutions.size());
+		assertTrue(invokeFromAnotherThread(logicObject)); //the engine is released when the subscription completes
+	}
+	
+	@Test
+	public void testThrowingSubscriber() throws Exception {
+		MyPublisherLogicMethods logicObject = LogicObjects.newLogicObject(MyPublisherLogicMethods.class);
+		RecordingSubscriber subscriber = new RecordingSubscriber() {
+			@Override
+			public void onNext(Object solution) {
+				super.onNext(solution);
+				throw new RuntimeException("Subscriber failure");
+			}
+		};
+		logicObject.numbers().subscribe(subscriber);
+		Subscription subscription = subscriber.awaitSubscription();
+		int fetched = MyPublisherLogicMethods.fetchedSolutions.get();
+		subscription.request(3);
+		assertNotNull(subscriber.solutions.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertTrue(invokeFromAnotherThread(logicObject)); //the subscription is cancelled, so the query is closed and the engine released
+		assertNull(subscriber.solutions.poll(200, TimeUnit.MILLISECONDS));
+		assertEquals(fetched + 1, MyPublisherLogicMethods.fetchedSolutions.get());
+		assertFalse(subscriber.completed);
+		assertNull(subscriber.error);
+	}
+	
+}
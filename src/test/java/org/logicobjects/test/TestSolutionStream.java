@@ -0,0 +1,103 @@
+package org.logicobjects.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jpc.query.Query;
+import org.junit.Before;
+import org.junit.Test;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.methodadapter.methodresult.solutioncomposition.SolutionEnumeration;
+import org.logicobjects.test.fixture.MyStreamLogicMethods;
+
+/**
+ * Tests the streams answered by logic methods.
+ * @author scastro
+ *
+ */
+public class TestSolutionStream extends LocalLogicTest {
+
+	private static final String NUMBERS_GOAL = "member(X, [1,2,3,4,5])";
+	
+	@Before
+	public void resetFetchedSolutions() {
+		MyStreamLogicMethods.fetchedSolutions.set(0);
+	}
+	
+	/**
+	 * @param closed set when the query of the enumeration is exhausted or closed
+	 * @return an enumeration of the solutions of NUMBERS_GOAL, counting the solutions fetched
+	 */
+	private SolutionEnumeration<Object> numbersEnumeration(final AtomicBoolean closed) {
+		Query query = logicUtil.query(logicEngineConfig.getEngine().asTerm(NUMBERS_GOAL));
+		SolutionEnumeration<Object> solutionEnumeration = new SolutionEnumeration<>(query, new MyStreamLogicMethods.CountingAdapter());
+		solutionEnumeration.onClose(new Runnable() {
+			@Override
+			public void run() {
+				closed.set(true);
+			}
+		});
+		return solutionEnumeration;
+	}
+	
+	@Test
+	public void testLazyFetching() {
+		MyStreamLogicMethods logicObject = LogicObjects.newLogicObject(MyStreamLogicMethods.class);
+		try(Stream<Object> numbers = logicObject.numbers()) {
+			assertEquals(0, MyStreamLogicMethods.fetchedSolutions.get()); //no solution is fetched until the stream is consumed
+			Iterator<Object> iterator = numbers.iterator();
+			assertEquals(1, ((Number) iterator.next()).intValue());
+			assertEquals(1, MyStreamLogicMethods.fetchedSolutions.get());
+			assertEquals(2, ((Number) iterator.next()).intValue());
+			assertEquals(2, MyStreamLogicMethods.fetchedSolutions.get());
+		}
+	}
+	
+	@Test
+	public void testShortCircuiting() {
+		MyStreamLogicMethods logicObject = LogicObjects.newLogicObject(MyStreamLogicMethods.class);
+		try(Stream<Object> numbers = logicObject.numbers()) {
+			assertEquals(1, ((Number) numbers.findFirst().get()).intValue());
+		}
+		assertEquals(1, MyStreamLogicMethods.fetchedSolutions.get()); //the remaining solutions are not fetched
+		
+		MyStreamLogicMethods.fetchedSolutions.set(0);
+		try(Stream<Object> numbers = logicObject.numbers()) {
+			assertEquals(2, numbers.limit(2).collect(Collectors.toList()).size());
+		}
+		assertEquals(2, MyStreamLogicMethods.fetchedSolutions.get());
+	}
+	
+	@Test
+	public void testAllSolutions() {
+		MyStreamLogicMethods logicObject = LogicObjects.newLogicObject(MyStreamLogicMethods.class);
+		assertEquals(5, logicObject.numbers().count());
+		assertEquals(5, MyStreamLogicMethods.fetchedSolutions.get());
+	}
+	
+	@Test
+	public void testCloseClosesQuery() {
+		AtomicBoolean closed = new AtomicBoolean();
+		SolutionEnumeration<Object> solutionEnumeration = numbersEnumeration(closed);
+		Stream<Object> numbers = solutionEnumeration.stream();
+		assertTrue(numbers.findFirst().isPresent());
+		assertFalse(closed.get()); //the query is still open since it was not exhausted
+		numbers.close();
+		assertTrue(closed.get());
+	}
+	
+	@Test
+	public void testExhaustionClosesQuery() {
+		AtomicBoolean closed = new AtomicBoolean();
+		SolutionEnumeration<Object> solutionEnumeration = numbersEnumeration(closed);
+		assertEquals(5, solutionEnumeration.stream().count()); //the stream is not closed by the terminal operation
+		assertTrue(closed.get());
+	}
+	
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertEquals;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 import org.logicobjects.annotation.method.LMethod;
@@ -12,7 +13,10 @@ import org.logicobjects.core.LogicMethod;
 import org.logicobjects.instrumentation.ParsedLogicMethod;
 import org.logicobjects.methodadapter.methodresult.solutioncomposition.ArrayWrapperAdapter;
 import org.logicobjects.methodadapter.methodresult.solutioncomposition.ListWrapperAdapter;
+import org.logicobjects.methodadapter.methodresult.solutioncomposition.PublisherWrapperAdapter;
+import org.logicobjects.methodadapter.methodresult.solutioncomposition.StreamWrapperAdapter;
 import org.logicobjects.methodadapter.methodresult.solutioncomposition.WrapperAdapter;
+import org.reactivestreams.Publisher;
 
 public class TestWrapperAdapter extends LocalLogicTest {
 
@@ -22,6 +26,12 @@ public class TestWrapperAdapter extends LocalLogicTest {
 	@LMethod
 	public String[] m2() {return null;}
 	
+	@LMethod
+	public Stream<String> m3() {return null;}
+	
+	@LMethod
+	public Publisher<String> m4() {return null;}
+	
 	
 	@Test
 	public void testListWrapper() {
@@ -59,4 +69,34 @@ public class TestWrapperAdapter extends LocalLogicTest {
 		wrapperAdapter.setParsedLogicMethod(parsedLogicMethod);
 		assertEquals(wrapperAdapter.getEachSolutionType(), String.class);
 	}
+	
+	@Test
+	public void testStreamWrapper() {
+		Method method;
+		try {
+			method = getClass().getMethod("m3");
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		} 
+		LogicMethod logicMethod = new LogicMethod(method);
+		ParsedLogicMethod parsedLogicMethod = new ParsedLogicMethod(logicMethod, null, null, null);
+		WrapperAdapter wrapperAdapter = new StreamWrapperAdapter();
+		wrapperAdapter.setParsedLogicMethod(parsedLogicMethod);
+		assertEquals(wrapperAdapter.getEachSolutionType(), String.class);
+	}
+	
+	@Test
+	public void testPublisherWrapper() {
+		Method method;
+		try {
+			method = getClass().getMethod("m4");
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		} 
+		LogicMethod logicMethod = new LogicMethod(method);
+		ParsedLogicMethod parsedLogicMethod = new ParsedLogicMethod(logicMethod, null, null, null);
+		WrapperAdapter wrapperAdapter = new PublisherWrapperAdapter();
+		wrapperAdapter.setParsedLogicMethod(parsedLogicMethod);
+		assertEquals(wrapperAdapter.getEachSolutionType(), String.class);
+	}
 }
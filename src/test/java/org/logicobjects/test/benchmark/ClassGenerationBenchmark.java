@@ -0,0 +1,53 @@
+package org.logicobjects.test.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javassist.ClassPool;
+
+import org.logicobjects.instrumentation.GeneratedClassCache;
+import org.logicobjects.instrumentation.InstrumentationBackend;
+import org.logicobjects.instrumentation.LogicObjectInstrumentation;
+import org.logicobjects.test.fixture.MyManyLogicMethods;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the generation of the instrumented class of a logic class with 60 logic methods, with each instrumentation backend.
+ * The generated class is not loaded, so it can be generated again in each invocation (using a new class pool).
+ * @author scastro
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ClassGenerationBenchmark {
+
+	@Param({"SOURCE", "BYTECODE"})
+	private InstrumentationBackend backend;
+	
+	private final GeneratedClassCache disabledCache = new GeneratedClassCache(null, false);
+	
+	@Benchmark
+	public byte[] generateClass() {
+		return new LogicObjectInstrumentation(MyManyLogicMethods.class, new ClassPool(true), disabledCache, backend).generateExtendingClass();
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ClassGenerationBenchmark.class.getSimpleName()).build()).run();
+	}
+	
+}
@@ -0,0 +1,58 @@
+package org.logicobjects.test.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javassist.ClassPool;
+
+import org.logicobjects.instrumentation.GeneratedClassCache;
+import org.logicobjects.instrumentation.LogicObjectInstrumentation;
+import org.logicobjects.test.fixture.MyTrivialLogicMethods;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the time required to obtain the extending class of a logic class the first time it is used, in a fresh JVM per fork.
+ * The runtime benchmark generates the class with Javassist. The pregenerated benchmark loads the class generated at compile time by the LogicObjects annotation processor.
+ * Pregenerated classes are available only if the test sources are compiled with the processor (mvn -Ppregenerated test-compile).
+ * @author scastro
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class InstrumentationStartupBenchmark {
+
+	@Benchmark
+	public Class runtimeGeneration() {
+		ClassPool classPool = new ClassPool(true) {
+			@Override
+			public ClassLoader getClassLoader() {
+				return new ClassLoader(null) {}; //hides the pregenerated class (if any), so the class is always generated
+			}
+		};
+		return new LogicObjectInstrumentation(MyTrivialLogicMethods.class, classPool, new GeneratedClassCache(null, false)).getExtendingClass(); //the on disk cache is disabled
+	}
+	
+	@Benchmark
+	public Class pregeneratedLoading() {
+		Class pregeneratedClass = LogicObjectInstrumentation.findPregeneratedClass(MyTrivialLogicMethods.class);
+		if(pregeneratedClass == null)
+			throw new RuntimeException("The test sources were not compiled with the LogicObjects annotation processor.");
+		return pregeneratedClass;
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(InstrumentationStartupBenchmark.class.getSimpleName()).build()).run();
+	}
+	
+}
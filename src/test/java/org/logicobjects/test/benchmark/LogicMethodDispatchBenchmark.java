@@ -0,0 +1,69 @@
+package org.logicobjects.test.benchmark;
+
+import static org.logicobjects.LogicObjects.newLogicObject;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+import org.logicobjects.LogicObjects;
+import org.logicobjects.instrumentation.LogicMethodInvoker;
+import org.logicobjects.test.fixture.MyTrivialLogicMethods;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the dispatch of a trivial logic method as it was done by the old generated method bodies 
+ * (reflective method lookup and a new invoker per call) with the dispatch of the current generated method bodies 
+ * (method resolved once at class initialization and an invoker shared per logic engine configuration).
+ * @author scastro
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LogicMethodDispatchBenchmark {
+
+	private MyTrivialLogicMethods logicObject;
+	private AbstractPrologEngineDriver logicEngineConfig;
+	
+	@Setup
+	public void setUp() {
+		logicObject = newLogicObject(MyTrivialLogicMethods.class);
+		logicEngineConfig = LogicObjects.getLogicEngineConfiguration(MyTrivialLogicMethods.class);
+	}
+	
+	/**
+	 * Replicates the instructions of the old generated method bodies.
+	 */
+	@Benchmark
+	public Object reflectiveDispatch() throws NoSuchMethodException {
+		Method thisMethod = logicObject.getClass().getMethod("alwaysTrue", new Class[0]);
+		LogicMethodInvoker methodInvoker = new LogicMethodInvoker(logicEngineConfig);
+		return methodInvoker.invoke(logicObject, thisMethod, new Object[0]);
+	}
+	
+	@Benchmark
+	public boolean generatedDispatch() {
+		return logicObject.alwaysTrue();
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LogicMethodDispatchBenchmark.class.getSimpleName()).build()).run();
+	}
+	
+}
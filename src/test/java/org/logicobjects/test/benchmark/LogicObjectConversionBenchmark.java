@@ -0,0 +1,90 @@
+package org.logicobjects.test.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jpc.term.Compound;
+import org.jpc.term.Term;
+import org.logicobjects.converter.context.old.BeanPropertyAdaptationContext;
+import org.logicobjects.converter.old.ObjectToTermConverter;
+import org.logicobjects.converter.old.TermToObjectConverter;
+import org.logicobjects.test.fixture.MyPoint;
+import org.minitoolbox.reflection.BeansUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the conversion of a list of logic objects (with five properties each) to terms and back.
+ * The reflective benchmark replicates how properties were accessed before property accessors were cached (a new adaptation context and a reflective bean access per property).
+ * @author scastro
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LogicObjectConversionBenchmark {
+
+	private static final List<String> PROPERTIES = Arrays.asList("id", "label", "x", "y", "visible");
+	
+	@Param({"1000000"})
+	private int size;
+	
+	private List<MyPoint> points;
+	private List<Term> pointTerms;
+	
+	@Setup
+	public void setUp() {
+		points = new ArrayList<>();
+		for(int i = 0; i < size; i++) {
+			points.add(new MyPoint(i, "point" + i, i * 0.5, i * 2.0, i % 2 == 0));
+		}
+		pointTerms = new ObjectToTermConverter<MyPoint>().adaptObjects(points);
+	}
+	
+	@Benchmark
+	public List<Term> objectsToTermsReflective() {
+		List<Term> terms = new ArrayList<>();
+		for(MyPoint point : points) {
+			List<Term> args = new ArrayList<>();
+			for(String propertyName : PROPERTIES) {
+				BeanPropertyAdaptationContext adaptationContext = new BeanPropertyAdaptationContext(MyPoint.class, propertyName);
+				Object propertyValue = BeansUtil.getProperty(point, propertyName, adaptationContext.getGuidingClass());
+				args.add(new ObjectToTermConverter().adapt(propertyValue, adaptationContext));
+			}
+			terms.add(new Compound("my_point", args));
+		}
+		return terms;
+	}
+	
+	@Benchmark
+	public List<Term> objectsToTerms() {
+		return new ObjectToTermConverter<MyPoint>().adaptObjects(points);
+	}
+	
+	@Benchmark
+	public List<MyPoint> termsToObjects() {
+		return new TermToObjectConverter<MyPoint>().adaptTerms(pointTerms, MyPoint.class, null);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LogicObjectConversionBenchmark.class.getSimpleName()).build()).run();
+	}
+	
+}
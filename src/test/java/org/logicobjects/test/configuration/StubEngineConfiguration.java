@@ -0,0 +1,68 @@
+package org.logicobjects.test.configuration;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Callable;
+
+import org.jpc.engine.prolog.PrologEngine;
+import org.jpc.engine.prolog.driver.AbstractPrologEngineDriver;
+
+/**
+ * A configuration of stub engines, for testing the infrastructure around the engines without a Prolog installation.
+ * A stub engine succeeds in every operation returning a boolean and returns default values otherwise.
+ * @author scastro
+ *
+ */
+public class StubEngineConfiguration extends AbstractPrologEngineDriver {
+
+	/**
+	 * Creates stub engines. It can be used as the engine factory of an engine pool
+	 */
+	public static final Callable<PrologEngine> STUB_ENGINE_FACTORY = new Callable<PrologEngine>() {
+		@Override
+		public PrologEngine call() {
+			return newStubEngine();
+		}
+	};
+	
+	public static PrologEngine newStubEngine() {
+		return (PrologEngine) Proxy.newProxyInstance(PrologEngine.class.getClassLoader(), new Class<?>[]{PrologEngine.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				switch(method.getName()) {
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "stub engine";
+				}
+				Class<?> returnType = method.getReturnType();
+				if(returnType == boolean.class)
+					return true;
+				if(returnType == int.class)
+					return 0;
+				if(returnType == short.class)
+					return (short) 0;
+				if(returnType == byte.class)
+					return (byte) 0;
+				if(returnType == long.class)
+					return 0L;
+				if(returnType == float.class)
+					return 0F;
+				if(returnType == double.class)
+					return 0D;
+				if(returnType == char.class)
+					return '\0';
+				return null;
+			}
+		});
+	}
+	
+	@Override
+	protected PrologEngine createLogicEngine() {
+		return newStubEngine();
+	}
+
+}
@@ -0,0 +1,43 @@
+package org.logicobjects.test.fixture;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.annotation.method.LQuery;
+import org.logicobjects.annotation.method.LSolution;
+import org.logicobjects.methodadapter.methodresult.eachsolution.EachSolutionAdapter;
+
+/**
+ * Logic methods invoked asynchronously (they answer a CompletableFuture)
+ * @author scastro
+ *
+ */
+@LObject
+public abstract class MyAsynchronousLogicMethods {
+
+	/**
+	 * Adapts a solution to the name of the thread adapting it (the thread of the engine executing the query)
+	 */
+	public static class ThreadNameAdapter extends EachSolutionAdapter<String> {
+		@Override
+		public String adapt(Map solution) {
+			return Thread.currentThread().getName();
+		}
+	}
+	
+	@LQuery("$1 == $2")
+	public abstract CompletableFuture<Boolean> same(String first, String second);
+	
+	@LQuery("true")
+	public abstract CompletableFuture<Void> run();
+	
+	@LQuery("true")
+	@LSolution(adapter = ThreadNameAdapter.class)
+	public abstract CompletableFuture<String> threadName();
+	
+	@LQuery("true")
+	@LSolution(adapter = ThreadNameAdapter.class)
+	public abstract String synchronousThreadName();
+	
+}
@@ -0,0 +1,20 @@
+package org.logicobjects.test.fixture;
+
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.annotation.method.LCached;
+import org.logicobjects.annotation.method.LQuery;
+
+/**
+ * Logic methods with memoized results
+ * The class declares a module, so reloading its resources changes the logic theory.
+ * @author scastro
+ *
+ */
+@LObject(modules = {"library(lists)"})
+public abstract class MyCachedLogicMethods {
+
+	@LCached(maximumSize = 2)
+	@LQuery("$1 == $2")
+	public abstract boolean same(String first, String second);
+	
+}
@@ -0,0 +1,18 @@
+package org.logicobjects.test.fixture;
+
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.annotation.method.LQuery;
+
+/**
+ * Logic methods relying on a Prolog library declared by their class.
+ * Reloading its resources should not affect the cached results of unrelated classes.
+ * @author scastro
+ *
+ */
+@LObject(modules = {"library(apply)"})
+public abstract class MyLibraryLogicMethods {
+
+	@LQuery("maplist(atom, [a,b])")
+	public abstract boolean allAtoms();
+	
+}
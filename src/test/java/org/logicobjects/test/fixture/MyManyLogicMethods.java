@@ -0,0 +1,194 @@
+package org.logicobjects.test.fixture;
+
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.annotation.method.LQuery;
+
+/**
+ * A logic class with many logic methods.
+ * Useful for measuring the generation time of its instrumented class.
+ * @author scastro
+ *
+ */
+@LObject
+public abstract class MyManyLogicMethods {
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue1();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same1(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual1(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue2();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same2(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual2(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue3();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same3(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual3(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue4();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same4(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual4(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue5();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same5(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual5(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue6();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same6(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual6(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue7();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same7(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual7(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue8();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same8(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual8(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue9();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same9(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual9(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue10();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same10(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual10(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue11();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same11(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual11(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue12();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same12(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual12(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue13();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same13(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual13(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue14();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same14(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual14(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue15();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same15(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual15(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue16();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same16(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual16(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue17();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same17(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual17(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue18();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same18(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual18(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue19();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same19(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual19(long first, double second);
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue20();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same20(String first, String second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void lessOrEqual20(long first, double second);
+}
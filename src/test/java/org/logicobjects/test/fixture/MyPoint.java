@@ -0,0 +1,71 @@
+package org.logicobjects.test.fixture;
+
+import org.logicobjects.annotation.LObject;
+
+/**
+ * A logic object with a few properties of different types.
+ * Useful for measuring the cost of converting logic objects to terms and back.
+ * @author scastro
+ *
+ */
+@LObject(args = {"id", "label", "x", "y", "visible"})
+public class MyPoint {
+
+	private int id;
+	private String label;
+	private double x;
+	private double y;
+	private boolean visible;
+	
+	public MyPoint() {
+	}
+	
+	public MyPoint(int id, String label, double x, double y, boolean visible) {
+		this.id = id;
+		this.label = label;
+		this.x = x;
+		this.y = y;
+		this.visible = visible;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public void setLabel(String label) {
+		this.label = label;
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public void setX(double x) {
+		this.x = x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public void setY(double y) {
+		this.y = y;
+	}
+
+	public boolean isVisible() {
+		return visible;
+	}
+
+	public void setVisible(boolean visible) {
+		this.visible = visible;
+	}
+	
+}
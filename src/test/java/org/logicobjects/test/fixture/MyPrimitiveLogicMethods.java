@@ -0,0 +1,44 @@
+package org.logicobjects.test.fixture;
+
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.annotation.method.LQuery;
+import org.logicobjects.annotation.method.LSolution;
+
+/**
+ * A logic class with properties and logic methods of primitive types.
+ * Useful for verifying the loading, boxing and returning of values of each primitive type in generated members.
+ * @author scastro
+ *
+ */
+@LObject(args = {"count", "weight", "label"})
+public abstract class MyPrimitiveLogicMethods {
+
+	public abstract long getCount();
+	
+	public abstract void setCount(long count);
+	
+	public abstract double getWeight();
+	
+	public abstract void setWeight(double weight);
+	
+	//there are no accessors for the label property, so its field (of type Object) is also generated
+	
+	@LSolution("X")
+	@LQuery("X is $1 + $2")
+	public abstract long sum(long first, long second);
+	
+	@LSolution("X")
+	@LQuery("X is $1 / 2")
+	public abstract double half(double value);
+	
+	@LSolution("X")
+	@LQuery("X = $1")
+	public abstract int identity(int value);
+	
+	@LQuery("$1 =< $2")
+	public abstract boolean lessOrEqual(int first, double second);
+	
+	@LQuery("$1 =< $2")
+	public abstract void checkLessOrEqual(long first, double second);
+	
+}
@@ -0,0 +1,43 @@
+package org.logicobjects.test.fixture;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.annotation.method.LQuery;
+import org.logicobjects.annotation.method.LSolution;
+import org.logicobjects.methodadapter.methodresult.eachsolution.EachSolutionAdapter;
+import org.reactivestreams.Publisher;
+
+/**
+ * Logic methods publishing their solutions
+ * @author scastro
+ *
+ */
+@LObject
+public abstract class MyPublisherLogicMethods {
+
+	/**
+	 * The number of solutions fetched from the queries of the publishers
+	 */
+	public static final AtomicInteger fetchedSolutions = new AtomicInteger();
+	
+	/**
+	 * Counts the solutions as they are fetched from a query
+	 */
+	public static class CountingAdapter extends EachSolutionAdapter<Object> {
+		@Override
+		public Object adapt(Map solution) {
+			fetchedSolutions.incrementAndGet();
+			return solution.get("X");
+		}
+	}
+	
+	@LQuery("member(X, [1,2,3,4,5])")
+	@LSolution(adapter = CountingAdapter.class)
+	public abstract Publisher<Object> numbers();
+	
+	@LQuery("true")
+	public abstract boolean succeeds();
+	
+}
@@ -0,0 +1,40 @@
+package org.logicobjects.test.fixture;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.annotation.method.LQuery;
+import org.logicobjects.annotation.method.LSolution;
+import org.logicobjects.methodadapter.methodresult.eachsolution.EachSolutionAdapter;
+
+/**
+ * Logic methods answering streams of solutions
+ * @author scastro
+ *
+ */
+@LObject
+public abstract class MyStreamLogicMethods {
+
+	/**
+	 * The number of solutions fetched from the queries of the streams
+	 */
+	public static final AtomicInteger fetchedSolutions = new AtomicInteger();
+	
+	/**
+	 * Counts the solutions as they are fetched from a query
+	 */
+	public static class CountingAdapter extends EachSolutionAdapter<Object> {
+		@Override
+		public Object adapt(Map solution) {
+			fetchedSolutions.incrementAndGet();
+			return solution.get("X");
+		}
+	}
+	
+	@LQuery("member(X, [1,2,3,4,5])")
+	@LSolution(adapter = CountingAdapter.class)
+	public abstract Stream<Object> numbers();
+	
+}
@@ -0,0 +1,21 @@
+package org.logicobjects.test.fixture;
+
+import org.logicobjects.annotation.LObject;
+import org.logicobjects.annotation.method.LQuery;
+
+/**
+ * Logic methods doing (almost) nothing in the logic side.
+ * Useful for measuring the overhead of the Java side of a logic method invocation.
+ * @author scastro
+ *
+ */
+@LObject
+public abstract class MyTrivialLogicMethods {
+
+	@LQuery("true")
+	public abstract boolean alwaysTrue();
+	
+	@LQuery("$1 == $2")
+	public abstract boolean same(String first, String second);
+	
+}